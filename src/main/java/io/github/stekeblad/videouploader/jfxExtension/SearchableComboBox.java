@@ -0,0 +1,262 @@
+package io.github.stekeblad.videouploader.jfxExtension;
+
+import io.github.stekeblad.videouploader.utils.NameSearchIndex;
+import javafx.scene.control.ComboBox;
+import javafx.scene.control.ListCell;
+import javafx.scene.input.KeyCode;
+import javafx.scene.input.KeyEvent;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * A not editable ComboBox for picking one of many names, like presets or playlists, where the list can be filtered by
+ * typing. Typed characters is collected in to a filter text that is shown in the button and the popup only shows the
+ * names that contains it, ignoring case. Backspace removes the last character and escape or closing the popup
+ * removes the filter.
+ * <p>
+ * The names is kept in a NameSearchIndex so filtering does not need to look at every name. Many SearchableComboBoxes
+ * showing names from the same source, like the playlist pickers in every upload, can share one NameSearchIndex that
+ * the source keeps up to date, then the names is not indexed again for every SearchableComboBox. Use setAllItems and
+ * getAllItems instead of getItems, getItems only returns the names that matches the current filter. When the
+ * filter is removed all names is shown again so getSelectionModel().getSelectedIndex() is the index in getAllItems.
+ */
+public class SearchableComboBox extends ComboBox<String> {
+
+    private final List<String> allItems = new ArrayList<>();
+    // name -> index in allItems, for showing the matches in the same order as the full list
+    private final Map<String, Integer> positions = new HashMap<>();
+    private final NameSearchIndex index;
+    // false if index is shared and updated by someone else
+    private final boolean ownsIndex;
+    // names in allItems that a shared index does not have, they are checked one by one when filtering
+    private final List<String> notIndexed = new ArrayList<>();
+    private final StringBuilder filterText = new StringBuilder();
+    private final FilterButtonCell buttonCell = new FilterButtonCell();
+
+    // the value before filtering started and the value the user picked while filtering
+    private String valueBeforeFilter = null;
+    private String pickedWhileFiltering = null;
+    private boolean changingItems = false;
+
+    /**
+     * Creates a SearchableComboBox with no names, used by FXML
+     */
+    public SearchableComboBox() {
+        this(Collections.emptyList());
+    }
+
+    /**
+     * @param items the names to pick from
+     */
+    public SearchableComboBox(Collection<String> items) {
+        this(new NameSearchIndex(), true, items);
+    }
+
+    /**
+     * @param sharedIndex a search index that is kept up to date by someone else, should contain the names in items.
+     *                    Names that is not in it can still be found but they are checked one by one.
+     * @param items       the names to pick from
+     */
+    public SearchableComboBox(NameSearchIndex sharedIndex, Collection<String> items) {
+        this(sharedIndex, false, items);
+    }
+
+    private SearchableComboBox(NameSearchIndex index, boolean ownsIndex, Collection<String> items) {
+        this.index = index;
+        this.ownsIndex = ownsIndex;
+        setButtonCell(buttonCell);
+        setAllItems(items);
+
+        valueProperty().addListener((observable, oldValue, newValue) -> {
+            if (!changingItems && isFiltering() && newValue != null) {
+                pickedWhileFiltering = newValue;
+            }
+        });
+        addEventFilter(KeyEvent.KEY_TYPED, this::onKeyTyped);
+        addEventFilter(KeyEvent.KEY_PRESSED, this::onKeyPressed);
+        addEventFilter(KeyEvent.KEY_RELEASED, this::onKeyReleased);
+        addEventHandler(ON_HIDDEN, event -> clearFilter());
+    }
+
+    /**
+     * Sets the names that can be picked. Removes the filter if there is one. Only the names that was added or
+     * removed since the last call is changed in the search index, a shared search index is not changed.
+     *
+     * @param items the names to pick from
+     */
+    public void setAllItems(Collection<String> items) {
+        clearFilter();
+        allItems.clear();
+        allItems.addAll(items);
+        positions.clear();
+        for (int i = 0; i < allItems.size(); i++) {
+            positions.putIfAbsent(allItems.get(i), i);
+        }
+        notIndexed.clear();
+        if (ownsIndex) {
+            index.setAll(allItems);
+        } else {
+            for (String name : positions.keySet()) {
+                if (!index.contains(name))
+                    notIndexed.add(name);
+            }
+        }
+        setShownItems(allItems);
+    }
+
+    /**
+     * @return all names that can be picked, also the ones that is hidden by the filter
+     */
+    public List<String> getAllItems() {
+        return Collections.unmodifiableList(allItems);
+    }
+
+    /**
+     * @param name a name
+     * @return true if name can be picked, also if it is hidden by the filter
+     */
+    public boolean hasItem(String name) {
+        return positions.containsKey(name);
+    }
+
+    /**
+     * @return true if the user has typed a filter that has not been removed yet
+     */
+    public boolean isFiltering() {
+        return filterText.length() > 0;
+    }
+
+    private void onKeyTyped(KeyEvent event) {
+        String character = event.getCharacter();
+        if (character == null || character.isEmpty() || Character.isISOControl(character.charAt(0)))
+            return;
+        // A space only opens the popup like in a normal ComboBox, unless the user is already typing
+        if (!isFiltering() && character.trim().isEmpty())
+            return;
+        if (!isFiltering()) {
+            valueBeforeFilter = getValue();
+            pickedWhileFiltering = null;
+        }
+        filterText.append(character);
+        applyFilter();
+        if (!isShowing()) {
+            show();
+        }
+        event.consume();
+    }
+
+    private void onKeyPressed(KeyEvent event) {
+        if (!isFiltering())
+            return;
+        if (event.getCode() == KeyCode.BACK_SPACE) {
+            filterText.setLength(filterText.length() - 1);
+            if (isFiltering()) {
+                applyFilter();
+            } else {
+                restoreAllItems(pickedWhileFiltering);
+            }
+            event.consume();
+        } else if (event.getCode() == KeyCode.ESCAPE) {
+            // Forget what was picked, the popup is hidden by the ComboBox and that removes the filter
+            pickedWhileFiltering = null;
+            if (!isShowing()) {
+                clearFilter();
+                event.consume();
+            }
+        } else if (event.getCode() == KeyCode.SPACE) {
+            // Space is part of the filter text, do not let the ComboBox use it for opening or closing the popup
+            event.consume();
+        }
+    }
+
+    private void onKeyReleased(KeyEvent event) {
+        if (isFiltering() && event.getCode() == KeyCode.SPACE) {
+            event.consume();
+        }
+    }
+
+    /**
+     * Shows only the names that matches the filter text, in the same order as in the full list
+     */
+    private void applyFilter() {
+        String text = filterText.toString();
+        List<String> matches = new ArrayList<>();
+        for (String name : index.search(text)) {
+            // A shared index can have names that this SearchableComboBox does not show
+            if (positions.containsKey(name))
+                matches.add(name);
+        }
+        String lowerCaseText = text.toLowerCase(Locale.ROOT);
+        for (String name : notIndexed) {
+            // A name added to the shared index after setAllItems is already found above
+            if (name.toLowerCase(Locale.ROOT).contains(lowerCaseText) && !index.contains(name))
+                matches.add(name);
+        }
+        matches.sort(Comparator.comparingInt(positions::get));
+        setShownItems(matches);
+        buttonCell.refresh();
+    }
+
+    /**
+     * Removes the filter and shows all names again. The name the user picked while filtering is selected, or the name
+     * that was selected before if nothing was picked.
+     */
+    private void clearFilter() {
+        if (!isFiltering())
+            return;
+        filterText.setLength(0);
+        restoreAllItems(pickedWhileFiltering);
+    }
+
+    private void restoreAllItems(String picked) {
+        String toSelect = picked != null ? picked : valueBeforeFilter;
+        valueBeforeFilter = null;
+        pickedWhileFiltering = null;
+        setShownItems(allItems);
+        if (toSelect != null && positions.containsKey(toSelect)) {
+            getSelectionModel().select(toSelect);
+        }
+        buttonCell.refresh();
+    }
+
+    private void setShownItems(List<String> items) {
+        changingItems = true;
+        try {
+            getItems().setAll(items);
+        } finally {
+            changingItems = false;
+        }
+    }
+
+    /**
+     * Shows the filter text in italic while the user is filtering and the selected name otherwise
+     */
+    private class FilterButtonCell extends ListCell<String> {
+        @Override
+        protected void updateItem(String item, boolean empty) {
+            super.updateItem(item, empty);
+            showText(empty ? null : item);
+        }
+
+        void refresh() {
+            showText(isEmpty() ? null : getItem());
+        }
+
+        private void showText(String item) {
+            if (isFiltering()) {
+                setText(filterText.toString());
+                setStyle("-fx-font-style: italic;");
+            } else {
+                setText(item);
+                setStyle("");
+            }
+        }
+    }
+}
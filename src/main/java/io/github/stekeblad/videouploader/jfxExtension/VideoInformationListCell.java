@@ -0,0 +1,81 @@
+package io.github.stekeblad.videouploader.jfxExtension;
+
+import io.github.stekeblad.videouploader.youtube.VideoInformationBase;
+import javafx.scene.control.ContentDisplay;
+import javafx.scene.control.ListCell;
+import javafx.scene.layout.GridPane;
+
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * A ListCell for showing VideoUploads or VideoPresets in a ListView. Every cell owns one pane that is moved
+ * between the items the cell is showing with VideoInformationBase.attachPane and detachPane, so a list with
+ * thousands of items only needs as many panes as there is visible cells.
+ * <p>
+ * The items in the list can be the VideoUploads or VideoPresets themselves or something lighter that the
+ * VideoUpload or VideoPreset is created from when it is shown, then the list does not need to create all of them.
+ *
+ * @param <S> the type of the items in the ListView
+ * @param <T> VideoUpload or VideoPreset, a list should only contain one of them
+ */
+public class VideoInformationListCell<S, T extends VideoInformationBase> extends ListCell<S> {
+
+    private final Function<S, T> itemToInformation;
+    private final Consumer<GridPane> paneInitializer;
+    private GridPane pane = null;
+    private T shownInformation = null;
+
+    /**
+     * @param itemToInformation gives the VideoUpload or VideoPreset to show for an item in the list, can return null
+     *                          if there is nothing to show, then the text of the item is shown instead
+     * @param paneInitializer   called once for every new pane the cell creates, for translating it and binding its
+     *                          size. Not called when the pane is moved to another item.
+     */
+    public VideoInformationListCell(Function<S, T> itemToInformation, Consumer<GridPane> paneInitializer) {
+        this.itemToInformation = itemToInformation;
+        this.paneInitializer = paneInitializer;
+        setContentDisplay(ContentDisplay.GRAPHIC_ONLY);
+    }
+
+    @Override
+    protected void updateItem(S item, boolean empty) {
+        super.updateItem(item, empty);
+
+        T information = empty || item == null ? null : itemToInformation.apply(item);
+        // Release the previous item if it still uses the pane of this cell
+        if (shownInformation != null && shownInformation != information && shownInformation.hasPane(pane)) {
+            shownInformation.detachPane();
+        }
+        shownInformation = null;
+
+        if (empty || item == null) {
+            setText(null);
+            setGraphic(null);
+            return;
+        }
+        if (information == null) {
+            setContentDisplay(ContentDisplay.TEXT_ONLY);
+            setText(item.toString());
+            setGraphic(null);
+            return;
+        }
+
+        if (!information.hasPane(pane)) {
+            if (pane == null) {
+                // The item may be shown by a cell that is no longer in use, take its pane for this cell
+                information.detachPane();
+                pane = information.getPane();
+                if (paneInitializer != null) {
+                    paneInitializer.accept(pane);
+                }
+            } else {
+                information.attachPane(pane);
+            }
+        }
+        shownInformation = information;
+        setContentDisplay(ContentDisplay.GRAPHIC_ONLY);
+        setText(null);
+        setGraphic(pane);
+    }
+}
@@ -4,13 +4,19 @@ import io.github.stekeblad.videouploader.jfxExtension.MyStage;
 import io.github.stekeblad.videouploader.utils.AlertUtils;
 import io.github.stekeblad.videouploader.utils.ConfigManager;
 import io.github.stekeblad.videouploader.utils.Constants;
+import io.github.stekeblad.videouploader.utils.background.StartupTasks;
+import io.github.stekeblad.videouploader.utils.background.Timings;
+import io.github.stekeblad.videouploader.utils.background.UpdaterUi;
 import io.github.stekeblad.videouploader.utils.translation.TranslationBundles;
 import io.github.stekeblad.videouploader.utils.translation.Translations;
 import io.github.stekeblad.videouploader.utils.translation.TranslationsManager;
 import io.github.stekeblad.videouploader.youtube.Auth;
+import io.github.stekeblad.videouploader.youtube.utils.CategoryUtils;
+import io.github.stekeblad.videouploader.youtube.utils.PlaylistUtils;
 import javafx.animation.KeyFrame;
 import javafx.animation.Timeline;
 import javafx.application.Application;
+import javafx.application.Platform;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.control.Tooltip;
 import javafx.stage.Stage;
@@ -19,82 +25,127 @@ import javafx.util.Duration;
 import java.io.IOException;
 import java.lang.reflect.Field;
 import java.util.Locale;
+import java.util.concurrent.CompletionException;
 
 /**
  * The program starts here, opens MainWindow and waits for all windows to close
  */
 public class Main extends Application {
+    // The names of the startup tasks, see StartupTasks
+    static final String TASK_CONFIG = "config";
+    static final String TASK_TRANSLATIONS = "translations";
+    static final String TASK_PLAYLISTS = "playlists";
+    static final String TASK_CATEGORIES = "categories";
+    static final String TASK_MAIN_WINDOW = "main window";
+    static final String TASK_CHANNEL_NAME = "channel name";
+    static final String TASK_UPDATE_CHECK = "update check";
+
     private ConfigManager configManager;
+    private MyStage mainStage;
+    private final StartupTasks startupTasks = new StartupTasks();
+    private long startTime;
 
+    /**
+     * Starts loading everything needed by the program in parallel. The main window is opened as soon as the settings
+     * and translations is loaded, things that is loaded from the disc or from the internet after that is filled in
+     * when they are ready.
+     */
     @Override
     public void start(Stage primaryStage) {
-        try {
-            configManager = ConfigManager.INSTANCE;
-            configManager.configManager();
-        } catch (Exception e) {
-            e.printStackTrace();
-            AlertUtils.exceptionDialog("ERROR - Stekeblads Video Uploader",
-                    "Failed to load settings or other configurations file, unable to launch.", e);
-        }
-        try {
-            loadTranslations();
-        } catch (Exception e) {
-            e.printStackTrace();
-            AlertUtils.exceptionDialog("ERROR - Stekeblads Video Uploader",
-                    "Failed to load translations, unable to launch. Your detected language: " + Locale.getDefault(), e);
-            return;
-        }
-
+        startTime = Timings.start();
         // Set the default exception handler, hopefully it can catch some of the exceptions that is not already caught
         Thread.setDefaultUncaughtExceptionHandler((thread, exception) -> AlertUtils.unhandledExceptionDialog(exception));
 
-        try {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("mainWindow.fxml"));
-            MyStage stage = new MyStage(ConfigManager.WindowPropertyNames.MAIN);
-            stage.makeScene(loader.load(), Constants.MAIN_WINDOW_DIMENSIONS_RESTRICTION);
+        configManager = ConfigManager.INSTANCE;
+        startupTasks.inBackground(TASK_CONFIG, configManager::configManager)
+                .exceptionally(throwable -> showStartupError(throwable,
+                        "Failed to load settings or other configurations file, unable to launch."));
+        startupTasks.inBackground(TASK_TRANSLATIONS, this::loadTranslations, TASK_CONFIG)
+                .exceptionally(throwable -> {
+                    // Only show a dialog if loading the translations failed, not if loading the settings did
+                    if (startupTasks.get(TASK_CONFIG).isCompletedExceptionally())
+                        return null;
+                    return showStartupError(throwable, "Failed to load translations, unable to launch. " +
+                            "Your detected language: " + Locale.getDefault());
+                });
+
+        // Only needs to know where the files is, can be read at the same time as the translations
+        startupTasks.inBackground(TASK_PLAYLISTS, PlaylistUtils.INSTANCE::loadCache, TASK_CONFIG);
+        startupTasks.inBackground(TASK_CATEGORIES, CategoryUtils.INSTANCE::loadCategories, TASK_CONFIG);
+
+        startupTasks.onFxThread(TASK_MAIN_WINDOW, this::showMainWindow, TASK_TRANSLATIONS)
+                .exceptionally(throwable -> {
+                    if (startupTasks.get(TASK_TRANSLATIONS).isCompletedExceptionally())
+                        return null;
+                    return showStartupError(throwable, "Unable to load main window, the program will exit");
+                });
+
+        // Show channel name in window title, if authenticated. Can need to ask YouTube so it is done after the window
+        // is opened
+        startupTasks.inBackground(TASK_CHANNEL_NAME, this::loadChannelName, TASK_MAIN_WINDOW);
+
+        // Start a background check for updates, the check itself runs in the background and dialogs is created on
+        // the JavaFX thread
+        startupTasks.onFxThread(TASK_UPDATE_CHECK, () -> new UpdaterUi().runUpdater(true), TASK_MAIN_WINDOW);
+    }
 
-            // Show channel name in window title, if authenticated.
-            stage.setTitle(getWindowTitle());
+    private Void showStartupError(Throwable throwable, String content) {
+        Throwable cause = throwable instanceof CompletionException && throwable.getCause() != null ?
+                throwable.getCause() : throwable;
+        Platform.runLater(() -> AlertUtils.exceptionDialog("ERROR - Stekeblads Video Uploader", content, cause));
+        return null;
+    }
 
-            customizeTooltip();
+    private void showMainWindow() throws IOException {
+        long fxmlStart = Timings.start();
+        FXMLLoader loader = new FXMLLoader(getClass().getResource("mainWindow.fxml"));
+        mainStage = new MyStage(ConfigManager.WindowPropertyNames.MAIN);
+        mainStage.makeScene(loader.load(), Constants.MAIN_WINDOW_DIMENSIONS_RESTRICTION);
+        Timings.INSTANCE.record("startup/main window fxml", fxmlStart);
+        mainStage.setTitle(getWindowTitle(configManager.getChannelName()));
 
-            stage.prepareControllerAndShow(loader.getController());
-        } catch (IOException e) {
-            AlertUtils.exceptionDialog("Stekeblads Video Uploader",
-                    "Unable to load main window, the program will exit", e);
-        }
+        customizeTooltip();
+
+        mainWindowController controller = loader.getController();
+        controller.setStartupTasks(startupTasks);
+        mainStage.prepareControllerAndShow(controller);
+        Timings.INSTANCE.record("startup/until main window shown", startTime);
     }
 
     /**
      * If the user has authenticated with YouTube, then an attempt is made
      * to show the name of the user's channel in the window title. In order to save time and quota
      * may the channel name already be saved in the settings file and loaded from there instead of
-     * requested from YouTube.
-     *
+     * requested from YouTube. Called on a background thread.
+     */
+    private void loadChannelName() {
+        // If the user has never authed or the name is in the settings the title is already correct
+        if (configManager.getNeverAuthed())
+            return;
+        if (configManager.getChannelName() != null && !configManager.getChannelName().equals(""))
+            return;
+
+        // Not there, get from YouTube
+        String channelName = Auth.getChannelName();
+        if (channelName != null) {
+            // success, save and show program name + channel name
+            Platform.runLater(() -> {
+                configManager.setChannelName(channelName);
+                mainStage.setTitle(getWindowTitle(channelName));
+            });
+        }
+    }
+
+    /**
+     * @param channelName the name of the user's channel, or null or empty if it is not known
      * @return A string to show in the window title
      */
-    private String getWindowTitle() {
+    private String getWindowTitle(String channelName) {
         Translations trans = TranslationsManager.getTranslation(TranslationBundles.BASE);
-        // If the user has never authed, only use program name
-        if (configManager.getNeverAuthed()) {
+        if (configManager.getNeverAuthed() || channelName == null || channelName.equals("")) {
             return trans.getString("app_name");
         }
-        // then check the settings
-        else if (configManager.getChannelName() == null || configManager.getChannelName().equals("")) {
-            // Not there, get from YouTube
-            String channelName = Auth.getChannelName();
-            if (channelName != null) {
-                // success, save and return program name + channel name
-                configManager.setChannelName(channelName);
-                return trans.getString("app_name") + " - (" + channelName + ")";
-            } else {
-                // failure, only return program name
-                return trans.getString("app_name");
-            }
-        } else {
-            // return program name and saved channel name
-            return trans.getString("app_name") + " - (" + configManager.getChannelName() + ")";
-        }
+        return trans.getString("app_name") + " - (" + channelName + ")";
     }
 
     private void loadTranslations() throws Exception {
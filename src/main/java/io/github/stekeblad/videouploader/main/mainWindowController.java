@@ -2,13 +2,18 @@ package io.github.stekeblad.videouploader.main;
 
 import io.github.stekeblad.videouploader.jfxExtension.IWindowController;
 import io.github.stekeblad.videouploader.jfxExtension.MyStage;
+import io.github.stekeblad.videouploader.jfxExtension.SearchableComboBox;
+import io.github.stekeblad.videouploader.jfxExtension.VideoInformationListCell;
 import io.github.stekeblad.videouploader.utils.AlertUtils;
 import io.github.stekeblad.videouploader.utils.ConfigManager;
 import io.github.stekeblad.videouploader.utils.Constants;
 import io.github.stekeblad.videouploader.utils.FileUtils;
+import io.github.stekeblad.videouploader.utils.background.MetaDataPrefetcher;
 import io.github.stekeblad.videouploader.utils.background.OpenInBrowser;
 import io.github.stekeblad.videouploader.utils.background.PresetApplicator;
-import io.github.stekeblad.videouploader.utils.background.UpdaterUi;
+import io.github.stekeblad.videouploader.utils.background.StartupTasks;
+import io.github.stekeblad.videouploader.utils.background.ThumbnailPreprocessor;
+import io.github.stekeblad.videouploader.utils.background.Timings;
 import io.github.stekeblad.videouploader.utils.state.ButtonProperties;
 import io.github.stekeblad.videouploader.utils.state.VideoUploadState;
 import io.github.stekeblad.videouploader.utils.translation.TranslationBundles;
@@ -22,6 +27,8 @@ import io.github.stekeblad.videouploader.youtube.utils.CategoryUtils;
 import io.github.stekeblad.videouploader.youtube.utils.PlaylistUtils;
 import javafx.application.Platform;
 import javafx.collections.FXCollections;
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Cursor;
@@ -30,7 +37,6 @@ import javafx.scene.control.*;
 import javafx.scene.input.KeyCode;
 import javafx.scene.input.MouseButton;
 import javafx.scene.layout.AnchorPane;
-import javafx.scene.layout.GridPane;
 import javafx.scene.layout.HBox;
 import javafx.stage.Modality;
 import javafx.stage.Stage;
@@ -41,20 +47,26 @@ import java.net.URL;
 import java.time.*;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Predicate;
 
 import static io.github.stekeblad.videouploader.utils.Constants.*;
-import static io.github.stekeblad.videouploader.youtube.VideoInformationBase.MAX_THUMB_SIZE;
+import static io.github.stekeblad.videouploader.youtube.VideoInformationBase.MAX_THUMB_SOURCE_SIZE;
 import static io.github.stekeblad.videouploader.youtube.VideoInformationBase.THUMBNAIL_FILE_FORMAT;
 import static javafx.scene.control.ProgressIndicator.INDETERMINATE_PROGRESS;
 
 public class mainWindowController implements IWindowController {
     public AnchorPane mainWindowPane;
     public ToolBar toolbar;
-    public ListView<GridPane> listView;
+    public ListView<VideoUpload> listView;
     public HBox box_presetProgress;
     public ListView<String> chosen_files;
-    public ChoiceBox<String> choice_presets;
+    public SearchableComboBox choice_presets;
     public TextField txt_autoNum;
     public Button btn_presets;
     public Button btn_settings;
@@ -64,6 +76,7 @@ public class mainWindowController implements IWindowController {
     public Button btn_startAll;
     public Button btn_abortAll;
     public Button btn_abortAndClear;
+    public Button btn_resetFailed;
     public Label label_selectPreset;
     public Label label_numbering;
     public Label label_presetProgress;
@@ -74,10 +87,19 @@ public class mainWindowController implements IWindowController {
     private CategoryUtils categoryUtils;
     private int uploadPaneCounter = 0;
     private int presetsInProgress = 0;
-    private List<VideoUpload> uploadQueueVideos;
+    private ObservableList<VideoUpload> uploadQueueVideos;
     private List<File> videosToAdd;
+    private HashMap<String, VideoUpload> uploadsById;
     private HashMap<String, VideoUpload> editBackups;
     private static final String UPLOAD_PANE_ID_PREFIX = "upload-";
+    private static final String TASK_READ_WAITING_UPLOADS = "read waiting uploads";
+    private static final String TASK_SHOW_WAITING_UPLOADS = "show waiting uploads";
+    private static final String TASK_REFRESH_PLAYLISTS = "refresh playlists";
+    private StartupTasks startupTasks;
+    // Read on a background thread when the program starts, file name -> upload. Only used until they are added to
+    // the list, the files are deleted first then.
+    private LinkedHashMap<String, String> waitingUploads = null;
+    private boolean windowClosed = false;
     private boolean bypassAbortWarning = false;
     private VideoUploadState buttonStates;
 
@@ -92,11 +114,13 @@ public class mainWindowController implements IWindowController {
      * Initialize things when the window is opened, used instead of initialize as that one does not have access to the scene
      */
     public void myInit() {
+        long initStart = Timings.start();
         // Set the default exception handler to catch the exceptions that is not already caught
         // Is this needed in every window or only in the Main.java file?
         Thread.setDefaultUncaughtExceptionHandler((thread, exception) -> AlertUtils.unhandledExceptionDialog(exception));
 
         // Load Translations
+        long translateStart = Timings.start();
         transMainWin = TranslationsManager.getTranslation(TranslationBundles.WINDOW_MAIN);
         transMainWin.autoTranslate(mainWindowPane);
         // Bugged:
@@ -106,8 +130,9 @@ public class mainWindowController implements IWindowController {
 
         transBasic = TranslationsManager.getTranslation(TranslationBundles.BASE);
         transUpload = TranslationsManager.getTranslation(TranslationBundles.PRESET_UPLOAD);
+        Timings.INSTANCE.record("startup/main window translate", translateStart);
 
-        // Load custom CSS (for improved readability of disabled ChoiceBoxes)
+        // Load custom CSS (for improved readability of disabled ChoiceBoxes and ComboBoxes)
         URL css_path = mainWindowController.class.getClassLoader().getResource("css/disabled.css");
         if (css_path != null) {
             mainWindowPane.getScene().getStylesheets().add(css_path.toString());
@@ -117,16 +142,39 @@ public class mainWindowController implements IWindowController {
         presetApplicator = new PresetApplicator();
 
         uploadPaneCounter = 0;
-        uploadQueueVideos = new ArrayList<>();
+        uploadQueueVideos = FXCollections.observableArrayList();
+        uploadsById = new HashMap<>();
         editBackups = new HashMap<>();
+        // Keep the id index up to date with the uploads list
+        uploadQueueVideos.addListener((ListChangeListener<VideoUpload>) change -> {
+            while (change.next()) {
+                for (VideoUpload removed : change.getRemoved()) {
+                    uploadsById.remove(removed.getPaneId());
+                }
+                for (VideoUpload added : change.getAddedSubList()) {
+                    uploadsById.put(added.getPaneId(), added);
+                }
+            }
+        });
+
+        // The list only creates panes for the visible uploads and reuses them while scrolling
+        listView.setCellFactory(list -> new VideoInformationListCell<>(Function.identity(), pane -> {
+            // make the upload change its width together with the uploads list and the window
+            pane.prefWidthProperty().bind(listView.widthProperty().subtract(35));
+            transUpload.autoTranslate(pane, pane.getId());
+        }));
+        listView.setItems(uploadQueueVideos);
+        // The bulk actions in the context menu works on the selected uploads, the buttons on all uploads
+        listView.getSelectionModel().setSelectionMode(SelectionMode.MULTIPLE);
+        listView.setContextMenu(makeSelectedUploadsMenu());
         configManager = ConfigManager.INSTANCE;
         // configManager.configManager(); Done in Main.java
+        // Playlists and categories is loaded in the background by Main
         playlistUtils = PlaylistUtils.INSTANCE;
-        playlistUtils.loadCache();
         categoryUtils = CategoryUtils.INSTANCE;
-        categoryUtils.loadCategories();
 
         // Populate presets dropdown/choice box
+        long presetsStart = Timings.start();
         ArrayList<String> presetNames = configManager.getPresetNames();
         if (presetNames == null) {
             presetNames = new ArrayList<>();
@@ -134,8 +182,9 @@ public class mainWindowController implements IWindowController {
         } else {
             presetNames.add(0, transBasic.getString("noSelected"));
         }
-        choice_presets.setItems(FXCollections.observableArrayList(presetNames));
+        choice_presets.setAllItems(presetNames);
         choice_presets.getSelectionModel().select(0);
+        Timings.INSTANCE.record("startup/main window presets list", presetsStart);
 
         // Only allow numbers in autoNum textField
         txt_autoNum.textProperty().addListener((observable, oldValue, newValue) -> {
@@ -147,50 +196,80 @@ public class mainWindowController implements IWindowController {
         // Connect events and callbacks
         uploader.setUploadFinishedCallback(s -> Platform.runLater(() -> onUploadFinished(s)));
         uploader.setUploadErredCallback((videoUpload, throwable) -> Platform.runLater(() -> onUploadErred(videoUpload, throwable)));
-        presetApplicator.setSuccessCallback(upload -> Platform.runLater(() -> onPresetApplicationSuccess(upload)));
-        presetApplicator.setErrorCallback((video, throwable) -> Platform.runLater(() -> onPresetApplicationError(video, throwable)));
+        presetApplicator.setSuccessCallback(this::onPresetApplicationSuccess);
+        presetApplicator.setErrorCallback(this::onPresetApplicationError);
 
         // Set up button sets for the different states a upload can be in: editing, locked, uploading, failed/erred
         defineUploadStates();
 
-        // If any uploads was saved when the program was closed last time
-        if(configManager.hasWaitingUploads()) {
-            ArrayList<String> waitingUploads = configManager.getWaitingUploads();
-            boolean failedLoadingWaitingUpload = false;
-            if (waitingUploads != null) {
-                for(String waitingUpload : waitingUploads) {
-                    try {
-                        VideoUpload loadedUpload = new VideoUpload(waitingUpload, String.valueOf(uploadPaneCounter++));
-                        loadedUpload.setThumbnailCursorEventHandler(this::updateCursor);
-                        buttonStates.setLocked(loadedUpload);
-
-                        // Auto resize width and translation
-                        loadedUpload.getPane().prefWidthProperty().bind(listView.widthProperty().subtract(35));
-                        transUpload.autoTranslate(loadedUpload.getPane(), loadedUpload.getPaneId());
-
-                        uploadQueueVideos.add(loadedUpload);
-                    } catch (Exception e) {
-                        failedLoadingWaitingUpload = true;
-                    }
-                }
-                if (failedLoadingWaitingUpload)
-                    AlertUtils.simpleClose(transBasic.getString("app_name"),
-                            transMainWin.getString("diag_loadWaitingUploads")).show();
-            }
-            updateUploadList();
-        }
+        // If any uploads was saved when the program was closed last time, read them in the background and add them
+        // to the list when they are read. They do not wait for the playlists and categories, the uploads are updated
+        // when those are loaded.
+        startupTasks.inBackground(TASK_READ_WAITING_UPLOADS, this::readWaitingUploads, Main.TASK_CONFIG);
+        startupTasks.onFxThread(TASK_SHOW_WAITING_UPLOADS, this::showWaitingUploads, TASK_READ_WAITING_UPLOADS);
+        // Uploads shown before the playlists was loaded only has the "no playlist" choice, recreate their panes
+        startupTasks.onFxThread(TASK_REFRESH_PLAYLISTS, listView::refresh, Main.TASK_PLAYLISTS);
+
         // Set so pressing F1 opens the wiki page for this window
         Scene scene = mainWindowPane.getScene();
         scene.setOnKeyPressed((event) -> {
             if (event.getCode() == KeyCode.F1) {
                 OpenInBrowser.openInBrowser("https://github.com/Stekeblad/Stekeblads-Video-Uploader/wiki/Main-Window");
                 event.consume();
+            } else if (event.getCode() == KeyCode.F12) {
+                // Diagnostics, how long starting the program and the things the user waits for has taken
+                AlertUtils.simpleClose_longContent("Timings - Stekeblads Video Uploader",
+                        Timings.INSTANCE.getSummary());
+                event.consume();
             }
         });
+        Timings.INSTANCE.record("startup/main window init", initStart);
+    }
 
-        // Start a background check for updates
-        UpdaterUi updater = new UpdaterUi();
-        updater.runUpdater(true);
+    /**
+     * Gives the controller the tasks that is running to start the program, must be called before myInit
+     *
+     * @param startupTasks the startup tasks created by Main
+     */
+    void setStartupTasks(StartupTasks startupTasks) {
+        this.startupTasks = startupTasks;
+    }
+
+    /**
+     * Reads the uploads that was saved when the program was closed last time, called on a background thread. The
+     * files are not deleted until showWaitingUploads has added the uploads to the list.
+     */
+    private void readWaitingUploads() {
+        if (configManager.hasWaitingUploads()) {
+            waitingUploads = configManager.getWaitingUploads();
+        }
+    }
+
+    /**
+     * Adds the uploads read by readWaitingUploads to the uploads list and deletes their files. They are created here
+     * and not in the background so they get their pane ids in the same order as uploads the user adds. Nothing is done
+     * if the window has already been closed, the files are kept for the next time the program starts.
+     */
+    private void showWaitingUploads() {
+        if (waitingUploads == null || windowClosed)
+            return;
+        boolean failedLoadingWaitingUpload = false;
+        for (Map.Entry<String, String> waitingUpload : waitingUploads.entrySet()) {
+            try {
+                VideoUpload loadedUpload = new VideoUpload(waitingUpload.getValue(), String.valueOf(uploadPaneCounter++));
+                prepareUpload(loadedUpload);
+                buttonStates.setLocked(loadedUpload);
+                uploadQueueVideos.add(loadedUpload);
+            } catch (Exception e) {
+                failedLoadingWaitingUpload = true;
+            }
+            // Also the ones that could not be read, like before. They would fail again next time.
+            configManager.deleteWaitingUpload(waitingUpload.getKey());
+        }
+        waitingUploads = null;
+        if (failedLoadingWaitingUpload)
+            AlertUtils.simpleClose(transBasic.getString("app_name"),
+                    transMainWin.getString("diag_loadWaitingUploads")).show();
     }
 
     /**
@@ -202,10 +281,12 @@ public class mainWindowController implements IWindowController {
     public boolean onWindowClose() {
         // stop PresetApplicator
         presetApplicator.kill();
+        MetaDataPrefetcher.INSTANCE.cancel();
 
         // Check if uploads is in progress, if not then directly return true
         if (! uploader.getIsActive()) {
             uploader.kill(); // just because it does not do anything it started and must be stopped
+            windowClosed = true;
             return true;
         }
         String op1 = transMainWin.getString("diag_closeWarn_op1");
@@ -220,15 +301,20 @@ public class mainWindowController implements IWindowController {
             return false;
         } else if (choice.equals(op2)) {
             uploader.kill();
+            windowClosed = true;
             return true;
         } else if (choice.equals(op3)) {
             String[] tasks = uploader.kill();
+            // Uploads from last time that has not been added to the list yet is still saved, do not overwrite them
+            String fileNamePrefix = System.currentTimeMillis() + "-";
+            int savedCount = 0;
             for (String task : tasks) {
-                int index = getUploadIndexByName(task);
-                if (index != -1) { // If a task does not have a index it has been removed and is not interesting, or bugged with a bad id, skip them
-                    configManager.saveWaitingUpload(uploadQueueVideos.get(index).toString(), String.valueOf(index));
+                VideoUpload upload = getUploadById(task);
+                if (upload != null) { // If a task does not have a upload it has been removed and is not interesting, or bugged with a bad id, skip them
+                    configManager.saveWaitingUpload(upload.toString(), fileNamePrefix + savedCount++);
                 }
             }
+            windowClosed = true;
             return true;
         }
         return false;
@@ -236,11 +322,13 @@ public class mainWindowController implements IWindowController {
 
     /**
      * Called when the pick files button is pressed.
-     * Opens a file chooser and sets the list of selected files to the left of the button
+     * Opens a file chooser and sets the list of selected files to the left of the button.
+     * The metadata of the files starts being read in the background so applying a preset is faster
      * @param actionEvent the click event
      */
     public void onPickFileClicked(ActionEvent actionEvent) {
         videosToAdd = FileUtils.pickVideos(Long.MAX_VALUE);
+        MetaDataPrefetcher.INSTANCE.prefetch(videosToAdd);
         ArrayList<String> filenames = new ArrayList<>();
         for (File file : videosToAdd) {
             filenames.add(file.getName());
@@ -263,17 +351,15 @@ public class mainWindowController implements IWindowController {
         }
         // Check which preset / if a preset is selected
         if (choice_presets.getSelectionModel().getSelectedIndex() < 1) {
+            // The metadata is not needed without a preset
+            MetaDataPrefetcher.INSTANCE.cancel();
             // No preset, add videos to upload list with file name as title and blank/default values on the rest
             for(File videoFile : videosToAdd) {
                 VideoUpload newUpload = new VideoUpload(videoFile.getName(), null, null,
                         null, null, null, false,
                         null, false, UPLOAD_PANE_ID_PREFIX + uploadPaneCounter, videoFile);
 
-                newUpload.setThumbnailCursorEventHandler(this::updateCursor);
-                // make the upload change its width together with the uploads list and the window
-                newUpload.getPane().prefWidthProperty().bind(listView.widthProperty().subtract(35));
-                // Translate the upload
-                transUpload.autoTranslate(newUpload.getPane(), newUpload.getPaneId());
+                prepareUpload(newUpload);
                 uploadQueueVideos.add(newUpload);
 
                 // Enables the upload to be edited because the lack of details.
@@ -282,7 +368,7 @@ public class mainWindowController implements IWindowController {
                 Button deleteButton = new Button(transBasic.getString("delete"));
                 deleteButton.setId(UPLOAD_PANE_ID_PREFIX + uploadPaneCounter + BUTTON_DELETE);
                 deleteButton.setOnMouseClicked(event -> onDelete(deleteButton.getId()));
-                uploadQueueVideos.get(uploadQueueVideos.size() - 1).setButton2(deleteButton);
+                newUpload.setButton2(deleteButton);
 
                 uploadPaneCounter++;
             }
@@ -312,6 +398,7 @@ public class mainWindowController implements IWindowController {
             try {
                 // Queue the videos and preset to be combined in a background thread
                 presetApplicator.applyPreset(videosToAdd, chosenPreset, autoNum);
+                configManager.markPresetUsed(chosenPreset.getPresetName());
             } catch (Exception e) {
                 e.printStackTrace();
                 AlertUtils.exceptionDialog(transBasic.getString("app_name") + "Failed applying preset",
@@ -357,7 +444,7 @@ public class mainWindowController implements IWindowController {
         } else {
             presetNames.add(0, transBasic.getString("noSelected"));
         }
-        choice_presets.setItems(FXCollections.observableArrayList(presetNames));
+        choice_presets.setAllItems(presetNames);
         choice_presets.getSelectionModel().select(0);
     }
 
@@ -384,42 +471,21 @@ public class mainWindowController implements IWindowController {
 
     /**
      * Called when the start all ready uploads button is clicked.
-     * If a upload is allowed to be started (the start upload button is visible) then that button is clicked by this method.
+     * Starts all uploads that can be started (the start upload button is visible).
      * @param actionEvent the click event
      */
     public void onStartAllUploadsClicked(ActionEvent actionEvent) {
-        // Check if the user has given the program permission to access the user's youtube account, if not then ask for it
-        if(configManager.getNeverAuthed()) {
-            ButtonType userChoice = AlertUtils.yesNo(transBasic.getString("auth_short"),
-                    transBasic.getString("auth_full"), ButtonType.NO);
-
-            if (userChoice == ButtonType.NO)
-                return;
-        }
-        // Permission given, start uploads
-        for (VideoUpload uploadQueueVideo : uploadQueueVideos) {
-            if (uploadQueueVideo.getButton3Id() != null &&
-                    uploadQueueVideo.getButton3Id().contains(BUTTON_START_UPLOAD)) {
-                onStartUpload(uploadQueueVideo.getButton3Id());
-            }
-        }
+        startUploads(getBulkTargets(false));
         actionEvent.consume();
     }
 
     /**
      * Called when the remove all finished uploads button is clicked.
-     * Clicks the hide button on all uploads that has that button visible
+     * Removes all uploads that has the hide button visible
      * @param actionEvent the click event
      */
     public void onRemoveFinishedUploadsClicked(ActionEvent actionEvent) {
-        for (int i = 0; i < uploadQueueVideos.size(); i++) {
-            if (uploadQueueVideos.get(i).getButton2Id() != null &&
-                    uploadQueueVideos.get(i).getButton2Id().contains(BUTTON_FINISHED_UPLOAD)) {
-                uploadQueueVideos.remove(i);
-                i--;
-            }
-        }
-        updateUploadList();
+        removeUploads(getBulkTargets(false), upload -> hasButton(upload.getButton2Id(), BUTTON_FINISHED_UPLOAD));
         actionEvent.consume();
     }
 
@@ -436,18 +502,17 @@ public class mainWindowController implements IWindowController {
                 return;
             }
         }
-        // Prevent the "Are you sure you want to abort X?" dialog for every upload
-        bypassAbortWarning = true;
-        // Abort the uploads in the reversed order of that they was most likely started in
-        // to avoid that the program attempts to start a new upload that will also be aborted, and then the next one...
-        for (int i = uploadQueueVideos.size() - 1; i >= 0; i--) {
-            if(uploadQueueVideos.get(i).getButton2Id() != null &&
-                    uploadQueueVideos.get(i).getButton2Id().contains(BUTTON_ABORT_UPLOAD)) {
-                onAbort(uploadQueueVideos.get(i).getButton2Id());
-            }
-        }
-        // Re-enable the individual confirmation on aborts
-        bypassAbortWarning = false;
+        abortStartedUploads(getBulkTargets(false));
+        actionEvent.consume();
+    }
+
+    /**
+     * Called when the reset all failed uploads button is clicked.
+     * Resets all uploads that has the reset button visible so they can be edited or started again
+     * @param actionEvent the click event
+     */
+    public void onResetFailedUploadsClicked(ActionEvent actionEvent) {
+        resetFailedUploads(getBulkTargets(false));
         actionEvent.consume();
     }
 
@@ -464,11 +529,178 @@ public class mainWindowController implements IWindowController {
             onAbortAllUploadsClicked(new ActionEvent());
             uploadQueueVideos.clear();
             uploadPaneCounter = 0;
-            updateUploadList();
         }
         actionEvent.consume();
     }
 
+    /**
+     * Aborts all uploads with the given ids without asking for confirmation
+     *
+     * @param paneIds the ids of the uploads to abort
+     */
+    private void abortUploads(String[] paneIds) {
+        for (String paneId : paneIds) {
+            VideoUpload upload = getUploadById(paneId);
+            if (upload != null) {
+                abortUpload(upload);
+            } else {
+                uploader.abortUpload(paneId);
+            }
+        }
+    }
+
+    /**
+     * Creates the context menu of the uploads list, it has the same bulk actions as the buttons but only for the
+     * uploads that are selected in the list
+     *
+     * @return the context menu
+     */
+    private ContextMenu makeSelectedUploadsMenu() {
+        MenuItem startSelected = new MenuItem(transMainWin.getString("menu_startSelected"));
+        startSelected.setOnAction(event -> startUploads(getBulkTargets(true)));
+        MenuItem abortSelected = new MenuItem(transMainWin.getString("menu_abortSelected"));
+        abortSelected.setOnAction(event -> {
+            ButtonType userChoice = AlertUtils.yesNo(transMainWin.getString("diag_abortSelected_short"),
+                    transMainWin.getString("diag_abortSelected_full"), ButtonType.NO);
+            if (userChoice == ButtonType.YES) {
+                abortStartedUploads(getBulkTargets(true));
+            }
+        });
+        MenuItem removeSelected = new MenuItem(transMainWin.getString("menu_removeSelected"));
+        removeSelected.setOnAction(event -> {
+            ButtonType userChoice = AlertUtils.yesNo(transMainWin.getString("diag_removeSelected_short"),
+                    transMainWin.getString("diag_removeSelected_full"), ButtonType.NO);
+            if (userChoice == ButtonType.YES) {
+                // Uploads that are being edited, uploaded or has failed is left in the list
+                removeUploads(getBulkTargets(true), upload -> hasButton(upload.getButton2Id(), BUTTON_FINISHED_UPLOAD)
+                        || hasButton(upload.getButton2Id(), BUTTON_DELETE));
+            }
+        });
+        MenuItem resetSelected = new MenuItem(transMainWin.getString("menu_resetSelected"));
+        resetSelected.setOnAction(event -> resetFailedUploads(getBulkTargets(true)));
+
+        ContextMenu menu = new ContextMenu(startSelected, abortSelected, removeSelected, resetSelected);
+        // Nothing to do if nothing is selected
+        menu.setOnShowing(event -> {
+            boolean noSelection = listView.getSelectionModel().isEmpty();
+            for (MenuItem item : menu.getItems()) {
+                item.setDisable(noSelection);
+            }
+        });
+        return menu;
+    }
+
+    /**
+     * Gives the uploads a bulk action should be done on, all bulk actions goes through this method
+     *
+     * @param selectedOnly true to only get the uploads selected in the uploads list, false to get all uploads
+     * @return a copy of the uploads, in the order they have in the list so they are started in that order
+     */
+    private List<VideoUpload> getBulkTargets(boolean selectedOnly) {
+        if (!selectedOnly) {
+            return new ArrayList<>(uploadQueueVideos);
+        }
+        Set<VideoUpload> selected = new HashSet<>(listView.getSelectionModel().getSelectedItems());
+        List<VideoUpload> targets = new ArrayList<>(selected.size());
+        for (VideoUpload upload : uploadQueueVideos) {
+            if (selected.contains(upload)) {
+                targets.add(upload);
+            }
+        }
+        return targets;
+    }
+
+    /**
+     * Starts all uploads in targets that can be started, asks for permission to the users channel first if it has
+     * not been given
+     *
+     * @param targets the uploads to start
+     */
+    private void startUploads(List<VideoUpload> targets) {
+        // Check if the user has given the program permission to access the user's youtube account, if not then ask for it
+        if(configManager.getNeverAuthed()) {
+            ButtonType userChoice = AlertUtils.yesNo(transBasic.getString("auth_short"),
+                    transBasic.getString("auth_full"), ButtonType.NO);
+
+            if (userChoice == ButtonType.NO)
+                return;
+        }
+        // Permission given, start uploads. Every upload is checked and started in a single pass over the list
+        for (VideoUpload upload : targets) {
+            if (hasButton(upload.getButton3Id(), BUTTON_START_UPLOAD) && canStartUpload(upload)) {
+                startUpload(upload);
+            }
+        }
+    }
+
+    /**
+     * Aborts all started uploads in targets without asking for confirmation
+     *
+     * @param targets the uploads to abort
+     */
+    private void abortStartedUploads(List<VideoUpload> targets) {
+        // Prevent the "Are you sure you want to abort X?" dialog for every upload
+        bypassAbortWarning = true;
+        // Abort the uploads in the reversed order of that they was most likely started in
+        // to avoid that the program attempts to start a new upload that will also be aborted, and then the next one...
+        for (int i = targets.size() - 1; i >= 0; i--) {
+            VideoUpload upload = targets.get(i);
+            if (hasButton(upload.getButton2Id(), BUTTON_ABORT_UPLOAD)) {
+                abortUpload(upload);
+            }
+        }
+        // Re-enable the individual confirmation on aborts
+        bypassAbortWarning = false;
+    }
+
+    /**
+     * Resets all failed uploads in targets so they can be edited or started again
+     *
+     * @param targets the uploads to reset
+     */
+    private void resetFailedUploads(List<VideoUpload> targets) {
+        for (VideoUpload upload : targets) {
+            if (hasButton(upload.getButton2Id(), BUTTON_RESET)) {
+                resetUpload(upload);
+            }
+        }
+    }
+
+    /**
+     * Removes the uploads in targets matching filter from the uploads list with a single change to the list
+     *
+     * @param targets the uploads that may be removed
+     * @param filter  returns true for the uploads that should be removed
+     */
+    private void removeUploads(List<VideoUpload> targets, Predicate<VideoUpload> filter) {
+        Set<VideoUpload> remove = new HashSet<>();
+        for (VideoUpload upload : targets) {
+            if (filter.test(upload)) {
+                remove.add(upload);
+                editBackups.remove(upload.getPaneId());
+            }
+        }
+        if (remove.isEmpty()) {
+            return;
+        }
+        List<VideoUpload> keep = new ArrayList<>(uploadQueueVideos.size() - remove.size());
+        for (VideoUpload upload : uploadQueueVideos) {
+            if (!remove.contains(upload)) {
+                keep.add(upload);
+            }
+        }
+        uploadQueueVideos.setAll(keep);
+    }
+
+    /**
+     * @param buttonId   the id of a button on a upload, may be null
+     * @param buttonName one of the button constants in Constants
+     * @return true if buttonId is the id of a button of the type buttonName
+     */
+    private static boolean hasButton(String buttonId, String buttonName) {
+        return buttonId != null && buttonId.endsWith(buttonName);
+    }
+
     /**
      * Defines the different states for buttonStates, this is made to make it much simpler to manage the buttons
      * for the different states a upload can be in. Previously buttons was created all over the place and set
@@ -509,14 +741,13 @@ public class mainWindowController implements IWindowController {
     }
 
     /**
-     * Re-adds all elements to the uploadQueuePanes so the UI is up-to-date
+     * Sets the things all uploads needs before they are added to the uploads list
+     *
+     * @param upload the upload to prepare
      */
-    private void updateUploadList() {
-        List<GridPane> uploadQueuePanes = new ArrayList<>();
-        for(VideoUpload vid : uploadQueueVideos) {
-            uploadQueuePanes.add(vid.getPane());
-        }
-        listView.setItems(FXCollections.observableArrayList(uploadQueuePanes));
+    private void prepareUpload(VideoUpload upload) {
+        upload.setThumbnailCursorEventHandler(this::updateCursor);
+        upload.setStatusLabelText(transUpload.getString("_status"));
     }
 
     /**
@@ -547,19 +778,12 @@ public class mainWindowController implements IWindowController {
     }
 
     /**
-     * Takes a node Id and checks if there is a upload with that id and if so returns its index inside uploadQueueVideos.
-     * @param nameToTest a Node id
-     * @return the index of a upload with that id inside uploadQueueVideos or -1 if it was not found in uploadQueueVideos.
+     * Takes a node Id and returns the upload with that id.
+     * @param paneId a Node id
+     * @return the upload with that id or null if there is no upload with that id in uploadQueueVideos.
      */
-    private int getUploadIndexByName(String nameToTest) {
-        int videoIndex = -1;
-        for(int i = 0; i < uploadQueueVideos.size(); i++) {
-            if(uploadQueueVideos.get(i).getPaneId().equals(nameToTest)) {
-                videoIndex = i;
-                break;
-            }
-        }
-        return videoIndex;
+    private VideoUpload getUploadById(String paneId) {
+        return uploadsById.get(paneId);
     }
 
     /**
@@ -569,22 +793,24 @@ public class mainWindowController implements IWindowController {
      */
     private void onEdit(String callerId) {
         String parentId = callerId.substring(0, callerId.indexOf('_'));
-        int selected = getUploadIndexByName(parentId);
-        if (selected == -1) {
+        VideoUpload upload = getUploadById(parentId);
+        if (upload == null) {
             System.err.println("edit button belongs to a invalid or non-existing parent");
             return;
         }
         // Create a backup to be able to revert
-        editBackups.put(uploadQueueVideos.get(selected).getPaneId(), uploadQueueVideos.get(selected).copy(null)); //null -> same id
+        editBackups.put(upload.getPaneId(), upload.copy(null)); //null -> same id
 
         // Set on thumbnail clicked
-        uploadQueueVideos.get(selected).setEditable(true);
-        uploadQueueVideos.get(selected).setOnThumbnailClicked(event -> {
+        upload.setEditable(true);
+        upload.setOnThumbnailClicked(event -> {
             if (event.getButton() == MouseButton.SECONDARY) return; // Conflicting with context menu
-            File pickedThumbnail = FileUtils.pickThumbnail(THUMBNAIL_FILE_FORMAT, MAX_THUMB_SIZE);
+            File pickedThumbnail = FileUtils.pickThumbnail(THUMBNAIL_FILE_FORMAT, MAX_THUMB_SOURCE_SIZE);
             if(pickedThumbnail != null) {
                 try {
-                    uploadQueueVideos.get(selected).setThumbNailFile(pickedThumbnail);
+                    upload.setThumbNailFile(pickedThumbnail);
+                    // Too large thumbnails is made smaller in the background before they are uploaded
+                    ThumbnailPreprocessor.INSTANCE.submit(pickedThumbnail);
                 } catch (Exception e) {
                     AlertUtils.exceptionDialog(transBasic.getString("app_name"), "Could not set Thumbnail", e);
                 }
@@ -595,18 +821,18 @@ public class mainWindowController implements IWindowController {
         MenuItem item1 = new MenuItem(transBasic.getString("resetToDefault"));
         item1.setOnAction(actionEvent -> {
             try {
-                uploadQueueVideos.get(selected).setThumbNailFile(null);
+                upload.setThumbNailFile(null);
+                // Do not put the frame from the video back either
+                upload.setAutoThumbnail(false);
             } catch (Exception e) {
                 AlertUtils.exceptionDialog(transBasic.getString("app_name"), "Could not clear Thumbnail", e);
             }
             actionEvent.consume();
         });
         thumbnailRClickMenu.getItems().add(item1);
-        uploadQueueVideos.get(selected).setThumbnailContextMenu(thumbnailRClickMenu);
+        upload.setThumbnailContextMenu(thumbnailRClickMenu);
 
-        buttonStates.setEditing(uploadQueueVideos.get(selected));
-        // Make sure visual change get to the UI
-        updateUploadList();
+        buttonStates.setEditing(upload);
     }
 
     /**
@@ -616,36 +842,34 @@ public class mainWindowController implements IWindowController {
      */
     private void onSave(String callerId) {
         String parentId = callerId.substring(0, callerId.indexOf('_'));
-        int selected = getUploadIndexByName(parentId);
-        if (selected == -1) {
+        VideoUpload upload = getUploadById(parentId);
+        if (upload == null) {
             System.err.println("save button belongs to a invalid or non-existing parent");
             return;
         }
         // Check fields, video name
-        if(uploadQueueVideos.get(selected).getVideoName().equals("")) {
+        if(upload.getVideoName().equals("")) {
             AlertUtils.simpleClose(transMainWin.getString("diag_noVidTitle_short"),
                     transMainWin.getString("diag_noVidTitle_full")).show();
             return;
         }
         // Make sure a category is selected (is initially null and can be set to null if categories has been re-localized)
-        if (uploadQueueVideos.get(selected).getCategory() == null) {
+        if (upload.getCategory() == null) {
             AlertUtils.simpleClose(transBasic.getString("diag_invalidCategory_short"),
                     transBasic.getString("diag_invalidCategory_full")).show();
             return;
         }
         // Check if categories has been re-localized and list is no longer correct
-        if (!categoryUtils.getCategoryNames().contains(uploadQueueVideos.get(selected).getCategory())) {
+        if (!categoryUtils.getCategoryNames().contains(upload.getCategory())) {
             AlertUtils.simpleClose(transBasic.getString("diag_categoryRemoved_short"),
                     transBasic.getString("diag_categoryRemoved_full")).show();
             return;
         }
 
-        uploadQueueVideos.get(selected).setEditable(false);
-        buttonStates.setLocked(uploadQueueVideos.get(selected));
+        upload.setEditable(false);
+        buttonStates.setLocked(upload);
         // Delete backup if there is one
-        editBackups.remove(uploadQueueVideos.get(selected).getPaneId());
-        // Make sure visual change get to the UI
-        updateUploadList();
+        editBackups.remove(upload.getPaneId());
     }
 
     /**
@@ -655,25 +879,24 @@ public class mainWindowController implements IWindowController {
      */
     private void onCancel(String callerId) {
         String parentId = callerId.substring(0, callerId.indexOf('_'));
-        int selected = getUploadIndexByName(parentId);
-        if (selected == -1) {
+        VideoUpload upload = getUploadById(parentId);
+        if (upload == null) {
             System.err.println("cancel button belongs to a invalid or non-existing parent");
             return;
         }
-        uploadQueueVideos.get(selected).setEditable(false);
+        upload.setEditable(false);
         // Restore from backup and delete it if there is one
-        if(editBackups.containsKey(uploadQueueVideos.get(selected).getPaneId())) {
-            uploadQueueVideos.set(selected, editBackups.get(uploadQueueVideos.get(selected).getPaneId()));
-            uploadQueueVideos.get(selected).getPane().prefWidthProperty().bind(listView.widthProperty().subtract(35));
-            editBackups.remove(uploadQueueVideos.get(selected).getPaneId());
+        if(editBackups.containsKey(upload.getPaneId())) {
+            VideoUpload backup = editBackups.remove(upload.getPaneId());
+            prepareUpload(backup);
+            // The backup is a copy without buttons, it replaces upload in the list
+            buttonStates.setLocked(backup);
+            uploadQueueVideos.set(uploadQueueVideos.indexOf(upload), backup);
         } else {
             AlertUtils.simpleClose(transMainWin.getString("diag_backupNoRestore_short"),
                     transMainWin.getString("diag_backupNoRestore_full")).show();
+            buttonStates.setLocked(upload);
         }
-
-        buttonStates.setLocked(uploadQueueVideos.get(selected));
-        // Make sure visual change get to the UI
-        updateUploadList();
     }
 
     /**
@@ -683,25 +906,21 @@ public class mainWindowController implements IWindowController {
      */
     private void onDelete(String callerId) {
         String parentId = callerId.substring(0, callerId.indexOf('_'));
-        int selected = getUploadIndexByName(parentId);
-        if (selected == -1) {
+        VideoUpload upload = getUploadById(parentId);
+        if (upload == null) {
             System.err.println("delete button belongs to a invalid or non-existing parent");
             return;
         }
         String desc = String.format(transMainWin.getString("diag_confirmDelete_full"),
-                uploadQueueVideos.get(selected).getVideoName());
+                upload.getVideoName());
 
         ButtonType userChoice = AlertUtils.yesNo(transMainWin.getString("diag_confirmDelete_short"),
                 desc, ButtonType.NO);
         if (userChoice == ButtonType.YES) {
             // delete backup (may exist if upload was created with no preset and directly deleted
-            editBackups.remove(uploadQueueVideos.get(selected).getPaneId());
-            uploadQueueVideos.remove(selected);
-            updateUploadList();
+            editBackups.remove(upload.getPaneId());
+            uploadQueueVideos.remove(upload);
         } // else if ButtonType.NO or closed [X] do nothing
-
-        // Make sure visual change get to the UI
-        updateUploadList();
     }
 
     /**
@@ -711,20 +930,13 @@ public class mainWindowController implements IWindowController {
      */
     private void onStartUpload(String callerId) {
         String parentId = callerId.substring(0, callerId.indexOf('_'));
-        int selected = getUploadIndexByName(parentId);
-        if (selected == -1) {
+        VideoUpload upload = getUploadById(parentId);
+        if (upload == null) {
             System.err.println("start upload button belongs to a invalid or non-existing parent");
             return;
         }
         // a few small checks first
-        if (uploadQueueVideos.get(selected).getVideoName().length() < 1) {
-            AlertUtils.simpleClose(transMainWin.getString("diag_noStartUpload_short"),
-                    transMainWin.getString("diag_noStartUpload_full_noTitle")).show();
-            return;
-        }
-        if (categoryUtils.getCategoryId(uploadQueueVideos.get(selected).getCategory()).equals("-1")) {
-            AlertUtils.simpleClose(transMainWin.getString("diag_noStartUpload_short"),
-                    transMainWin.getString("diag_noStartUpload_full_noCategory")).show();
+        if (!canStartUpload(upload)) {
             return;
         }
 
@@ -739,17 +951,42 @@ public class mainWindowController implements IWindowController {
 
         }
         // User is authenticated or is warned about the upcoming prompt to do so.
+        startUpload(upload);
+    }
+
+    /**
+     * Checks if upload has the details required for uploading, shows a dialog if it has not
+     *
+     * @param upload the upload to check
+     * @return true if upload can be started, false if not
+     */
+    private boolean canStartUpload(VideoUpload upload) {
+        if (upload.getVideoName().length() < 1) {
+            AlertUtils.simpleClose(transMainWin.getString("diag_noStartUpload_short"),
+                    transMainWin.getString("diag_noStartUpload_full_noTitle")).show();
+            return false;
+        }
+        if (categoryUtils.getCategoryId(upload.getCategory()).equals("-1")) {
+            AlertUtils.simpleClose(transMainWin.getString("diag_noStartUpload_short"),
+                    transMainWin.getString("diag_noStartUpload_full_noCategory")).show();
+            return false;
+        }
+        return true;
+    }
 
+    /**
+     * Queues the upload and changes it to the uploading state. Does not perform any checks
+     *
+     * @param upload the upload to start
+     */
+    private void startUpload(VideoUpload upload) {
         // Queue upload
-        uploader.add(uploadQueueVideos.get(selected), uploadQueueVideos.get(selected).getPaneId());
+        uploader.add(upload, upload.getPaneId());
 
         // Change buttons, make progressbar visible and set text to show it is waiting to be uploaded.
-        buttonStates.setUploading(uploadQueueVideos.get(selected));
-        uploadQueueVideos.get(selected).setProgressBarVisibility(true);
-        uploadQueueVideos.get(selected).setStatusLabelText(transBasic.getString("waiting"));
-
-        // Make sure visual change get to the UI
-        updateUploadList();
+        buttonStates.setUploading(upload);
+        upload.setProgressBarVisibility(true);
+        upload.setStatusLabelText(transBasic.getString("waiting"));
     }
 
     /**
@@ -758,15 +995,15 @@ public class mainWindowController implements IWindowController {
      */
     private void onAbort(String callerId) {
         String parentId = callerId.substring(0, callerId.indexOf('_'));
-        int selected = getUploadIndexByName(parentId);
-        if (selected == -1) {
+        VideoUpload upload = getUploadById(parentId);
+        if (upload == null) {
             System.err.println("abort upload button belongs to a invalid or non-existing parent");
             return;
         }
         // Show confirmation dialog, but not if abort all button was clicked
         if (!bypassAbortWarning) {
             String desc = String.format(transMainWin.getString("diag_abortSingle_full"),
-                    uploadQueueVideos.get(selected).getVideoName());
+                    upload.getVideoName());
 
             ButtonType userChoice = AlertUtils.yesNo(transMainWin.getString("diag_abortSingle_short"),
                     desc, ButtonType.NO);
@@ -775,21 +1012,27 @@ public class mainWindowController implements IWindowController {
                 return;
             }
         }
-        // Abort upload
-        boolean abortSuccess = uploader.abortUpload(uploadQueueVideos.get(selected).getPaneId());
+        abortUpload(upload);
+    }
+
+    /**
+     * Aborts the upload and changes it to the locked state. Does not ask the user for confirmation
+     *
+     * @param upload the upload to abort
+     */
+    private void abortUpload(VideoUpload upload) {
+        boolean abortSuccess = uploader.abortUpload(upload.getPaneId());
 
         if (abortSuccess) {
             // Set label text and reset progress bar
-            uploadQueueVideos.get(selected).setProgressBarVisibility(false);
-            uploadQueueVideos.get(selected).setProgressBarProgress(INDETERMINATE_PROGRESS); // reset progBar to be animated
-            uploadQueueVideos.get(selected).setStatusLabelText(transBasic.getString("aborted"));
+            upload.setProgressBarVisibility(false);
+            upload.setProgressBarProgress(INDETERMINATE_PROGRESS); // reset progBar to be animated
+            upload.setStatusLabelText(transBasic.getString("aborted"));
         } else {
             AlertUtils.simpleClose(transBasic.getString("error"), "Failed to terminate upload for unknown reason").show();
         }
 
-        buttonStates.setLocked(uploadQueueVideos.get(selected));
-        // Make sure visual change get to the UI
-        updateUploadList();
+        buttonStates.setLocked(upload);
     }
 
     /**
@@ -799,19 +1042,25 @@ public class mainWindowController implements IWindowController {
      */
     private void onResetUpload(String callerId) {
         String parentId = callerId.substring(0, callerId.indexOf('_'));
-        int selected = getUploadIndexByName(parentId);
-        if (selected == -1) {
+        VideoUpload upload = getUploadById(parentId);
+        if (upload == null) {
             System.err.println("reset upload button belongs to a invalid or non-existing parent");
             return;
         }
-        // Change back progressBar color, hide it and set the locked state buttons
-        uploadQueueVideos.get(selected).setProgressBarColor(null);
-        uploadQueueVideos.get(selected).setProgressBarVisibility(false);
-        uploadQueueVideos.get(selected).setStatusLabelText(transUpload.getString("_status"));
-        buttonStates.setLocked(uploadQueueVideos.get(selected));
+        resetUpload(upload);
+    }
 
-        // Make sure visual change get to the UI
-        updateUploadList();
+    /**
+     * Changes a failed upload back to the locked state so it can be edited or started again
+     *
+     * @param upload the upload to reset
+     */
+    private void resetUpload(VideoUpload upload) {
+        // Change back progressBar color, hide it and set the locked state buttons
+        upload.setProgressBarColor(null);
+        upload.setProgressBarVisibility(false);
+        upload.setStatusLabelText(transUpload.getString("_status"));
+        buttonStates.setLocked(upload);
     }
 
     /**
@@ -822,31 +1071,27 @@ public class mainWindowController implements IWindowController {
      */
     private void onRemoveFinishedUpload(String callerId) {
         String parentId = callerId.substring(0, callerId.indexOf('_'));
-        int selected = getUploadIndexByName(parentId);
-        if (selected == -1) {
+        VideoUpload upload = getUploadById(parentId);
+        if (upload == null) {
             System.err.println("remove finished upload, button belongs to a invalid or non-existing parent");
             return;
         }
-        editBackups.remove(uploadQueueVideos.get(selected).getPaneId());
-        uploadQueueVideos.remove(selected);
-        updateUploadList();
+        editBackups.remove(upload.getPaneId());
+        uploadQueueVideos.remove(upload);
     }
 
     /**
-     * Called when PresetApplicator successfully applied a preset to a video
+     * Called when PresetApplicator successfully applied a preset to one or more videos
      *
-     * @param newUpload the newly created VideoUpload created from a File and a VideoPreset
+     * @param newUploads the newly created VideoUploads created from Files and a VideoPreset
      */
-    private void onPresetApplicationSuccess(VideoUpload newUpload) {
-        // make the upload change its width together with the uploads list and the window
-        newUpload.getPane().prefWidthProperty().bind(listView.widthProperty().subtract(35));
-        newUpload.setThumbnailCursorEventHandler(this::updateCursor);
-
-        transUpload.autoTranslate(newUpload.getPane(), newUpload.getPaneId());
-        buttonStates.setLocked(newUpload);
-        uploadQueueVideos.add(newUpload);
-        updateUploadList();
-        updatePresetProgressIndicator(-1);
+    private void onPresetApplicationSuccess(List<VideoUpload> newUploads) {
+        for (VideoUpload newUpload : newUploads) {
+            prepareUpload(newUpload);
+            buttonStates.setLocked(newUpload);
+        }
+        uploadQueueVideos.addAll(newUploads);
+        updatePresetProgressIndicator(-newUploads.size());
     }
 
     /**
@@ -867,16 +1112,15 @@ public class mainWindowController implements IWindowController {
      * @param paneId the id of the upload
      */
     private void onUploadFinished(String paneId) {
-        int index = getUploadIndexByName(paneId);
-        if (index == -1) {
+        VideoUpload upload = getUploadById(paneId);
+        if (upload == null) {
             System.err.println("Unknown upload just finished: " + paneId);
             return;
         }
         Button finishedUploadButton = new Button(transBasic.getString("hide"));
         finishedUploadButton.setId(paneId + BUTTON_FINISHED_UPLOAD);
         finishedUploadButton.setOnMouseClicked(event -> onRemoveFinishedUpload(finishedUploadButton.getId()));
-        uploadQueueVideos.get(index).setButton2(finishedUploadButton);
-        updateUploadList();
+        upload.setButton2(finishedUploadButton);
     }
 
     /**
@@ -892,10 +1136,7 @@ public class mainWindowController implements IWindowController {
         } else if (e.getMessage() != null && e.getMessage().contains("quotaExceeded")) {
             // abort all scheduled uploads, they will all fail with this error
             bypassAbortWarning = true;
-            for (String key : uploader.getUploadQueue()) {
-                uploader.abortUpload((key));
-                onAbort(key + "_fakeButton");
-            }
+            abortUploads(uploader.getUploadQueue());
             bypassAbortWarning = false;
 
             // Find when midnight in the pacific timezone is in the user's timezone
@@ -913,10 +1154,7 @@ public class mainWindowController implements IWindowController {
         } else if (e.getMessage() != null && e.getMessage().contains("uploadLimitExceeded")) {
             // abort all scheduled uploads, they will all fail with this error
             bypassAbortWarning = true;
-            for (String key : uploader.getUploadQueue()) {
-                uploader.abortUpload((key));
-                onAbort(key + "_fakeButton");
-            }
+            abortUploads(uploader.getUploadQueue());
             bypassAbortWarning = false;
             AlertUtils.simpleClose(header, "You have reached your personal upload limit on YouTube" +
                     " and you can not upload more videos right now. All scheduled uploads has been aborted.\n\n" +
@@ -934,7 +1172,6 @@ public class mainWindowController implements IWindowController {
             video.setProgressBarColor("red");
             video.setStatusLabelText(transUpload.getString("failed"));
             buttonStates.setFailed(video);
-            updateUploadList();
         }
     }
 }
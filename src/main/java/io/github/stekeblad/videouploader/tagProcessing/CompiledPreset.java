@@ -0,0 +1,107 @@
+package io.github.stekeblad.videouploader.tagProcessing;
+
+import io.github.stekeblad.videouploader.tagProcessing.PresetTemplate.Placeholder;
+import io.github.stekeblad.videouploader.youtube.VideoDetails;
+import io.github.stekeblad.videouploader.youtube.VideoPreset;
+import io.github.stekeblad.videouploader.youtube.utils.PlaylistUtils;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The title, description and video tags of a preset compiled to PresetTemplates. Create one with compile() when a preset
+ * is applied and call apply() for every video file. The placeholders the built in TagProcessors handled is replaced
+ * here, third party TagProcessors is run by TagProcessorAdapter.
+ * <p>
+ * A CompiledPreset is immutable and apply() can be called from multiple threads at the same time.
+ */
+public final class CompiledPreset {
+
+    // Which placeholders that is replaced in what field, same as for the old TagProcessors.
+    // The video and file properties can be used in the title and description.
+    private static final Set<Placeholder> TITLE_PLACEHOLDERS =
+            EnumSet.of(Placeholder.EPISODE, Placeholder.RAWNAME, Placeholder.METADATA, Placeholder.DURATION,
+                    Placeholder.RESOLUTION, Placeholder.FPS, Placeholder.FILESIZE, Placeholder.CREATED,
+                    Placeholder.RECORDED);
+    private static final Set<Placeholder> DESCRIPTION_PLACEHOLDERS =
+            EnumSet.of(Placeholder.PLAYLIST, Placeholder.RAWNAME, Placeholder.METADATA, Placeholder.DURATION,
+                    Placeholder.RESOLUTION, Placeholder.FPS, Placeholder.FILESIZE, Placeholder.CREATED,
+                    Placeholder.RECORDED);
+    private static final Set<Placeholder> TAG_PLACEHOLDERS =
+            EnumSet.of(Placeholder.RAWNAME, Placeholder.METADATA);
+
+    private final VideoDetails presetDetails;
+    private final PresetTemplate title;
+    private final PresetTemplate description;
+    private final List<PresetTemplate> videoTags;
+    private final boolean hasPlaceholders;
+    private final String playlistUrl;
+
+    private CompiledPreset(VideoDetails presetDetails) {
+        this.presetDetails = presetDetails;
+        title = PresetTemplate.compile(presetDetails.getVideoName(), TITLE_PLACEHOLDERS);
+        description = PresetTemplate.compile(presetDetails.getVideoDescription(), DESCRIPTION_PLACEHOLDERS);
+        List<PresetTemplate> tags = new ArrayList<>();
+        boolean tagsHasPlaceholders = false;
+        for (String videoTag : presetDetails.getVideoTags()) {
+            PresetTemplate tag = PresetTemplate.compile(videoTag, TAG_PLACEHOLDERS);
+            tagsHasPlaceholders |= tag.hasPlaceholders();
+            tags.add(tag);
+        }
+        videoTags = Collections.unmodifiableList(tags);
+        hasPlaceholders = title.hasPlaceholders() || description.hasPlaceholders() || tagsHasPlaceholders;
+
+        String url = null;
+        if (description.uses(Placeholder.PLAYLIST)) {
+            url = PlaylistUtils.INSTANCE.getPlaylistUrl(presetDetails.getSelectedPlaylist());
+        }
+        playlistUrl = url == null ? "" : url;
+    }
+
+    /**
+     * Parses all fields of preset that can contain placeholders.
+     *
+     * @param preset the preset to compile
+     * @return the compiled preset
+     */
+    public static CompiledPreset compile(VideoPreset preset) {
+        return new CompiledPreset(preset.getDetails());
+    }
+
+    /**
+     * @return the details of the preset this was compiled from
+     */
+    public VideoDetails getPresetDetails() {
+        return presetDetails;
+    }
+
+    /**
+     * Replaces all placeholders in the preset with the values for videoFile.
+     *
+     * @param videoFile the video file to create the details for
+     * @param episode   the episode number of this video, replaces $(ep)
+     * @return the details of the preset with all placeholders replaced
+     */
+    public VideoDetails apply(File videoFile, int episode) {
+        if (!hasPlaceholders)
+            return presetDetails;
+
+        TemplateValues values = new TemplateValues(videoFile, episode, playlistUrl);
+        List<String> renderedTags = new ArrayList<>(videoTags.size());
+        for (PresetTemplate tag : videoTags) {
+            String rendered = tag.render(values);
+            // A tag that only was a placeholder without a value is removed instead of being left empty
+            if (!rendered.isEmpty() || !tag.hasPlaceholders())
+                renderedTags.add(rendered);
+        }
+        return new VideoDetails.Builder(presetDetails)
+                .setVideoName(title.render(values))
+                .setVideoDescription(description.render(values))
+                .setVideoTags(renderedTags)
+                .build();
+    }
+}
@@ -3,15 +3,35 @@ package io.github.stekeblad.videouploader.tagProcessing;
 import io.github.stekeblad.videouploader.youtube.VideoPreset;
 
 import java.io.File;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Interface all TagProcessors need to implement. A TagProcessor can assume init(...) is called before any process method.
  * The init method should provide all information needed for the TagProcessor to prepare for a call to one of the process
  * methods. Note that init(...) gets a preset as one of its parameters and that the data provided in the process methods
  * may look different than the preset as other tags may have executed already
+ * <p>
+ * A TagProcessor can describe what it does by overriding affectedFields(), needsFileAccess() and isThreadSafe(), this
+ * lets the program skip calls that would not change anything and run more work in parallel. The default values is
+ * safe for all TagProcessors, a TagProcessor that does not override them works like before.
+ * <p>
+ * init(...) and prepare(...) is called on a background thread and never while the files of an earlier apply is still
+ * being processed. A TagProcessor that is not thread safe gets the files one at a time and in the same order as they
+ * was given to prepare(...), like when the files was processed one by one.
  */
 public interface ITagProcessor {
+
+    /**
+     * The fields of a video a TagProcessor can change
+     */
+    enum Field {
+        TITLE,
+        DESCRIPTION,
+        TAGS
+    }
+
     /**
      * The constructor for a TagProcessor. A TagProcessor do not need to worry about a process method being called before
      * init(...) has been called. This is a good place to do some initial processing and prepare as much as possible to
@@ -57,4 +77,42 @@ public interface ITagProcessor {
      * @return the name of this TagProcessor
      */
     String processorName();
+
+    /**
+     * Tells which process methods that needs to be called. Called after init(...) so the answer can depend on the
+     * preset, if the tag this TagProcessor is looking for is not in the preset an empty set can be returned and no
+     * process method will be called until the next init(...).
+     *
+     * @return the fields this TagProcessor may change, all fields by default
+     */
+    default Set<Field> affectedFields() {
+        return EnumSet.allOf(Field.class);
+    }
+
+    /**
+     * @return true if this TagProcessor reads the video files or other files, then prepare(...) is called on a
+     * background thread ahead of the process methods. True by default.
+     */
+    default boolean needsFileAccess() {
+        return true;
+    }
+
+    /**
+     * @return true if the process methods can be called from multiple threads at the same time. False by default,
+     * then only one process method is called at a time and the files is processed in order.
+     */
+    default boolean isThreadSafe() {
+        return false;
+    }
+
+    /**
+     * Optional batch entry point, called once after init(...) with all video files the preset is applied to if
+     * needsFileAccess() returns true. It is called on a background thread while the built in placeholders is replaced,
+     * a TagProcessor that reads the video files can read all of them here and remember the result so the process
+     * methods can return quickly. Does nothing by default.
+     *
+     * @param videoFiles all files the preset is applied to, in the order they will be processed
+     */
+    default void prepare(List<File> videoFiles) {
+    }
 }
@@ -0,0 +1,225 @@
+package io.github.stekeblad.videouploader.tagProcessing;
+
+import io.github.stekeblad.videouploader.tagProcessing.metaDataTagProcessor.MetaDataReader;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A preset field (title, description or one video tag) that has been parsed into a list of literal text segments and
+ * placeholders like $(ep) and $(metadata:Title,fallback). The text is parsed once per preset with compile() and can
+ * then be rendered for every video file with a single pass over the segments, instead of searching the text for every
+ * tag once per video.
+ * <p>
+ * Text that looks like a placeholder but is not one of the known placeholders is kept as it is, so tags handled by
+ * third party ITagProcessors is still there for them to replace. A PresetTemplate is immutable and can be rendered
+ * from multiple threads at the same time.
+ */
+public final class PresetTemplate {
+
+    /**
+     * The placeholders the template engine understands
+     */
+    public enum Placeholder {
+        EPISODE("ep"),
+        RAWNAME("rawname"),
+        PLAYLIST("playlist"),
+        METADATA("metadata"),
+        DURATION("duration"),
+        RESOLUTION("resolution"),
+        FPS("fps"),
+        FILESIZE("filesize"),
+        CREATED("created"),
+        RECORDED("recorded");
+
+        private final String tagName;
+
+        Placeholder(String tagName) {
+            this.tagName = tagName;
+        }
+
+        /**
+         * @return the name used inside $( ) in the preset
+         */
+        public String getTagName() {
+            return tagName;
+        }
+    }
+
+    private static final String TAG_START = "$(";
+    private static final char TAG_END = ')';
+    private static final char METADATA_SEPARATOR = ':';
+    private static final char FALLBACK_SEPARATOR = ',';
+
+    /**
+     * One part of the template, either literal text (type is null) or a placeholder
+     */
+    static final class Segment {
+        final Placeholder type;
+        // the literal text or, for $(metadata), the normalized name of the metadata field
+        final String text;
+        // fallback value for $(metadata), null if not given
+        final String fallback;
+
+        Segment(Placeholder type, String text, String fallback) {
+            this.type = type;
+            this.text = text;
+            this.fallback = fallback;
+        }
+    }
+
+    private final List<Segment> segments;
+    private final Set<Placeholder> usedPlaceholders;
+    private final int literalLength;
+
+    private PresetTemplate(List<Segment> segments) {
+        this.segments = Collections.unmodifiableList(segments);
+        EnumSet<Placeholder> used = EnumSet.noneOf(Placeholder.class);
+        int length = 0;
+        for (Segment segment : segments) {
+            if (segment.type == null)
+                length += segment.text.length();
+            else
+                used.add(segment.type);
+        }
+        usedPlaceholders = Collections.unmodifiableSet(used);
+        literalLength = length;
+    }
+
+    /**
+     * Parses a preset field into a PresetTemplate.
+     *
+     * @param source  the text in the preset field
+     * @param allowed the placeholders that should be replaced in this field, other placeholders is kept as text
+     * @return the compiled template
+     */
+    public static PresetTemplate compile(String source, Set<Placeholder> allowed) {
+        List<Segment> segments = new ArrayList<>();
+        if (source == null)
+            source = "";
+
+        int literalStart = 0;
+        int searchFrom = 0;
+        int tagStart;
+        while ((tagStart = source.indexOf(TAG_START, searchFrom)) != -1) {
+            int tagEnd = source.indexOf(TAG_END, tagStart + TAG_START.length());
+            if (tagEnd == -1)
+                break; // no more complete tags
+
+            Segment placeholder = parsePlaceholder(source.substring(tagStart + TAG_START.length(), tagEnd), allowed);
+            if (placeholder == null) {
+                // Not a known placeholder, keep it as text but look for tags inside it
+                searchFrom = tagStart + TAG_START.length();
+                continue;
+            }
+            if (tagStart > literalStart)
+                segments.add(new Segment(null, source.substring(literalStart, tagStart), null));
+            segments.add(placeholder);
+            literalStart = tagEnd + 1;
+            searchFrom = literalStart;
+        }
+        if (literalStart < source.length())
+            segments.add(new Segment(null, source.substring(literalStart), null));
+
+        return new PresetTemplate(segments);
+    }
+
+    /**
+     * Parses the text between $( and ) into a placeholder
+     *
+     * @return the placeholder or null if content is not a placeholder in allowed
+     */
+    private static Segment parsePlaceholder(String content, Set<Placeholder> allowed) {
+        for (Placeholder placeholder : allowed) {
+            if (placeholder == Placeholder.METADATA) {
+                // $(metadata:nameOfTag) or $(metadata:nameOfTag,fallback)
+                String prefix = placeholder.getTagName() + METADATA_SEPARATOR;
+                if (!content.startsWith(prefix))
+                    continue;
+                String arguments = content.substring(prefix.length());
+                int separator = arguments.indexOf(FALLBACK_SEPARATOR);
+                String name = separator == -1 ? arguments : arguments.substring(0, separator);
+                String fallback = separator == -1 ? null : arguments.substring(separator + 1);
+                if (name.isEmpty())
+                    return null;
+                return new Segment(placeholder, MetaDataReader.normalizeTagName(name), fallback);
+            } else if (content.equals(placeholder.getTagName())) {
+                return new Segment(placeholder, null, null);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return true if this template contains at least one placeholder
+     */
+    public boolean hasPlaceholders() {
+        return !usedPlaceholders.isEmpty();
+    }
+
+    /**
+     * @param placeholder a placeholder
+     * @return true if placeholder is used in this template
+     */
+    public boolean uses(Placeholder placeholder) {
+        return usedPlaceholders.contains(placeholder);
+    }
+
+    /**
+     * Replaces all placeholders with the values for one video file.
+     *
+     * @param values the values for the video file currently being processed
+     * @return the rendered text
+     */
+    String render(TemplateValues values) {
+        if (segments.size() == 1 && segments.get(0).type == null)
+            return segments.get(0).text;
+
+        StringBuilder builder = new StringBuilder(literalLength + 16 * segments.size());
+        for (Segment segment : segments) {
+            if (segment.type == null) {
+                builder.append(segment.text);
+                continue;
+            }
+            switch (segment.type) {
+                case EPISODE:
+                    builder.append(values.getEpisode());
+                    break;
+                case RAWNAME:
+                    builder.append(values.getRawname());
+                    break;
+                case PLAYLIST:
+                    builder.append(values.getPlaylistUrl());
+                    break;
+                case METADATA:
+                    String value = values.getMetadata(segment.text);
+                    if (value == null)
+                        value = segment.fallback == null ? "" : segment.fallback;
+                    builder.append(value);
+                    break;
+                case DURATION:
+                    builder.append(values.getDuration());
+                    break;
+                case RESOLUTION:
+                    builder.append(values.getResolution());
+                    break;
+                case FPS:
+                    builder.append(values.getFramesPerSecond());
+                    break;
+                case FILESIZE:
+                    builder.append(values.getFileSize());
+                    break;
+                case CREATED:
+                    builder.append(values.getCreated());
+                    break;
+                case RECORDED:
+                    builder.append(values.getRecorded());
+                    break;
+            }
+        }
+        return builder.toString();
+    }
+}
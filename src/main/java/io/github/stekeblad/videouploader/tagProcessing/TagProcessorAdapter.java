@@ -0,0 +1,252 @@
+package io.github.stekeblad.videouploader.tagProcessing;
+
+import io.github.stekeblad.videouploader.youtube.VideoDetails;
+import io.github.stekeblad.videouploader.youtube.VideoPreset;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.ServiceLoader;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * A Enum-Singleton class that runs third party TagProcessors found with ServiceLoader on the output of a
+ * CompiledPreset. The placeholders that is built in to the program is replaced by CompiledPreset before the
+ * TagProcessors sees the text, other placeholders is left in the text so the TagProcessors can replace them like before.
+ * <p>
+ * The classpath is only searched for TagProcessors the first time they are needed. Every time a preset is applied
+ * init(...) creates a Pipeline with only the TagProcessors that can change something for that preset.
+ * <p>
+ * A TagProcessor sees every batch of files like if the files was processed one by one: init is not called for a new
+ * batch until every file of the batch before it is done, and TagProcessors that is not thread safe gets the files of a
+ * batch one at a time in the order they was given in. Calling init and prepare is done on a separate thread so the
+ * threads processing files never waits for a task that is queued behind them.
+ */
+public enum TagProcessorAdapter {
+    INSTANCE;
+
+    private List<ITagProcessor> tagProcessors = null;
+    // Guarded by this. Completes when every file of the last batch is done with its Pipeline.
+    private CompletableFuture<Void> lastBatchDone = CompletableFuture.completedFuture(null);
+    private final ExecutorService initExec = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "TagProcessor init");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * @return all TagProcessors on the classpath, found the first time this method is called
+     */
+    private synchronized List<ITagProcessor> getTagProcessors() {
+        if (tagProcessors == null) {
+            List<ITagProcessor> found = new ArrayList<>();
+            for (ITagProcessor tagProcessor : ServiceLoader.load(ITagProcessor.class)) {
+                found.add(tagProcessor);
+            }
+            tagProcessors = Collections.unmodifiableList(found);
+        }
+        return tagProcessors;
+    }
+
+    /**
+     * @return true if no TagProcessors was found, then there is no need to call init
+     */
+    public boolean isEmpty() {
+        return getTagProcessors().isEmpty();
+    }
+
+    /**
+     * Creates a Pipeline for applying preset to videoFiles. When all files of the previous batch is done init is called
+     * on all TagProcessors and TagProcessors that needs file access is given all files with prepare(...), the
+     * Pipeline waits for that before processing. This method does not wait, it can be called on the JavaFX thread.
+     * <p>
+     * Pipeline.finish must be called for every position in videoFiles, also for files that failed, or the next batch
+     * will never start.
+     *
+     * @param preset         the selected VideoPreset
+     * @param initialAutoNum the value in the auto num field when the apply preset button was pressed
+     * @param videoFiles     the files the preset will be applied to
+     * @return a Pipeline that should be used for all files in videoFiles
+     */
+    public synchronized Pipeline init(VideoPreset preset, int initialAutoNum, List<File> videoFiles) {
+        List<ITagProcessor> all = getTagProcessors();
+        if (all.isEmpty()) {
+            return new Pipeline(CompletableFuture.completedFuture(Collections.emptyList()), videoFiles.size());
+        }
+        List<File> files = Collections.unmodifiableList(new ArrayList<>(videoFiles));
+        CompletableFuture<List<Stage>> ready = lastBatchDone.thenApplyAsync(
+                ignored -> initStages(all, preset, initialAutoNum, files), initExec);
+        Pipeline pipeline = new Pipeline(ready, files.size());
+        lastBatchDone = pipeline.done;
+        return pipeline;
+    }
+
+    /**
+     * Calls init and prepare on the TagProcessors, called on the init thread
+     *
+     * @return the TagProcessors that can change something for the preset
+     */
+    private static List<Stage> initStages(List<ITagProcessor> all, VideoPreset preset, int initialAutoNum,
+                                          List<File> files) {
+        List<Stage> stages = new ArrayList<>();
+        for (ITagProcessor tagProcessor : all) {
+            try {
+                synchronized (tagProcessor) {
+                    tagProcessor.init(preset, initialAutoNum);
+                    Set<ITagProcessor.Field> fields = tagProcessor.affectedFields();
+                    if (fields == null || fields.isEmpty())
+                        continue; // nothing to do for this preset
+                    stages.add(new Stage(tagProcessor, fields));
+                }
+            } catch (Exception e) {
+                // The preset is applied without this TagProcessor
+                System.err.println("TagProcessor " + tagProcessor.processorName() + " failed to init");
+                e.printStackTrace();
+            }
+        }
+
+        for (Stage stage : stages) {
+            if (!stage.processor.needsFileAccess())
+                continue;
+            try {
+                synchronized (stage.processor) {
+                    stage.processor.prepare(files);
+                }
+            } catch (Exception e) {
+                // The process methods is still called, the TagProcessor may be able to do its work there
+                System.err.println("TagProcessor " + stage.processor.processorName() + " failed to prepare");
+                e.printStackTrace();
+            }
+        }
+        return stages;
+    }
+
+    /**
+     * A TagProcessor and the fields it changes
+     */
+    private static final class Stage {
+        final ITagProcessor processor;
+        final boolean title;
+        final boolean description;
+        final boolean tags;
+        final boolean threadSafe;
+
+        Stage(ITagProcessor processor, Set<ITagProcessor.Field> fields) {
+            this.processor = processor;
+            title = fields.contains(ITagProcessor.Field.TITLE);
+            description = fields.contains(ITagProcessor.Field.DESCRIPTION);
+            tags = fields.contains(ITagProcessor.Field.TAGS);
+            threadSafe = processor.isThreadSafe();
+        }
+    }
+
+    /**
+     * The TagProcessors to run for one batch of files, created by init(...). process can be called from multiple
+     * threads. The thread safe TagProcessors before the first one that is not thread safe runs in parallel, from the
+     * first TagProcessor that is not thread safe and on the files takes turns in the order they was given in.
+     */
+    public static final class Pipeline {
+        private final CompletableFuture<List<Stage>> ready;
+        private final CompletableFuture<Void> done = new CompletableFuture<>();
+        // Guarded by finished. The position whose turn it is and the positions that is done.
+        private final boolean[] finished;
+        private int nextTurn = 0;
+        private int unfinished;
+
+        private Pipeline(CompletableFuture<List<Stage>> ready, int fileCount) {
+            this.ready = ready;
+            finished = new boolean[fileCount];
+            unfinished = fileCount;
+            if (fileCount == 0)
+                done.complete(null);
+        }
+
+        /**
+         * Lets the TagProcessors process the fields they change in details. Waits for init and prepare, and for the
+         * files before position if there is TagProcessors that is not thread safe.
+         *
+         * @param details   the details created for videoFile by a CompiledPreset
+         * @param videoFile the file for the video currently being processed
+         * @param position  the position of videoFile in the list given to init
+         * @return details with the changes made by the TagProcessors
+         */
+        public VideoDetails process(VideoDetails details, File videoFile, int position) {
+            List<Stage> stages = ready.join(); // never fails, exceptions is caught inside initStages
+            if (stages.isEmpty())
+                return details;
+
+            String name = details.getVideoName();
+            String description = details.getVideoDescription();
+            List<String> videoTags = new ArrayList<>(details.getVideoTags());
+            boolean hasTurn = false;
+            try {
+                for (Stage stage : stages) {
+                    if (!stage.threadSafe && !hasTurn) {
+                        waitForTurn(position);
+                        hasTurn = true;
+                    }
+                    if (stage.threadSafe) {
+                        name = stage.title ? stage.processor.processTitle(name, videoFile) : name;
+                        description = stage.description ? stage.processor.processDescription(description, videoFile) : description;
+                        videoTags = stage.tags ? stage.processor.processTags(videoTags, videoFile) : videoTags;
+                    } else {
+                        synchronized (stage.processor) {
+                            name = stage.title ? stage.processor.processTitle(name, videoFile) : name;
+                            description = stage.description ? stage.processor.processDescription(description, videoFile) : description;
+                            videoTags = stage.tags ? stage.processor.processTags(videoTags, videoFile) : videoTags;
+                        }
+                    }
+                }
+            } finally {
+                if (hasTurn)
+                    finish(position);
+            }
+            return new VideoDetails.Builder(details)
+                    .setVideoName(name)
+                    .setVideoDescription(description)
+                    .setVideoTags(videoTags)
+                    .build();
+        }
+
+        /**
+         * Marks the file at position as done with this Pipeline, the next file gets its turn. Must be called for every
+         * position when the file is done or has failed, calling it more than once for a position does nothing.
+         *
+         * @param position the position of a file in the list given to init
+         */
+        public void finish(int position) {
+            boolean allDone;
+            synchronized (finished) {
+                if (finished[position])
+                    return;
+                finished[position] = true;
+                unfinished--;
+                while (nextTurn < finished.length && finished[nextTurn]) {
+                    nextTurn++;
+                }
+                finished.notifyAll();
+                allDone = unfinished == 0;
+            }
+            if (allDone)
+                done.complete(null);
+        }
+
+        private void waitForTurn(int position) {
+            synchronized (finished) {
+                while (nextTurn != position) {
+                    try {
+                        finished.wait();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new CompletionException(e);
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package io.github.stekeblad.videouploader.tagProcessing;
+
+import io.github.stekeblad.videouploader.tagProcessing.metaDataTagProcessor.MetaDataCache;
+import io.github.stekeblad.videouploader.tagProcessing.metaDataTagProcessor.MetaDataReader;
+import io.github.stekeblad.videouploader.tagProcessing.metaDataTagProcessor.VideoProperties;
+
+import java.io.File;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.file.Files;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+
+/**
+ * The values the placeholders in a PresetTemplate is replaced with for one video file. Values that are expensive to
+ * get, like the metadata, is only read the first time they are needed and then shared between all fields of the video.
+ */
+class TemplateValues {
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+    private static final String[] SIZE_UNITS = {"B", "KB", "MB", "GB", "TB"};
+
+    private final File videoFile;
+    private final int episode;
+    private final String playlistUrl;
+    private String rawname = null;
+    private MetaDataReader metaDataReader = null;
+    private BasicFileAttributes fileAttributes = null;
+
+    /**
+     * @param videoFile   the video file currently being processed
+     * @param episode     the episode number for this video
+     * @param playlistUrl the url to the playlist selected in the preset, empty string if none
+     */
+    TemplateValues(File videoFile, int episode, String playlistUrl) {
+        this.videoFile = videoFile;
+        this.episode = episode;
+        this.playlistUrl = playlistUrl;
+    }
+
+    int getEpisode() {
+        return episode;
+    }
+
+    String getPlaylistUrl() {
+        return playlistUrl;
+    }
+
+    /**
+     * @return the name of the video file without the file extension
+     */
+    String getRawname() {
+        if (rawname == null) {
+            String name = videoFile.getName();
+            int extensionStart = name.lastIndexOf('.');
+            rawname = extensionStart == -1 ? name : name.substring(0, extensionStart);
+        }
+        return rawname;
+    }
+
+    /**
+     * @param normalizedTagName the friendly name or four-character code of a metadata tag,
+     *                          normalized with MetaDataReader.normalizeTagName()
+     * @return the value of the tag in the video file or null if not found
+     */
+    String getMetadata(String normalizedTagName) {
+        return getMetaDataReader().getTagValueByNormalizedName(normalizedTagName);
+    }
+
+    /**
+     * @return the length of the video like 1:02:03 or 4:05, empty string if not known
+     */
+    String getDuration() {
+        VideoProperties properties = getMetaDataReader().getVideoProperties();
+        if (!properties.hasDuration())
+            return "";
+        long seconds = Math.round(properties.getDurationSeconds());
+        long hours = seconds / 3600;
+        long minutes = (seconds / 60) % 60;
+        if (hours > 0)
+            return String.format(Locale.ROOT, "%d:%02d:%02d", hours, minutes, seconds % 60);
+        return String.format(Locale.ROOT, "%d:%02d", minutes, seconds % 60);
+    }
+
+    /**
+     * @return the size of the video like 1920x1080, empty string if not known
+     */
+    String getResolution() {
+        VideoProperties properties = getMetaDataReader().getVideoProperties();
+        if (!properties.hasResolution())
+            return "";
+        return properties.getWidth() + "x" + properties.getHeight();
+    }
+
+    /**
+     * @return the frame rate with at most two decimals, like 30 or 29.97, empty string if not known
+     */
+    String getFramesPerSecond() {
+        VideoProperties properties = getMetaDataReader().getVideoProperties();
+        if (!properties.hasFramesPerSecond())
+            return "";
+        return BigDecimal.valueOf(properties.getFramesPerSecond())
+                .setScale(2, RoundingMode.HALF_UP).stripTrailingZeros().toPlainString();
+    }
+
+    /**
+     * @return the size of the video file like 1.2 GB, empty string if the file could not be read
+     */
+    String getFileSize() {
+        BasicFileAttributes attributes = getFileAttributes();
+        if (attributes == null)
+            return "";
+        double size = attributes.size();
+        int unit = 0;
+        while (size >= 1024 && unit < SIZE_UNITS.length - 1) {
+            size /= 1024;
+            unit++;
+        }
+        if (unit == 0)
+            return attributes.size() + " " + SIZE_UNITS[0];
+        return String.format(Locale.ROOT, "%.1f %s", size, SIZE_UNITS[unit]);
+    }
+
+    /**
+     * @return the date the video file was created like 2019-03-14, empty string if the file could not be read
+     */
+    String getCreated() {
+        BasicFileAttributes attributes = getFileAttributes();
+        if (attributes == null)
+            return "";
+        return formatDate(attributes.creationTime().toMillis());
+    }
+
+    /**
+     * @return the date the video was recorded according to the video file, if the file does not say it the date the
+     * file was last modified is used
+     */
+    String getRecorded() {
+        VideoProperties properties = getMetaDataReader().getVideoProperties();
+        if (properties.hasRecordedTime())
+            return formatDate(properties.getRecordedTime());
+        BasicFileAttributes attributes = getFileAttributes();
+        if (attributes == null)
+            return "";
+        return formatDate(attributes.lastModifiedTime().toMillis());
+    }
+
+    private static String formatDate(long epochMillis) {
+        return DATE_FORMAT.format(Instant.ofEpochMilli(epochMillis).atZone(ZoneId.systemDefault()));
+    }
+
+    private MetaDataReader getMetaDataReader() {
+        if (metaDataReader == null) {
+            metaDataReader = MetaDataCache.INSTANCE.getReader(videoFile);
+        }
+        return metaDataReader;
+    }
+
+    /**
+     * @return the size and times of the video file, or null if they could not be read
+     */
+    private BasicFileAttributes getFileAttributes() {
+        if (fileAttributes == null) {
+            try {
+                fileAttributes = Files.readAttributes(videoFile.toPath(), BasicFileAttributes.class);
+            } catch (IOException e) {
+                System.err.println("Could not read the attributes of " + videoFile.getAbsolutePath());
+                e.printStackTrace();
+            }
+        }
+        return fileAttributes;
+    }
+}
@@ -0,0 +1,478 @@
+package io.github.stekeblad.videouploader.tagProcessing.metaDataTagProcessor;
+
+import javafx.util.Pair;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Reads the metadata of Matroska (MKV) and WebM files. The file is made of EBML elements that starts with an id and
+ * a size, so only the Segment Info, Tracks and Tags elements is read and everything else, like the Clusters with the
+ * actual video, is skipped. If the Tags is located after the Clusters the SeekHead is used to find them.
+ * <p>
+ * The tags written in the Tags element is returned with their own names, for example TITLE or ENCODER. From the Info
+ * and Tracks elements Title, MuxingApp, WritingApp, DateUTC, Duration (in seconds), VideoCodec, Width, Height,
+ * AudioCodec, SampleRate and Channels is returned if they are set. The duration, date, resolution and frame rate
+ * (from the DefaultDuration of the video track) is also set in a VideoProperties.
+ */
+class MatroskaMetaDataParser {
+
+    // Element ids, with the length marker bits included like in the specification
+    private static final int ID_EBML = 0x1A45DFA3;
+    private static final int ID_SEGMENT = 0x18538067;
+    private static final int ID_SEEK_HEAD = 0x114D9B74;
+    private static final int ID_SEEK = 0x4DBB;
+    private static final int ID_SEEK_ID = 0x53AB;
+    private static final int ID_SEEK_POSITION = 0x53AC;
+    private static final int ID_INFO = 0x1549A966;
+    private static final int ID_TIMECODE_SCALE = 0x2AD7B1;
+    private static final int ID_DURATION = 0x4489;
+    private static final int ID_TITLE = 0x7BA9;
+    private static final int ID_MUXING_APP = 0x4D80;
+    private static final int ID_WRITING_APP = 0x5741;
+    private static final int ID_DATE_UTC = 0x4461;
+    private static final int ID_TRACKS = 0x1654AE6B;
+    private static final int ID_TRACK_ENTRY = 0xAE;
+    private static final int ID_TRACK_TYPE = 0x83;
+    private static final int ID_CODEC_ID = 0x86;
+    private static final int ID_DEFAULT_DURATION = 0x23E383;
+    private static final int ID_VIDEO = 0xE0;
+    private static final int ID_PIXEL_WIDTH = 0xB0;
+    private static final int ID_PIXEL_HEIGHT = 0xBA;
+    private static final int ID_AUDIO = 0xE1;
+    private static final int ID_SAMPLING_FREQUENCY = 0xB5;
+    private static final int ID_CHANNELS = 0x9F;
+    private static final int ID_TAGS = 0x1254C367;
+    private static final int ID_TAG = 0x7373;
+    private static final int ID_SIMPLE_TAG = 0x67C8;
+    private static final int ID_TAG_NAME = 0x45A3;
+    private static final int ID_TAG_STRING = 0x4487;
+    private static final int ID_CLUSTER = 0x1F43B675;
+
+    private static final int TRACK_TYPE_VIDEO = 1;
+    private static final int TRACK_TYPE_AUDIO = 2;
+    private static final long UNKNOWN_SIZE = -1;
+    private static final int MAX_HEADER_SIZE = 12; // 4 byte id and 8 byte size
+    // The elements that is read is normally a few kilobytes, larger than this probably means the file is broken
+    private static final long MAX_ELEMENT_SIZE = 16 * 1024 * 1024;
+    // DateUTC is nanoseconds since the start of the millennium
+    private static final long MILLENNIUM_EPOCH_SECONDS = 978307200L;
+
+    private final FileChannel channel;
+    private final List<Pair<String, String>> tags = new ArrayList<>();
+    // Info and Tracks values, added after the tags so a tag with the same name is found first
+    private final Map<String, String> infoValues = new LinkedHashMap<>();
+    private final Set<Integer> readElements = new HashSet<>();
+    private final VideoProperties properties;
+
+    private MatroskaMetaDataParser(FileChannel channel, VideoProperties properties) {
+        this.channel = channel;
+        this.properties = properties;
+    }
+
+    /**
+     * @param channel the opened file
+     * @return true if the file starts with an EBML header like Matroska and WebM files does
+     * @throws IOException if the file could not be read
+     */
+    static boolean isMatroska(FileChannel channel) throws IOException {
+        if (channel.size() < 4)
+            return false;
+        return readFully(channel, 0, 4).getInt(0) == ID_EBML;
+    }
+
+    /**
+     * Reads all metadata in the file
+     *
+     * @param channel    the opened file, should have been checked with isMatroska
+     * @param properties the duration, resolution, frame rate and date found in the file is set here
+     * @return the tags and their values
+     * @throws IOException if the file could not be read or the structure of the file is not what was expected
+     */
+    static List<Pair<String, String>> read(FileChannel channel, VideoProperties properties) throws IOException {
+        MatroskaMetaDataParser parser = new MatroskaMetaDataParser(channel, properties);
+        long fileSize = channel.size();
+
+        Element ebmlHeader = parser.readHeader(0);
+        if (ebmlHeader.id != ID_EBML || ebmlHeader.size == UNKNOWN_SIZE)
+            throw new IOException("Invalid EBML header");
+        Element segment = parser.readHeader(ebmlHeader.end());
+        if (segment.id != ID_SEGMENT)
+            throw new IOException("No Segment after the EBML header");
+        // The size of the segment is unknown if the recording was not finished properly
+        long segmentEnd = segment.size == UNKNOWN_SIZE ? fileSize : Math.min(segment.end(), fileSize);
+
+        // Read the elements before the first Cluster, normally everything except sometimes Tags and Cues
+        Map<Integer, Long> seekPositions = new LinkedHashMap<>();
+        long position = segment.dataStart;
+        while (position + 2 <= segmentEnd) {
+            Element element = parser.readHeader(position);
+            if (element.id == ID_CLUSTER || element.size == UNKNOWN_SIZE)
+                break;
+            if (element.id == ID_SEEK_HEAD) {
+                parser.readSeekHead(parser.readContent(element), seekPositions);
+            } else {
+                parser.readLevelOneElement(element);
+            }
+            position = element.end();
+        }
+
+        // Use the SeekHead to find the elements located after the Clusters
+        for (Map.Entry<Integer, Long> seek : seekPositions.entrySet()) {
+            int id = seek.getKey();
+            if (parser.readElements.contains(id))
+                continue;
+            long elementPosition = segment.dataStart + seek.getValue();
+            if (elementPosition + 2 > segmentEnd)
+                continue; // points outside of the file, the recording was probably cut off
+            Element element = parser.readHeader(elementPosition);
+            if (element.id != id || element.size == UNKNOWN_SIZE)
+                throw new IOException("The SeekHead points to the wrong place");
+            parser.readLevelOneElement(element);
+        }
+
+        List<Pair<String, String>> result = new ArrayList<>(parser.tags);
+        parser.infoValues.forEach((key, value) -> result.add(new Pair<>(key, value)));
+        return result;
+    }
+
+    /**
+     * The id, size and position of an element
+     */
+    private static class Element {
+        final int id;
+        final long dataStart;
+        final long size;
+
+        Element(int id, long dataStart, long size) {
+            this.id = id;
+            this.dataStart = dataStart;
+            this.size = size;
+        }
+
+        long end() {
+            return dataStart + size;
+        }
+    }
+
+    /**
+     * Reads the id and size of the element at position in the file
+     */
+    private Element readHeader(long position) throws IOException {
+        int length = (int) Math.min(MAX_HEADER_SIZE, channel.size() - position);
+        ByteBuffer header = readFully(channel, position, length);
+        int id = readId(header);
+        long size = readSize(header);
+        return new Element(id, position + header.position(), size);
+    }
+
+    /**
+     * Reads Info, Tracks and Tags, other elements is ignored
+     */
+    private void readLevelOneElement(Element element) throws IOException {
+        switch (element.id) {
+            case ID_INFO:
+                readInfo(readContent(element));
+                break;
+            case ID_TRACKS:
+                readTracks(readContent(element));
+                break;
+            case ID_TAGS:
+                readTags(readContent(element));
+                break;
+            default:
+                return;
+        }
+        readElements.add(element.id);
+    }
+
+    private void readSeekHead(ByteBuffer seekHead, Map<Integer, Long> seekPositions) throws IOException {
+        while (seekHead.hasRemaining()) {
+            int id = readId(seekHead);
+            ByteBuffer content = slice(seekHead, readSize(seekHead));
+            if (id != ID_SEEK)
+                continue;
+            Integer seekId = null;
+            Long seekPosition = null;
+            while (content.hasRemaining()) {
+                int childId = readId(content);
+                ByteBuffer value = slice(content, readSize(content));
+                if (childId == ID_SEEK_ID)
+                    seekId = (int) readUnsigned(value);
+                else if (childId == ID_SEEK_POSITION)
+                    seekPosition = readUnsigned(value);
+            }
+            if (seekId != null && seekPosition != null)
+                seekPositions.putIfAbsent(seekId, seekPosition);
+        }
+    }
+
+    private void readInfo(ByteBuffer info) throws IOException {
+        long timecodeScale = 1000000; // default, one millisecond
+        Double duration = null;
+        while (info.hasRemaining()) {
+            int id = readId(info);
+            ByteBuffer value = slice(info, readSize(info));
+            switch (id) {
+                case ID_TIMECODE_SCALE:
+                    timecodeScale = readUnsigned(value);
+                    break;
+                case ID_DURATION:
+                    duration = readFloat(value);
+                    break;
+                case ID_TITLE:
+                    infoValues.put("Title", readString(value));
+                    break;
+                case ID_MUXING_APP:
+                    infoValues.put("MuxingApp", readString(value));
+                    break;
+                case ID_WRITING_APP:
+                    infoValues.put("WritingApp", readString(value));
+                    break;
+                case ID_DATE_UTC:
+                    long nanos = readSigned(value);
+                    Instant date = Instant.ofEpochSecond(MILLENNIUM_EPOCH_SECONDS).plusNanos(nanos);
+                    infoValues.put("DateUTC", date.toString());
+                    properties.setRecordedTime(date.toEpochMilli());
+                    break;
+                default:
+            }
+        }
+        if (duration != null) {
+            double seconds = duration * timecodeScale / 1e9;
+            infoValues.put("Duration", String.valueOf(seconds));
+            properties.setDurationSeconds(seconds);
+        }
+    }
+
+    /**
+     * Reads the codec of the first video and audio track and the size of the video and the audio sample rate
+     */
+    private void readTracks(ByteBuffer tracks) throws IOException {
+        boolean videoFound = false;
+        boolean audioFound = false;
+        while (tracks.hasRemaining()) {
+            int id = readId(tracks);
+            ByteBuffer entry = slice(tracks, readSize(tracks));
+            if (id != ID_TRACK_ENTRY)
+                continue;
+
+            long type = 0;
+            long defaultDuration = 0; // nanoseconds per frame
+            String codec = null;
+            ByteBuffer video = null;
+            ByteBuffer audio = null;
+            while (entry.hasRemaining()) {
+                int childId = readId(entry);
+                ByteBuffer value = slice(entry, readSize(entry));
+                if (childId == ID_TRACK_TYPE)
+                    type = readUnsigned(value);
+                else if (childId == ID_CODEC_ID)
+                    codec = readString(value);
+                else if (childId == ID_DEFAULT_DURATION)
+                    defaultDuration = readUnsigned(value);
+                else if (childId == ID_VIDEO)
+                    video = value;
+                else if (childId == ID_AUDIO)
+                    audio = value;
+            }
+
+            if (type == TRACK_TYPE_VIDEO && !videoFound) {
+                videoFound = true;
+                if (codec != null)
+                    infoValues.put("VideoCodec", codec);
+                if (defaultDuration > 0)
+                    properties.setFramesPerSecond(1e9 / defaultDuration);
+                long width = 0;
+                long height = 0;
+                while (video != null && video.hasRemaining()) {
+                    int childId = readId(video);
+                    ByteBuffer value = slice(video, readSize(video));
+                    if (childId == ID_PIXEL_WIDTH) {
+                        width = readUnsigned(value);
+                        infoValues.put("Width", String.valueOf(width));
+                    } else if (childId == ID_PIXEL_HEIGHT) {
+                        height = readUnsigned(value);
+                        infoValues.put("Height", String.valueOf(height));
+                    }
+                }
+                if (width > 0 && height > 0 && width <= Integer.MAX_VALUE && height <= Integer.MAX_VALUE)
+                    properties.setResolution((int) width, (int) height);
+            } else if (type == TRACK_TYPE_AUDIO && !audioFound) {
+                audioFound = true;
+                if (codec != null)
+                    infoValues.put("AudioCodec", codec);
+                while (audio != null && audio.hasRemaining()) {
+                    int childId = readId(audio);
+                    ByteBuffer value = slice(audio, readSize(audio));
+                    if (childId == ID_SAMPLING_FREQUENCY)
+                        infoValues.put("SampleRate", String.valueOf(Math.round(readFloat(value))));
+                    else if (childId == ID_CHANNELS)
+                        infoValues.put("Channels", String.valueOf(readUnsigned(value)));
+                }
+            }
+        }
+    }
+
+    private void readTags(ByteBuffer tagsElement) throws IOException {
+        while (tagsElement.hasRemaining()) {
+            int id = readId(tagsElement);
+            ByteBuffer tag = slice(tagsElement, readSize(tagsElement));
+            if (id != ID_TAG)
+                continue;
+            while (tag.hasRemaining()) {
+                int childId = readId(tag);
+                ByteBuffer value = slice(tag, readSize(tag));
+                if (childId == ID_SIMPLE_TAG)
+                    readSimpleTag(value, "");
+            }
+        }
+    }
+
+    /**
+     * Reads a SimpleTag and the SimpleTags inside it. Nested tags is named parent.child
+     */
+    private void readSimpleTag(ByteBuffer simpleTag, String namePrefix) throws IOException {
+        String name = null;
+        String value = null;
+        List<ByteBuffer> children = new ArrayList<>();
+        while (simpleTag.hasRemaining()) {
+            int id = readId(simpleTag);
+            ByteBuffer content = slice(simpleTag, readSize(simpleTag));
+            if (id == ID_TAG_NAME)
+                name = readString(content);
+            else if (id == ID_TAG_STRING)
+                value = readString(content);
+            else if (id == ID_SIMPLE_TAG)
+                children.add(content);
+        }
+        if (name == null)
+            return;
+        name = namePrefix + name;
+        if (value != null)
+            tags.add(new Pair<>(name, value));
+        for (ByteBuffer child : children) {
+            readSimpleTag(child, name + ".");
+        }
+    }
+
+    // Helpers for reading EBML
+
+    /**
+     * Reads an element id. The length of the id is the number of leading zero bits in the first byte plus one,
+     * the length marker is kept as a part of the id.
+     */
+    private static int readId(ByteBuffer buffer) throws IOException {
+        if (!buffer.hasRemaining())
+            throw new IOException("Unexpected end of element");
+        int first = buffer.get() & 0xFF;
+        int length = Integer.numberOfLeadingZeros(first) - 23;
+        if (first == 0 || length > 4 || buffer.remaining() < length - 1)
+            throw new IOException("Invalid element id");
+        int id = first;
+        for (int i = 1; i < length; i++) {
+            id = (id << 8) | (buffer.get() & 0xFF);
+        }
+        return id;
+    }
+
+    /**
+     * Reads an element size. Same length encoding as the id but the length marker is removed. A size with all bits
+     * set means the size is unknown.
+     */
+    private static long readSize(ByteBuffer buffer) throws IOException {
+        if (!buffer.hasRemaining())
+            throw new IOException("Unexpected end of element");
+        int first = buffer.get() & 0xFF;
+        int length = Integer.numberOfLeadingZeros(first) - 23;
+        if (first == 0 || buffer.remaining() < length - 1)
+            throw new IOException("Invalid element size");
+        long size = first & (0xFF >> length);
+        boolean allOnes = size == (0xFF >> length);
+        for (int i = 1; i < length; i++) {
+            int next = buffer.get() & 0xFF;
+            allOnes &= next == 0xFF;
+            size = (size << 8) | next;
+        }
+        return allOnes ? UNKNOWN_SIZE : size;
+    }
+
+    /**
+     * Takes the next size bytes of buffer as a separate buffer and moves buffer past them
+     */
+    private static ByteBuffer slice(ByteBuffer buffer, long size) throws IOException {
+        if (size == UNKNOWN_SIZE || size > buffer.remaining())
+            throw new IOException("Element is larger than its parent");
+        ByteBuffer slice = buffer.slice();
+        slice.limit((int) size);
+        buffer.position(buffer.position() + (int) size);
+        return slice;
+    }
+
+    private static long readUnsigned(ByteBuffer value) throws IOException {
+        if (value.remaining() > 8)
+            throw new IOException("Integer longer than 8 bytes");
+        long result = 0;
+        while (value.hasRemaining()) {
+            result = (result << 8) | (value.get() & 0xFF);
+        }
+        return result;
+    }
+
+    private static long readSigned(ByteBuffer value) throws IOException {
+        int length = value.remaining();
+        long result = readUnsigned(value);
+        if (length > 0 && length < 8) {
+            int unusedBits = 64 - 8 * length;
+            result = (result << unusedBits) >> unusedBits;
+        }
+        return result;
+    }
+
+    private static double readFloat(ByteBuffer value) throws IOException {
+        if (value.remaining() == 4)
+            return value.getFloat();
+        if (value.remaining() == 8)
+            return value.getDouble();
+        if (value.remaining() == 0)
+            return 0;
+        throw new IOException("Invalid float size");
+    }
+
+    private static String readString(ByteBuffer value) {
+        byte[] bytes = new byte[value.remaining()];
+        value.get(bytes);
+        // Strings may be padded with zeros at the end
+        int length = bytes.length;
+        while (length > 0 && bytes[length - 1] == 0) {
+            length--;
+        }
+        return new String(bytes, 0, length, StandardCharsets.UTF_8);
+    }
+
+    private ByteBuffer readContent(Element element) throws IOException {
+        if (element.size == UNKNOWN_SIZE || element.size > MAX_ELEMENT_SIZE)
+            throw new IOException("Element is too large to be read");
+        return readFully(channel, element.dataStart, (int) element.size);
+    }
+
+    private static ByteBuffer readFully(FileChannel channel, long position, int size) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + buffer.position());
+            if (read == -1)
+                throw new IOException("Unexpected end of file");
+        }
+        buffer.flip();
+        return buffer;
+    }
+}
@@ -0,0 +1,231 @@
+package io.github.stekeblad.videouploader.tagProcessing.metaDataTagProcessor;
+
+import io.github.stekeblad.videouploader.utils.background.Timings;
+import javafx.util.Pair;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+import static io.github.stekeblad.videouploader.utils.Constants.METADATA_CACHE_DIR;
+
+/**
+ * A Enum-Singleton class that remembers the metadata of video files so they only needs to be read once, also between
+ * program restarts. Entries are keyed by the canonical path, size and last modified time of the file so a changed file
+ * is read again. The most recently used entries is kept in memory and all entries is saved in METADATA_CACHE_DIR,
+ * one small file per video.
+ * <p>
+ * All public methods in this class is threadsafe. If the same file is requested by multiple threads at the same time
+ * it is only read once, the other threads waits for the result.
+ */
+public enum MetaDataCache {
+    INSTANCE;
+
+    private static final int MAX_ENTRIES_IN_MEMORY = 512;
+    // Changed if the format of the files in METADATA_CACHE_DIR or what is read from the videos is changed,
+    // old files are then ignored
+    private static final int FILE_FORMAT_VERSION = 3;
+
+    // access-ordered LinkedHashMap, the least recently used entry is removed when the cache is full
+    private final LinkedHashMap<String, MetaDataReader> readers = new LinkedHashMap<String, MetaDataReader>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, MetaDataReader> eldest) {
+            return size() > MAX_ENTRIES_IN_MEMORY;
+        }
+    };
+    // Files that is being read right now
+    private final ConcurrentHashMap<String, FutureTask<MetaDataReader>> inProgress = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the metadata of videoFile. It is taken from memory or the disk cache if it has been read before, otherwise
+     * the file is read and the result is cached. Reading the file may take some time, do not call this method on the
+     * JavaFX thread.
+     *
+     * @param videoFile the file to get the metadata for
+     * @return a MetaDataReader with the metadata of videoFile
+     */
+    public MetaDataReader getReader(File videoFile) {
+        String key = makeKey(videoFile);
+        synchronized (readers) {
+            MetaDataReader reader = readers.get(key);
+            if (reader != null)
+                return reader;
+        }
+
+        FutureTask<MetaDataReader> newTask = new FutureTask<>(() -> load(videoFile, key));
+        FutureTask<MetaDataReader> task = inProgress.putIfAbsent(key, newTask);
+        if (task == null) {
+            task = newTask;
+            try {
+                task.run();
+            } finally {
+                inProgress.remove(key, task);
+            }
+        }
+        // The read is not aborted if this thread is interrupted, it is fast for most files and the result is useful
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    return task.get();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException)
+                throw (RuntimeException) e.getCause();
+            throw new RuntimeException(e.getCause());
+        } finally {
+            if (interrupted)
+                Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Gets the metadata from the disk cache or the video file and remembers it in memory
+     */
+    private MetaDataReader load(File videoFile, String key) {
+        Path cacheFile = Paths.get(METADATA_CACHE_DIR).resolve(sha256(key) + ".meta");
+        long start = Timings.start();
+        MetaDataReader reader = loadFromDisk(cacheFile, key);
+        if (reader != null) {
+            Timings.INSTANCE.record("metadata/read disk cache", start);
+        } else {
+            start = Timings.start();
+            reader = new MetaDataReader(videoFile);
+            Timings.INSTANCE.record("metadata/read file", start);
+            if (reader.isReadFailed())
+                return reader; // Might work next time, do not remember the failure
+            saveToDisk(cacheFile, key, reader);
+        }
+        synchronized (readers) {
+            readers.put(key, reader);
+        }
+        return reader;
+    }
+
+    /**
+     * Reads a cached entry from disk
+     *
+     * @return the cached metadata, or null if there is no valid entry for key
+     */
+    private MetaDataReader loadFromDisk(Path cacheFile, String key) {
+        if (!Files.isRegularFile(cacheFile))
+            return null;
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(cacheFile)))) {
+            if (input.readInt() != FILE_FORMAT_VERSION || !readString(input).equals(key))
+                return null; // old format or a hash collision
+            boolean isFileSupported = input.readBoolean();
+            int count = input.readInt();
+            List<Pair<String, String>> tags = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                tags.add(new Pair<>(readString(input), readString(input)));
+            }
+            VideoProperties properties = new VideoProperties(input.readDouble(), input.readInt(), input.readInt(),
+                    input.readDouble(), input.readLong());
+            return new MetaDataReader(tags, isFileSupported, properties);
+        } catch (IOException e) {
+            System.err.println("Failed to read the metadata cache file " + cacheFile);
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    /**
+     * Saves an entry to disk. A failure is only logged, the metadata can be read from the video file again next time.
+     */
+    private void saveToDisk(Path cacheFile, String key, MetaDataReader reader) {
+        Path temp = null;
+        try {
+            Files.createDirectories(cacheFile.getParent());
+            // Write to a temporary file first so a half written file never is read
+            temp = Files.createTempFile(cacheFile.getParent(), "meta", ".tmp");
+            try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                output.writeInt(FILE_FORMAT_VERSION);
+                writeString(output, key);
+                output.writeBoolean(reader.isFileSupported());
+                List<Pair<String, String>> tags = reader.getAllTagsAndValues();
+                output.writeInt(tags.size());
+                for (Pair<String, String> tag : tags) {
+                    writeString(output, tag.getKey());
+                    writeString(output, tag.getValue());
+                }
+                VideoProperties properties = reader.getVideoProperties();
+                output.writeDouble(properties.getDurationSeconds());
+                output.writeInt(properties.getWidth());
+                output.writeInt(properties.getHeight());
+                output.writeDouble(properties.getFramesPerSecond());
+                output.writeLong(properties.getRecordedTime());
+            }
+            Files.move(temp, cacheFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.err.println("Failed to save the metadata cache file " + cacheFile);
+            e.printStackTrace();
+        } finally {
+            if (temp != null) {
+                try {
+                    Files.deleteIfExists(temp);
+                } catch (IOException ignored) {
+                }
+            }
+        }
+    }
+
+    // DataOutputStream.writeUTF can not write strings longer than 64KB, descriptions and lyrics can be longer
+    private static void writeString(DataOutputStream output, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        output.writeInt(bytes.length);
+        output.write(bytes);
+    }
+
+    private static String readString(DataInputStream input) throws IOException {
+        int length = input.readInt();
+        if (length < 0)
+            throw new IOException("Invalid string length in metadata cache file");
+        byte[] bytes = new byte[length];
+        input.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static String makeKey(File file) {
+        String path;
+        try {
+            path = file.getCanonicalPath();
+        } catch (IOException e) {
+            path = file.getAbsolutePath();
+        }
+        return path + "|" + file.length() + "|" + file.lastModified();
+    }
+
+    private static String sha256(String text) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e); // all Java implementations is required to support SHA-256
+        }
+        StringBuilder hex = new StringBuilder();
+        for (byte b : digest.digest(text.getBytes(StandardCharsets.UTF_8))) {
+            hex.append(String.format("%02x", b));
+        }
+        return hex.toString();
+    }
+}
@@ -3,22 +3,22 @@ package io.github.stekeblad.videouploader.tagProcessing.metaDataTagProcessor;
 import javafx.util.Pair;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Locale;
 
 /**
  * Class for trying to translating the codes in the iTunes metadata format to user friendly names
  */
 public class MetaDataNamesMapping {
-    private static ArrayList<Pair<String, String>> namesMap = new ArrayList<>();
-
     // The copyright symbol created from a code, directly using the character did not work properly in the pairs
     private static final char COPY = (char) 169;
-    /**
-     * @return a list of some 4-character metadata names and their friendly alternative
-     */
-    public static ArrayList<Pair<String, String>> getNamesMap() {
-        if (namesMap.size() > 0)
-            return namesMap;
 
+    private static final ArrayList<Pair<String, String>> namesMap = new ArrayList<>();
+    // Lookup tables built from namesMap, the keys are in lower case so the lookups are case insensitive
+    private static final HashMap<String, String> fourccToFriendly = new HashMap<>();
+    private static final HashMap<String, String> friendlyToFourcc = new HashMap<>();
+
+    static {
         // List taken from the following link, its the best one I could find
         // http://atomicparsley.sourceforge.net/mpeg-4files.html
 
@@ -56,6 +56,18 @@ public class MetaDataNamesMapping {
         namesMap.add(new Pair<>("purd", "PurchaseDate"));
         namesMap.add(new Pair<>("pgap", "GaplessPlayback"));
 
+
+        for (Pair<String, String> pair : namesMap) {
+            // If two codes has the same friendly name the first one is used, like before
+            fourccToFriendly.putIfAbsent(pair.getKey().toLowerCase(Locale.ROOT), pair.getValue());
+            friendlyToFourcc.putIfAbsent(pair.getValue().toLowerCase(Locale.ROOT), pair.getKey());
+        }
+    }
+
+    /**
+     * @return a list of some 4-character metadata names and their friendly alternative
+     */
+    public static ArrayList<Pair<String, String>> getNamesMap() {
         return namesMap;
     }
 
@@ -84,11 +96,7 @@ public class MetaDataNamesMapping {
         if (fourcc.length() != 4)
             return fourcc;
 
-        for (Pair<String, String> pair : getNamesMap()) {
-            if (pair.getKey().equalsIgnoreCase(fourcc))
-                return pair.getValue();
-        }
-        return fourcc;
+        return fourccToFriendly.getOrDefault(fourcc.toLowerCase(Locale.ROOT), fourcc);
     }
 
     /**
@@ -98,11 +106,7 @@ public class MetaDataNamesMapping {
      * @return returns a 4-chacter code for the friendly name or the given friendly name if no matching 4-character code was found.
      */
     public static String tryConvertFriendlyNameToFourcc(String friendlyName) {
-        for (Pair<String, String> pair : getNamesMap()) {
-            if (pair.getValue().equalsIgnoreCase(friendlyName))
-                return pair.getKey();
-        }
-        return friendlyName;
+        return friendlyToFourcc.getOrDefault(friendlyName.toLowerCase(Locale.ROOT), friendlyName);
     }
 
     /**
@@ -5,13 +5,22 @@ import org.jcodec.containers.mp4.boxes.MetaValue;
 import org.jcodec.movtool.MetadataEditor;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 
 /**
  * A MetaDataReader extracts metadata from a video file and allows you to query the tags in it using friendly names and
- * four-character codes. This does not work for all files. Depending on where in the file the metadata is located
- * the entire file may need to be read and that may take some time depending on size!
+ * four-character codes. This does not work for all files. MP4 and MOV files is read with Mp4MetaDataParser and MKV and
+ * WebM files with MatroskaMetaDataParser, they only reads the parts of the file that contains metadata.
+ * Other files and files with an unusual structure is read
+ * with jcodec, then depending on where in the file the metadata is located the entire file may need to be read and
+ * that may take some time depending on size!
  * <p>
  * To check if the metadata could be read you can check the return value of isFileSupported().
  * <p>
@@ -19,17 +28,40 @@ import java.util.Map;
  */
 public class MetaDataReader {
     private ArrayList<Pair<String, String>> _tags;
+    // normalized tag names, friendly names and four-character codes -> value, built once when the file has been read
+    private volatile HashMap<String, String> _index = null;
     private boolean _isFileSupported;
+    // true if reading failed for another reason than the format not being supported, the result should not be cached
+    private boolean _readFailed = false;
+    private VideoProperties _properties;
 
     /**
-     * Creates a MetaDataReader and scans the given file for metadata. Depending on where in the file the metadata is located
-     * the entire file may need to be read and that may take some time depending on size!
+     * Creates a MetaDataReader and scans the given file for metadata. For files that is not MP4, MOV, MKV or WebM the entire file
+     * may need to be read and that may take some time depending on size!
      *
      * @param videoFile The file to find metadata inside
      */
     public MetaDataReader(File videoFile) {
         _isFileSupported = true;
         _tags = new ArrayList<>();
+        _properties = new VideoProperties();
+
+        try (FileChannel channel = FileChannel.open(videoFile.toPath(), StandardOpenOption.READ)) {
+            if (Mp4MetaDataParser.isIsoBmff(channel)) {
+                _tags.addAll(Mp4MetaDataParser.read(channel, _properties));
+                return;
+            }
+            if (MatroskaMetaDataParser.isMatroska(channel)) {
+                _tags.addAll(MatroskaMetaDataParser.read(channel, _properties));
+                return;
+            }
+        } catch (IOException | RuntimeException e) {
+            // Unusual structure or read error, let jcodec try. A RuntimeException means the parser missed a check
+            // for a broken file, it should not stop jcodec from reading it.
+            _tags.clear();
+            _properties = new VideoProperties();
+        }
+
         try {
             MetadataEditor editor = MetadataEditor.createFrom(videoFile);
 
@@ -44,9 +76,31 @@ public class MetaDataReader {
         } catch (Exception ex) {
             // set to false if file is not supported (IllegalArgumentException was thrown)
             _isFileSupported = !(ex instanceof IllegalArgumentException);
+            _readFailed = _isFileSupported;
         }
     }
 
+    /**
+     * Creates a MetaDataReader from metadata that has already been read, used by MetaDataCache
+     *
+     * @param tags            the tags found in the file
+     * @param isFileSupported false if the format of the file is not supported
+     * @param properties      the duration, resolution and so on found in the file
+     */
+    MetaDataReader(List<Pair<String, String>> tags, boolean isFileSupported, VideoProperties properties) {
+        _tags = new ArrayList<>(tags);
+        _isFileSupported = isFileSupported;
+        _properties = properties;
+    }
+
+    /**
+     * @return true if the file could not be read, for example because it is locked or was removed.
+     * Not the same as not supported.
+     */
+    boolean isReadFailed() {
+        return _readFailed;
+    }
+
     /**
      * @return all tags found in the file, if the format of the scanned file is not supported the list will always be empty
      */
@@ -57,23 +111,62 @@ public class MetaDataReader {
     /**
      * Gets the value of a specific tag
      *
-     * @param tagName name of the tag to get the value for
+     * @param tagName name of the tag to get the value for, a friendly name or a four-character code, case insensitive
      * @return the value of the requested tag or null if the tag was not found in the file.
      * Null will always be returned if the scanned file is not supported.
      */
     public String getTagValueByName(String tagName) {
+        return getTagValueByNormalizedName(normalizeTagName(tagName));
+    }
+
+    /**
+     * Same as getTagValueByName but the name must already have been normalized with normalizeTagName(), useful when
+     * the same name is looked up in many files.
+     *
+     * @param normalizedTagName a name returned by normalizeTagName()
+     * @return the value of the requested tag or null if the tag was not found in the file.
+     */
+    public String getTagValueByNormalizedName(String normalizedTagName) {
+        if (_index == null)
+            buildIndex();
+        return _index.get(normalizedTagName);
+    }
+
+    /**
+     * @param tagName the name of a tag, as written by the user
+     * @return the name in the form used by getTagValueByNormalizedName()
+     */
+    public static String normalizeTagName(String tagName) {
+        return tagName.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Builds the index used for looking up tags. Every tag can be found by its own name and by its friendly name
+     * or four-character code. If two tags has the same name the first one is used.
+     */
+    private synchronized void buildIndex() {
+        if (_index != null)
+            return;
+        HashMap<String, String> index = new HashMap<>();
         for (Pair<String, String> tag : _tags) {
-            if (tag.getKey().equalsIgnoreCase(tagName))
-                return tag.getValue();
+            index.putIfAbsent(normalizeTagName(tag.getKey()), tag.getValue());
         }
-
-        tagName = MetaDataNamesMapping.tryConvertFriendlyNameToFourcc(tagName);
+        // Alternative names is added after all real names so they never hide a tag with that name
         for (Pair<String, String> tag : _tags) {
-            if (tag.getKey().equalsIgnoreCase(tagName))
-                return tag.getValue();
+            String fourcc = MetaDataNamesMapping.tryConvertFriendlyNameToFourcc(tag.getKey());
+            index.putIfAbsent(normalizeTagName(fourcc), tag.getValue());
+            String friendlyName = MetaDataNamesMapping.tryConvertFourccToFriendlyName(tag.getKey());
+            index.putIfAbsent(normalizeTagName(friendlyName), tag.getValue());
         }
+        _index = index;
+    }
 
-        return null;
+    /**
+     * @return the duration, resolution, frame rate and recording time of the video. Only MP4, MOV, MKV and WebM files
+     * has them, for other files all properties is unknown.
+     */
+    public VideoProperties getVideoProperties() {
+        return _properties;
     }
 
     /**
@@ -0,0 +1,455 @@
+package io.github.stekeblad.videouploader.tagProcessing.metaDataTagProcessor;
+
+import javafx.util.Pair;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Reads the metadata of MP4 and MOV files by walking the box tree with positional reads. Only the box headers on the
+ * way to moov/meta and moov/udta/meta is read, the media data in mdat is skipped using its size field so only a few
+ * kilobytes is read no matter how large the file is.
+ * <p>
+ * The same tags as jcodec's MetadataEditor is returned, first the keyed tags from moov/meta and then the iTunes tags
+ * from moov/udta/meta. If the file does not look like the parser expects an IOException is thrown and MetaDataReader
+ * falls back to jcodec.
+ * <p>
+ * The duration, creation time and the resolution and frame rate of the first video track is read from the mvhd, tkhd,
+ * mdhd and stts boxes on the way, they are small and is located in moov together with the metadata.
+ */
+class Mp4MetaDataParser {
+
+    private static final int BOX_HEADER_SIZE = 8;
+    private static final int LARGE_BOX_HEADER_SIZE = 16;
+    // The metadata boxes is read to memory, larger than this is not normal and probably means the file is broken
+    private static final long MAX_META_BOX_SIZE = 32 * 1024 * 1024;
+    // Times in the mvhd box is seconds since 1904-01-01, this many seconds before 1970-01-01
+    private static final long SECONDS_FROM_1904_TO_1970 = 2082844800L;
+    // Boxes that can be first in a MP4 or MOV file
+    private static final Set<String> FIRST_BOX_TYPES = new HashSet<>(Arrays.asList(
+            "ftyp", "moov", "mdat", "free", "skip", "wide", "pnot", "uuid"));
+
+    // Data types used in the data box of a metadata item
+    private static final int TYPE_UTF8 = 1;
+    private static final int TYPE_UTF16 = 2;
+    private static final int TYPE_SIGNED_INT = 21;
+    private static final int TYPE_UNSIGNED_INT = 22;
+    private static final int TYPE_FLOAT_32 = 23;
+    private static final int TYPE_FLOAT_64 = 24;
+    private static final int TYPE_INT_8 = 65;
+    private static final int TYPE_INT_16 = 66;
+    private static final int TYPE_INT_32 = 67;
+    private static final int TYPE_UINT_8 = 75;
+    private static final int TYPE_UINT_16 = 76;
+    private static final int TYPE_UINT_32 = 77;
+
+    private final FileChannel channel;
+    private final List<Pair<String, String>> keyedTags = new ArrayList<>();
+    private final List<Pair<String, String>> itunesTags = new ArrayList<>();
+    private final VideoProperties properties;
+    private boolean videoTrackFound = false;
+
+    private Mp4MetaDataParser(FileChannel channel, VideoProperties properties) {
+        this.channel = channel;
+        this.properties = properties;
+    }
+
+    /**
+     * Checks if the file starts with a box that a MP4 or MOV file can start with
+     *
+     * @param channel the opened file
+     * @return true if the file looks like a MP4 or MOV file
+     * @throws IOException if the file could not be read
+     */
+    static boolean isIsoBmff(FileChannel channel) throws IOException {
+        if (channel.size() < BOX_HEADER_SIZE)
+            return false;
+        ByteBuffer header = readFully(channel, 0, BOX_HEADER_SIZE);
+        return FIRST_BOX_TYPES.contains(fourcc(header.getInt(4)));
+    }
+
+    /**
+     * Reads all metadata tags in the file
+     *
+     * @param channel    the opened file, should have been checked with isIsoBmff
+     * @param properties the duration, resolution, frame rate and creation time found in the file is set here
+     * @return the tags and their values
+     * @throws IOException if the file could not be read or the structure of the file is not what was expected
+     */
+    static List<Pair<String, String>> read(FileChannel channel, VideoProperties properties) throws IOException {
+        Mp4MetaDataParser parser = new Mp4MetaDataParser(channel, properties);
+        boolean moovFound = false;
+        long position = 0;
+        long end = channel.size();
+        while (position + BOX_HEADER_SIZE <= end) {
+            Box box = parser.readBox(position, end);
+            if (box.type.equals("moov")) {
+                parser.readMoov(box);
+                moovFound = true;
+                break; // there is only one moov box
+            }
+            position = box.end;
+        }
+        if (!moovFound)
+            throw new IOException("No moov box found");
+
+        List<Pair<String, String>> tags = new ArrayList<>(parser.keyedTags);
+        tags.addAll(parser.itunesTags);
+        return tags;
+    }
+
+    /**
+     * The position and type of a box in the file
+     */
+    private static class Box {
+        final String type;
+        // position of the content after the header
+        final long contentStart;
+        // position after the last byte of the box
+        final long end;
+
+        Box(int typeCode, long contentStart, long end) {
+            this.type = fourcc(typeCode);
+            this.contentStart = contentStart;
+            this.end = end;
+        }
+    }
+
+    /**
+     * Reads the header of the box at position
+     *
+     * @param parentEnd the end of the box containing this box, or the end of the file
+     */
+    private Box readBox(long position, long parentEnd) throws IOException {
+        ByteBuffer header = readFully(channel, position, BOX_HEADER_SIZE);
+        long size = header.getInt(0) & 0xFFFFFFFFL;
+        int type = header.getInt(4);
+        long headerSize = BOX_HEADER_SIZE;
+        if (size == 1) {
+            // 64-bit size after the type
+            size = readFully(channel, position + BOX_HEADER_SIZE, 8).getLong(0);
+            headerSize = LARGE_BOX_HEADER_SIZE;
+        } else if (size == 0) {
+            // box extends to the end of the file
+            size = parentEnd - position;
+        }
+        if (size < headerSize || position + size > parentEnd)
+            throw new IOException("Invalid size of box " + fourcc(type) + " at " + position);
+        return new Box(type, position + headerSize, position + size);
+    }
+
+    private void readMoov(Box moov) throws IOException {
+        long position = moov.contentStart;
+        while (position + BOX_HEADER_SIZE <= moov.end) {
+            Box box = readBox(position, moov.end);
+            if (box.type.equals("meta")) {
+                readMeta(box, keyedTags);
+            } else if (box.type.equals("mvhd")) {
+                readMovieHeader(box);
+            } else if (box.type.equals("trak") && !videoTrackFound) {
+                readTrack(box);
+            } else if (box.type.equals("udta")) {
+                long udtaPosition = box.contentStart;
+                while (udtaPosition + BOX_HEADER_SIZE <= box.end) {
+                    Box udtaChild = readBox(udtaPosition, box.end);
+                    if (udtaChild.type.equals("meta"))
+                        readMeta(udtaChild, itunesTags);
+                    udtaPosition = udtaChild.end;
+                }
+            }
+            position = box.end;
+        }
+    }
+
+    /**
+     * Reads the duration and creation time of the movie from the mvhd box
+     */
+    private void readMovieHeader(Box mvhd) throws IOException {
+        ByteBuffer content = readContent(mvhd);
+        requireSize(content, 20, mvhd);
+        int version = content.get(0);
+        if (version == 1)
+            requireSize(content, 32, mvhd);
+        long creationTime;
+        long timescale;
+        long duration;
+        if (version == 1) {
+            creationTime = content.getLong(4);
+            timescale = content.getInt(20) & 0xFFFFFFFFL;
+            duration = content.getLong(24);
+        } else {
+            creationTime = content.getInt(4) & 0xFFFFFFFFL;
+            timescale = content.getInt(12) & 0xFFFFFFFFL;
+            duration = content.getInt(16) & 0xFFFFFFFFL;
+        }
+        // Many programs writes zero instead of the real creation time
+        if (creationTime != 0)
+            properties.setRecordedTime((creationTime - SECONDS_FROM_1904_TO_1970) * 1000);
+        if (timescale != 0 && duration > 0 && duration != 0xFFFFFFFFL)
+            properties.setDurationSeconds((double) duration / timescale);
+    }
+
+    /**
+     * Reads the resolution and frame rate from a trak box if it is a video track. The resolution is in tkhd and
+     * the frame rate is calculated from the number of samples in stts and the duration in mdhd.
+     */
+    private void readTrack(Box trak) throws IOException {
+        int width = 0;
+        int height = 0;
+        boolean isVideo = false;
+        long timescale = 0;
+        long duration = 0;
+        long sampleCount = 0;
+
+        long position = trak.contentStart;
+        while (position + BOX_HEADER_SIZE <= trak.end) {
+            Box box = readBox(position, trak.end);
+            if (box.type.equals("tkhd")) {
+                ByteBuffer tkhd = readContent(box);
+                requireSize(tkhd, 1, box);
+                // width and height is 16.16 fixed point numbers last in the box
+                int sizeOffset = tkhd.get(0) == 1 ? 88 : 76;
+                if (tkhd.limit() >= sizeOffset + 8) {
+                    width = tkhd.getInt(sizeOffset) >>> 16;
+                    height = tkhd.getInt(sizeOffset + 4) >>> 16;
+                }
+            } else if (box.type.equals("mdia")) {
+                long mdiaPosition = box.contentStart;
+                while (mdiaPosition + BOX_HEADER_SIZE <= box.end) {
+                    Box mdiaChild = readBox(mdiaPosition, box.end);
+                    if (mdiaChild.type.equals("mdhd")) {
+                        ByteBuffer mdhd = readContent(mdiaChild);
+                        requireSize(mdhd, mdhd.limit() > 0 && mdhd.get(0) == 1 ? 32 : 20, mdiaChild);
+                        if (mdhd.get(0) == 1) {
+                            timescale = mdhd.getInt(20) & 0xFFFFFFFFL;
+                            duration = mdhd.getLong(24);
+                        } else {
+                            timescale = mdhd.getInt(12) & 0xFFFFFFFFL;
+                            duration = mdhd.getInt(16) & 0xFFFFFFFFL;
+                        }
+                    } else if (mdiaChild.type.equals("hdlr")) {
+                        ByteBuffer hdlr = readContent(mdiaChild);
+                        isVideo = hdlr.limit() >= 12 && fourcc(hdlr.getInt(8)).equals("vide");
+                    } else if (mdiaChild.type.equals("minf")) {
+                        sampleCount = readSampleCount(mdiaChild);
+                    }
+                    mdiaPosition = mdiaChild.end;
+                }
+            }
+            position = box.end;
+        }
+
+        if (!isVideo)
+            return;
+        videoTrackFound = true;
+        if (width > 0 && height > 0)
+            properties.setResolution(width, height);
+        if (timescale != 0 && duration > 0 && sampleCount > 0)
+            properties.setFramesPerSecond(sampleCount * (double) timescale / duration);
+    }
+
+    /**
+     * Counts the samples in the minf/stbl/stts box of a track
+     *
+     * @return the number of samples or 0 if the count could not be found
+     */
+    private long readSampleCount(Box minf) throws IOException {
+        long position = minf.contentStart;
+        while (position + BOX_HEADER_SIZE <= minf.end) {
+            Box box = readBox(position, minf.end);
+            if (box.type.equals("stbl")) {
+                long stblPosition = box.contentStart;
+                while (stblPosition + BOX_HEADER_SIZE <= box.end) {
+                    Box stblChild = readBox(stblPosition, box.end);
+                    if (stblChild.type.equals("stts")) {
+                        // version and flags, entry count and then pairs of sample count and sample duration
+                        ByteBuffer stts = readContent(stblChild);
+                        requireSize(stts, 8, stblChild);
+                        int entries = stts.getInt(4);
+                        long samples = 0;
+                        for (int i = 0; i < entries && 16 + i * 8 <= stts.limit(); i++) {
+                            samples += stts.getInt(8 + i * 8) & 0xFFFFFFFFL;
+                        }
+                        return samples;
+                    }
+                    stblPosition = stblChild.end;
+                }
+            }
+            position = box.end;
+        }
+        return 0;
+    }
+
+    /**
+     * Reads the keys and ilst boxes in a meta box and adds the tags to target
+     */
+    private void readMeta(Box meta, List<Pair<String, String>> target) throws IOException {
+        // In MP4 files meta has version and flags before the children, in MOV files it does not.
+        // Version and flags is always zero and a child box can not have the size zero so check the first four bytes.
+        long position = meta.contentStart;
+        if (meta.end - position >= 4 && readFully(channel, position, 4).getInt(0) == 0)
+            position += 4;
+
+        List<String> keys = null;
+        ByteBuffer ilst = null;
+        while (position + BOX_HEADER_SIZE <= meta.end) {
+            Box box = readBox(position, meta.end);
+            if (box.type.equals("keys")) {
+                keys = readKeys(readContent(box));
+            } else if (box.type.equals("ilst")) {
+                ilst = readContent(box);
+            }
+            position = box.end;
+        }
+        if (ilst != null)
+            readItemList(ilst, keys, target);
+    }
+
+    /**
+     * Reads the key names in a keys box, the items in ilst refers to them with 1-based indexes
+     */
+    private static List<String> readKeys(ByteBuffer keysBox) throws IOException {
+        if (keysBox.limit() < 8)
+            throw new IOException("The keys box is too small");
+        keysBox.position(4); // version and flags
+        int count = keysBox.getInt();
+        List<String> keys = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            if (keysBox.remaining() < 4)
+                throw new IOException("The keys box has fewer keys than its count");
+            int size = keysBox.getInt();
+            if (size < 8 || size - 4 > keysBox.remaining())
+                throw new IOException("Invalid key size in keys box");
+            keysBox.getInt(); // namespace, normally mdta
+            byte[] name = new byte[size - 8];
+            keysBox.get(name);
+            keys.add(new String(name, StandardCharsets.UTF_8));
+        }
+        return keys;
+    }
+
+    /**
+     * Reads all items in a ilst box
+     *
+     * @param keys the keys for keyed metadata or null if the items are named with four-character codes
+     */
+    private static void readItemList(ByteBuffer ilst, List<String> keys, List<Pair<String, String>> target)
+            throws IOException {
+        while (ilst.remaining() >= BOX_HEADER_SIZE) {
+            int itemStart = ilst.position();
+            int itemSize = ilst.getInt();
+            int itemType = ilst.getInt();
+            if (itemSize < BOX_HEADER_SIZE || itemSize > ilst.limit() - itemStart)
+                throw new IOException("Invalid item size in ilst box");
+
+            String name;
+            if (keys != null) {
+                if (itemType < 1 || itemType > keys.size())
+                    throw new IOException("Metadata item refers to a key that does not exist");
+                name = keys.get(itemType - 1);
+            } else {
+                name = MetaDataNamesMapping.tryConvertIntToFriendlyName(itemType);
+            }
+
+            // Find the first data box in the item
+            int position = ilst.position();
+            int itemEnd = itemStart + itemSize;
+            while (position + BOX_HEADER_SIZE <= itemEnd) {
+                int dataSize = ilst.getInt(position);
+                if (dataSize < BOX_HEADER_SIZE || dataSize > itemEnd - position)
+                    throw new IOException("Invalid box size in metadata item");
+                if (fourcc(ilst.getInt(position + 4)).equals("data") && dataSize >= 16) {
+                    int dataType = ilst.getInt(position + 8) & 0xFFFFFF; // first byte is version
+                    byte[] value = new byte[dataSize - 16]; // after type and locale
+                    ByteBuffer valueBuffer = ilst.duplicate();
+                    valueBuffer.position(position + 16);
+                    valueBuffer.get(value);
+                    target.add(new Pair<>(name, valueToString(dataType, value)));
+                    break;
+                }
+                position += dataSize;
+            }
+            ilst.position(itemEnd);
+        }
+    }
+
+    /**
+     * Converts a metadata value to text the same way as jcodec's MetaValue.toString()
+     */
+    private static String valueToString(int type, byte[] value) {
+        switch (type) {
+            case TYPE_UTF8:
+                return new String(value, StandardCharsets.UTF_8);
+            case TYPE_UTF16:
+                return new String(value, StandardCharsets.UTF_16BE);
+            case TYPE_FLOAT_32:
+                if (value.length == 4)
+                    return String.valueOf((double) ByteBuffer.wrap(value).getFloat());
+                break;
+            case TYPE_FLOAT_64:
+                if (value.length == 8)
+                    return String.valueOf(ByteBuffer.wrap(value).getDouble());
+                break;
+            case TYPE_SIGNED_INT:
+            case TYPE_UNSIGNED_INT:
+            case TYPE_INT_8:
+            case TYPE_INT_16:
+            case TYPE_INT_32:
+            case TYPE_UINT_8:
+            case TYPE_UINT_16:
+            case TYPE_UINT_32:
+                if (value.length >= 1 && value.length <= 4) {
+                    int number = 0;
+                    for (byte b : value) {
+                        number = (number << 8) | (b & 0xFF);
+                    }
+                    if (type == TYPE_SIGNED_INT || type == TYPE_INT_8 || type == TYPE_INT_16 || type == TYPE_INT_32) {
+                        // sign extend values shorter than 4 bytes
+                        int unusedBits = 32 - 8 * value.length;
+                        number = (number << unusedBits) >> unusedBits;
+                    }
+                    return String.valueOf(number);
+                }
+                break;
+            default:
+        }
+        return "BLOB";
+    }
+
+    /**
+     * Reads the content of box, excluding the header, to memory
+     */
+    private ByteBuffer readContent(Box box) throws IOException {
+        long size = box.end - box.contentStart;
+        if (size > MAX_META_BOX_SIZE)
+            throw new IOException("The " + box.type + " box is too large");
+        return readFully(channel, box.contentStart, (int) size);
+    }
+
+    private static void requireSize(ByteBuffer content, int size, Box box) throws IOException {
+        if (content.limit() < size)
+            throw new IOException("The " + box.type + " box is too small");
+    }
+
+    private static ByteBuffer readFully(FileChannel channel, long position, int size) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + buffer.position());
+            if (read == -1)
+                throw new IOException("Unexpected end of file");
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    private static String fourcc(int code) {
+        return MetaDataNamesMapping.convertIntToFourcc(code);
+    }
+}
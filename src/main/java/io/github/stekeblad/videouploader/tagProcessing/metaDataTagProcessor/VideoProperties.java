@@ -0,0 +1,84 @@
+package io.github.stekeblad.videouploader.tagProcessing.metaDataTagProcessor;
+
+/**
+ * Technical properties of a video file, found by the same scan of the container headers as the metadata.
+ * Properties that could not be found are zero, check with the has-methods before using them.
+ */
+public class VideoProperties {
+    private double durationSeconds = 0;
+    private int width = 0;
+    private int height = 0;
+    private double framesPerSecond = 0;
+    // milliseconds since 1970-01-01 UTC
+    private long recordedTime = 0;
+
+    VideoProperties() {
+    }
+
+    VideoProperties(double durationSeconds, int width, int height, double framesPerSecond, long recordedTime) {
+        this.durationSeconds = durationSeconds;
+        this.width = width;
+        this.height = height;
+        this.framesPerSecond = framesPerSecond;
+        this.recordedTime = recordedTime;
+    }
+
+    public boolean hasDuration() {
+        return durationSeconds > 0;
+    }
+
+    /**
+     * @return the length of the video in seconds
+     */
+    public double getDurationSeconds() {
+        return durationSeconds;
+    }
+
+    void setDurationSeconds(double durationSeconds) {
+        this.durationSeconds = durationSeconds;
+    }
+
+    public boolean hasResolution() {
+        return width > 0 && height > 0;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    void setResolution(int width, int height) {
+        this.width = width;
+        this.height = height;
+    }
+
+    public boolean hasFramesPerSecond() {
+        return framesPerSecond > 0;
+    }
+
+    public double getFramesPerSecond() {
+        return framesPerSecond;
+    }
+
+    void setFramesPerSecond(double framesPerSecond) {
+        this.framesPerSecond = framesPerSecond;
+    }
+
+    public boolean hasRecordedTime() {
+        return recordedTime != 0;
+    }
+
+    /**
+     * @return the time the recording was made according to the container, milliseconds since 1970-01-01 UTC
+     */
+    public long getRecordedTime() {
+        return recordedTime;
+    }
+
+    void setRecordedTime(long recordedTime) {
+        this.recordedTime = recordedTime;
+    }
+}
@@ -1,6 +1,8 @@
 package io.github.stekeblad.videouploader.utils;
 
 import io.github.stekeblad.videouploader.jfxExtension.WindowFrame;
+import io.github.stekeblad.videouploader.utils.background.WriteBehind;
+import io.github.stekeblad.videouploader.youtube.VideoPreset;
 
 import java.io.*;
 import java.nio.file.Files;
@@ -19,7 +21,7 @@ public enum ConfigManager {
 
     private Path filesPath;
     private Properties mainProp;
-    private HashMap<String, String> presetStringsMap;
+    private PresetStore presetStore;
 
     /**
      * Like a constructor, call this method once before calling any other method in this class anywhere in the project
@@ -47,13 +49,10 @@ public enum ConfigManager {
                 System.err.println("Could not find or create directory for presets!");
                 e.printStackTrace();
             }
-            // just initialize presetStringsMap
-            presetStringsMap = new HashMap<>();
-        } else { // do not attempt to load presets if presets directory did not exist
-
-            ArrayList<String> presetNames = loadSavedPresetNamesList();
-            loadSavedPresets(presetNames);
         }
+        // Only the index is read here, the presets is read when they are needed
+        presetStore = new PresetStore();
+        presetStore.load();
 
         if (!Files.exists(waitingUploadsPath)) {
             try {
@@ -124,26 +123,19 @@ public enum ConfigManager {
     }
 
     /**
-     * Saves the properties to the settings.properties file
+     * Saves the properties to the settings.properties file. The file is written in the background a short time later,
+     * with the properties as they are then, so many changes in a row is only written once.
      */
     public void saveSettings() {
-        OutputStream output = null;
-        try {
-            output = new FileOutputStream(filesPath + "/settings.properties");
-            mainProp.store(output, "main settings file for Stekeblads Video Uploader");
-        } catch (FileNotFoundException e) {
-            System.err.println("File is not a file or do not have permission to create settings file");
-        } catch (IOException e) {
-            System.err.println("Error writing settings to file");
-        } finally {
-            if (output != null) {
-                try {
-                    output.close();
-                } catch (IOException e) {
-                    e.printStackTrace();
-                }
+        WriteBehind.INSTANCE.write(Paths.get(filesPath + "/settings.properties"), () -> {
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            try {
+                mainProp.store(output, "main settings file for Stekeblads Video Uploader");
+            } catch (IOException e) {
+                throw new UncheckedIOException("Error writing settings to file", e);
             }
-        }
+            return output.toByteArray();
+        });
     }
 
     // Properties (Set/Get)
@@ -245,68 +237,12 @@ public enum ConfigManager {
     // Presets
 
     /**
-     * Reads the names of all saved presets from disc and return their names
-     * @return a ArrayList with the names of all saved presets
-     */
-    private ArrayList<String> loadSavedPresetNamesList() {
-        ArrayList<String> presetNames = new ArrayList<>();
-        File dir = new File(PRESET_DIR);
-        File[] directoryListing = dir.listFiles();
-        if (directoryListing != null) {
-            for (File preset : directoryListing) {
-                presetNames.add(preset.getName());
-            }
-        }
-        return presetNames;
-    }
-
-    /**
-     * Loads the presets in presetNames from disc
-     * @param presetNames the presets to load
-     */
-    private void loadSavedPresets(ArrayList<String> presetNames) {
-        presetStringsMap = new HashMap<>();
-        for(String presetName : presetNames) {
-            try {
-                presetStringsMap.put(presetName, loadPreset(presetName));
-            } catch (IOException e) {
-                System.err.println("Error reading preset file: \"" + presetName + "\"");
-                e.printStackTrace();
-            }
-        }
-    }
-
-    /**
-     * Loads the preset presetName from disc
-     * @param presetName name of the preset to load
-     * @return the string representation of the preset
-     * @throws IOException if presetName does not exist or could not be accessed
-     */
-    private String loadPreset(String presetName) throws IOException {
-        if (Files.exists(Paths.get(PRESET_DIR + "/" + presetName))) {
-            try {
-                return FileUtils.readAll(PRESET_DIR + "/" + presetName);
-            } catch (IOException e) {
-                throw new IOException("Failed reading preset save file for preset \"" + presetName + "\"", e);
-            }
-        } else {
-            throw new IOException("Preset " + presetName + " does not exist or cant be accessed");
-        }
-    }
-
-    /**
-     * Writes a preset to disc
+     * Writes a preset to disc in the background
      * @param presetName the name of the preset
      * @param stringRepresentation the string representation of the preset.
      */
     public void savePreset(String presetName, String stringRepresentation) {
-        try {
-            FileUtils.writeAll(PRESET_DIR + "/" + presetName, stringRepresentation);
-        } catch (IOException e) {
-            System.err.println("Can not save preset \"" + presetName + "\"");
-            e.printStackTrace();
-        }
-        presetStringsMap.put(presetName, stringRepresentation);
+        presetStore.put(presetName, stringRepresentation);
     }
 
     /**
@@ -316,8 +252,10 @@ public enum ConfigManager {
      */
     public boolean deletePreset(String presetName) {
         Path path = Paths.get(PRESET_DIR + "/" + presetName);
+        // A waiting write would create the file again after it was deleted
+        WriteBehind.INSTANCE.cancel(path);
         if (!Files.exists(path)) {
-            presetStringsMap.remove(presetName);
+            presetStore.remove(presetName);
             return true; //does not exist, job already done
         }
         try {
@@ -326,46 +264,63 @@ public enum ConfigManager {
             e.printStackTrace();
             return false;
         }
-        presetStringsMap.remove(presetName);
+        presetStore.remove(presetName);
         return true;
     }
 
     /**
      *
-     * @return a ArrayList with the names of all loaded presets.
+     * @return a ArrayList with the names of all saved presets.
      */
     public ArrayList<String> getPresetNames() {
-        if(presetStringsMap != null) {
-            return new ArrayList<>(presetStringsMap.keySet());
+        if (presetStore != null) {
+            return presetStore.getNames();
         }
         return null;
     }
 
     /**
-     *
-     * @param presetName the name of a loaded preset
+     * The preset is read from disc the first time it is requested, the most recently used presets is kept in memory.
+     * Presets saved by older versions of the program is saved again in the current format the first time they are read.
+     * @param presetName the name of a saved preset
      * @return the string representation of that preset or null if it does not exist
      */
     public String getPresetString(String presetName) {
-        if (presetStringsMap != null) {
-            return presetStringsMap.getOrDefault(presetName, null);
+        if (presetStore == null)
+            return null;
+        String presetString = presetStore.get(presetName);
+        if (presetString == null || RecordReader.isCurrentVersion(presetString))
+            return presetString;
+        try {
+            String migrated = new VideoPreset(presetString, "migration").toString();
+            presetStore.put(presetName, migrated);
+            return migrated;
+        } catch (Exception e) {
+            // Return it as it is, the old format can still be read
+            System.err.println("Failed to save preset \"" + presetName + "\" in the current format");
+            e.printStackTrace();
+            return presetString;
+        }
+    }
+
+    /**
+     * Saves the time the preset was used in the preset index
+     * @param presetName the name of the preset that was applied to videos
+     */
+    public void markPresetUsed(String presetName) {
+        if (presetStore != null) {
+            presetStore.markUsed(presetName);
         }
-        return null;
     }
 
     // Playlists
 
     /**
-     * Writes the list of playlists to disc
+     * Writes the list of playlists to disc in the background
      * @param playlistData the playlist data to save
      */
     public void savePlaylistCache(String playlistData) {
-        try {
-            FileUtils.writeAll(PLAYLIST_FILE, playlistData);
-        } catch (IOException e) {
-            System.err.println("Could not save playlists to file");
-            e.printStackTrace();
-        }
+        WriteBehind.INSTANCE.write(Paths.get(PLAYLIST_FILE), playlistData);
     }
 
     /**
@@ -374,6 +329,7 @@ public enum ConfigManager {
      */
     public ArrayList<String> loadPlaylistCache() {
         ArrayList<String> playlistString = null;
+        WriteBehind.INSTANCE.flush(); // in case the playlists was just saved
         try {
             // if cache file does not exist, try create it and return null
             if (!Files.exists(Paths.get(PLAYLIST_FILE))) {
@@ -406,28 +362,47 @@ public enum ConfigManager {
     }
 
     /**
+     * Reads the saved uploads without deleting them. Delete every upload with deleteWaitingUpload when it has been
+     * added back to the uploads list, so it is not lost if the program is closed before that.
      *
-     * @return a list of string representations of uploads that was saved
+     * @return file name -> string representation of the upload saved in that file, or null if there is no saved uploads
      */
-    public ArrayList<String> getWaitingUploads() {
+    public LinkedHashMap<String, String> getWaitingUploads() {
         File dir = new File(UPLOAD_DIR);
         File[] directoryListing = dir.listFiles();
         if(directoryListing == null) {
             return null;
         }
-        ArrayList<String> uploads = new ArrayList<>();
+        LinkedHashMap<String, String> uploads = new LinkedHashMap<>();
         for (File waitingUpload : directoryListing) {
+            if (FileUtils.isTempFile(waitingUpload)) {
+                continue; // left by a crash while writing, the upload was not saved
+            }
             String loaded = loadWaitingUploadsFile(waitingUpload);
             if (loaded != null) {
-                uploads.add(loaded);
-            }
-            if(! waitingUpload.delete()) {
-                System.err.println("Failed to delete: " + waitingUpload.getAbsolutePath());
+                uploads.put(waitingUpload.getName(), loaded);
             }
         }
         return uploads;
     }
 
+    /**
+     * Deletes a saved upload from disc, used when it has been added back to the uploads list
+     *
+     * @param fileName the name of the file the upload is saved in, a key in the map from getWaitingUploads
+     */
+    public void deleteWaitingUpload(String fileName) {
+        Path path = Paths.get(UPLOAD_DIR + "/" + fileName);
+        // A waiting write would create the file again after it was deleted
+        WriteBehind.INSTANCE.cancel(path);
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            System.err.println("Failed to delete: " + path.toAbsolutePath());
+            e.printStackTrace();
+        }
+    }
+
     /**
      * Save waiting uploads to disc so they can be recreate next time.
      * @param waitingUpload string representation of the upload to save
@@ -435,12 +410,8 @@ public enum ConfigManager {
      *                 to the caller to make sure a previously saved upload is not overwritten.
      */
     public void saveWaitingUpload(String waitingUpload, String fileName) {
-        try {
-            FileUtils.writeAll(UPLOAD_DIR + "/" + fileName, waitingUpload);
-        } catch (IOException e) {
-            System.err.println("Failed saving waiting upload \"" + fileName + "\"");
-            e.printStackTrace();
-        }
+        // The uploads is saved when the program is closing, the waiting write is done when the program exits
+        WriteBehind.INSTANCE.write(Paths.get(UPLOAD_DIR + "/" + fileName), waitingUpload);
     }
 
     /**
@@ -461,16 +432,11 @@ public enum ConfigManager {
     // Categories
 
     /**
-     * Writes categoryData to the categories file
+     * Writes categoryData to the categories file in the background
      * @param categoryData information about categories that should be saved
      */
     public void saveLocalizedCategories(String categoryData) {
-        try {
-            FileUtils.writeAll(CATEGORIES_FILE, categoryData);
-        } catch (IOException e) {
-            System.err.println("Could not save categories");
-            e.printStackTrace();
-        }
+        WriteBehind.INSTANCE.write(Paths.get(CATEGORIES_FILE), categoryData);
     }
 
     /**
@@ -478,6 +444,7 @@ public enum ConfigManager {
      * @return the content of the categories file with one line per element in the ArrayList
      */
     public ArrayList<String> loadLocalizedCategories() {
+        WriteBehind.INSTANCE.flush(); // in case the categories was just saved
         try {
             if (!Files.exists(Paths.get(CATEGORIES_FILE))) {
                 Files.createFile(Paths.get(CATEGORIES_FILE));
@@ -6,9 +6,12 @@ public class Constants {
     public static final String DATA_DIR = "VideoUploader data";
     public static final String AUTH_DIR = DATA_DIR + "/.auth";
     public static final String PRESET_DIR = DATA_DIR + "/presets";
+    public static final String PRESET_INDEX_FILE = DATA_DIR + "/preset index";
     public static final String UPLOAD_DIR = DATA_DIR + "/waiting uploads";
     public static final String PLAYLIST_FILE = DATA_DIR + "/playlist";
     public static final String CATEGORIES_FILE = DATA_DIR + "/categories";
+    public static final String THUMBNAIL_CACHE_DIR = DATA_DIR + "/thumbnail cache";
+    public static final String METADATA_CACHE_DIR = DATA_DIR + "/metadata cache";
 
     public static final String BUTTON_EDIT = "_buttonEdit";
     public static final String BUTTON_SAVE = "_buttonSave";
@@ -10,6 +10,11 @@ import java.math.RoundingMode;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CodingErrorAction;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.FileSystem;
 import java.nio.file.*;
@@ -24,6 +29,9 @@ import java.util.jar.JarFile;
 public class FileUtils {
 
     private static final String VIDEO_FILE_FORMAT = "video/";
+    private static final String TEMP_FILE_SUFFIX = ".writing";
+    // The encoding files was written with before version 1.4.1
+    private static final Charset LEGACY_CHARSET = Charset.defaultCharset();
 
     /**
      * Thumbnail chooser dialog. Only allows files of the specified types
@@ -210,8 +218,8 @@ public class FileUtils {
     }
 
     /**
-     * Attempts to read an entire file and returns a list with one line from the file per item.
-     * This method makes sure the file stream is closed even if an IO Exception is thrown.
+     * Reads an entire file and returns a list with one line from the file per item. Lines can end with \n, \r\n or \r,
+     * the line endings is not included in the lines. The file is read and decoded like in readAll.
      *
      * @param path path of the file to read
      * @return An ArrayList with strings where each item in the list represents one line in the file
@@ -219,55 +227,27 @@ public class FileUtils {
      * @throws NullPointerException if path is null
      */
     public static ArrayList<String> readAllLines(String path) throws IOException {
-        // Attempt to read file as UTF-8 (added in version 1.4.1)
-        ArrayList<String> result = null;
-        try {
-            result = innerReadAllLines(path, true);
-        } catch (IOException e) {
-            // But that may not work for old files that uses characters outside ASCII, so try again with old format
-            if (e.getMessage().equals("Bad character encoding!"))
-                result = innerReadAllLines(path, false);
-        }
-        return result;
-    }
-
-    private static ArrayList<String> innerReadAllLines(String path, boolean useUtf8) throws IOException {
-        BufferedReader reader = null;
+        String content = readAll(path);
         ArrayList<String> lines = new ArrayList<>();
-        try {
-            if (useUtf8) {
-                reader = new BufferedReader(new InputStreamReader(
-                        new FileInputStream(new File(path)), StandardCharsets.UTF_8));
-            } else {
-                reader = reader = new BufferedReader(new FileReader(new File(path)));
-            }
-
-            String line = reader.readLine();
-            while (line != null) { // while not end of file
-                lines.add(line);
-                line = reader.readLine();
-            }
-        } finally {
-            if (reader != null) {
-                try {
-                    reader.close();
-                } catch (Exception e) {
-                    e.printStackTrace();
-                }
+        int lineStart = 0;
+        for (int i = 0; i < content.length(); i++) {
+            char c = content.charAt(i);
+            if (c == '\n' || c == '\r') {
+                lines.add(content.substring(lineStart, i));
+                if (c == '\r' && i + 1 < content.length() && content.charAt(i + 1) == '\n')
+                    i++;
+                lineStart = i + 1;
             }
         }
-        if (useUtf8) {
-            for (String l : lines) {
-                if (l.contains("\ufffd"))
-                    throw new IOException("Bad character encoding!");
-            }
+        if (lineStart < content.length()) {
+            lines.add(content.substring(lineStart)); // last line without a line ending
         }
         return lines;
     }
 
     /**
-     * Attempts to read an entire file and returns it as a long string.
-     * This method makes sure the file stream is closed even if an IO Exception is thrown.
+     * Reads an entire file and returns it as a long string, exactly as it is in the file including line endings.
+     * The file is only read once, see decode(byte[]) for how the character encoding is decided.
      *
      * @param path path of the file to read
      * @return A string with the entire content of the file at the given path
@@ -275,51 +255,28 @@ public class FileUtils {
      * @throws NullPointerException if path is null
      */
     public static String readAll(String path) throws IOException {
-        // Attempt to read file as UTF-8 (added in version 1.4.1)
-        String result = null;
-        try {
-            result = innerReadAll(path, true);
-        } catch (IOException e) {
-            // But that may not work for old files that uses characters outside ASCII, so try again with old format
-            if (e.getMessage().equals("Bad character encoding!"))
-                result = innerReadAll(path, false);
-        }
-        return result;
+        return decode(Files.readAllBytes(Paths.get(path)));
     }
 
-    private static String innerReadAll(String path, boolean useUtf8) throws IOException {
-        BufferedReader reader = null;
-        StringBuilder builder = new StringBuilder();
+    /**
+     * Decodes the content of a file written by the program. Files is written as UTF-8 since version 1.4.1, but files
+     * from older versions uses the platform's default encoding. The bytes is decoded as UTF-8 and if they are not
+     * valid UTF-8 the same bytes is decoded again with the old encoding, without reading the file again.
+     *
+     * @param bytes the content of a file
+     * @return the decoded content
+     */
+    static String decode(byte[] bytes) {
         try {
-            if (useUtf8) {
-                reader = new BufferedReader(new InputStreamReader(
-                        new FileInputStream(new File(path)), StandardCharsets.UTF_8));
-            } else {
-                reader = reader = new BufferedReader(new FileReader(new File(path)));
-            }
-
-            String line = reader.readLine();
-            while (line != null) { // while not end of file
-                builder.append(line);
-                line = reader.readLine();
-                if (line != null) {
-                    builder.append("\n"); // do not end the last line with '\n'
-                }
-            }
-        } finally {
-            if (reader != null) {
-                try {
-                    reader.close();
-                } catch (Exception e) {
-                    e.printStackTrace();
-                }
-            }
+            return StandardCharsets.UTF_8.newDecoder()
+                    .onMalformedInput(CodingErrorAction.REPORT)
+                    .onUnmappableCharacter(CodingErrorAction.REPORT)
+                    .decode(ByteBuffer.wrap(bytes))
+                    .toString();
+        } catch (CharacterCodingException e) {
+            // Not UTF-8, an old file. Decode it like FileReader did before the change to UTF-8
+            return new String(bytes, LEGACY_CHARSET);
         }
-
-        if (useUtf8 && builder.toString().contains("\ufffd"))
-            throw new IOException("Bad character encoding!");
-
-        return builder.toString();
     }
 
     /**
@@ -348,6 +305,45 @@ public class FileUtils {
         }
     }
 
+    /**
+     * Replaces the content of a file without ever leaving a half written file. The data is written to a temporary file
+     * in the same directory, forced to the disc and then moved over the old file. If the program or computer crashes
+     * the file has either the old or the new content.
+     *
+     * @param path path of the file to write
+     * @param data the data to write to the file
+     * @throws IOException if the temporary file could not be written or moved
+     */
+    public static void writeAllAtomic(Path path, byte[] data) throws IOException {
+        Path target = path.toAbsolutePath();
+        // Not Files.createTempFile, it would give the file other permissions than a normally created file
+        Path temp = target.resolveSibling("." + target.getFileName() + "." + System.nanoTime() + TEMP_FILE_SUFFIX);
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+                ByteBuffer buffer = ByteBuffer.wrap(data);
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(true);
+            }
+            try {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * @param file a file in a directory written to with writeAllAtomic
+     * @return true if file is a temporary file left by writeAllAtomic, it should be ignored when listing a directory
+     */
+    public static boolean isTempFile(File file) {
+        return file.getName().endsWith(TEMP_FILE_SUFFIX);
+    }
+
     /**
      * Checks if a file is a video and is not larger than size limit
      *
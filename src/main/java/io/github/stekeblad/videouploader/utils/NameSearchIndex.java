@@ -0,0 +1,149 @@
+package io.github.stekeblad.videouploader.utils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * A search index for finding names that contains a text, ignoring case. Every part of one to three characters of
+ * every name is indexed so a search only needs to look at the names that contains the rarest part of the searched text
+ * instead of all names. Names can be added and removed one at a time without rebuilding the index.
+ * <p>
+ * The search results is returned in the order the names was added. All public methods is synchronized so an index
+ * shared by many SearchableComboBoxes can be updated from the background thread that loads the names.
+ */
+public class NameSearchIndex {
+    private static final int MAX_GRAM_LENGTH = 3;
+
+    private int nextId = 0;
+    // name -> id, the ids tells in what order the names was added
+    private final Map<String, Integer> ids = new HashMap<>();
+    private final TreeMap<Integer, String> names = new TreeMap<>();
+    private final Map<Integer, String> lowerCaseNames = new HashMap<>();
+    // part of a name -> ids of all names containing it
+    private final Map<String, TreeSet<Integer>> grams = new HashMap<>();
+
+    /**
+     * Adds a name to the index, does nothing if it is already there
+     *
+     * @param name the name to add
+     */
+    public synchronized void add(String name) {
+        if (name == null || ids.containsKey(name))
+            return;
+        int id = nextId++;
+        String lowerCase = normalize(name);
+        ids.put(name, id);
+        names.put(id, name);
+        lowerCaseNames.put(id, lowerCase);
+        for (String gram : gramsOf(lowerCase)) {
+            grams.computeIfAbsent(gram, k -> new TreeSet<>()).add(id);
+        }
+    }
+
+    /**
+     * Removes a name from the index, does nothing if it is not there
+     *
+     * @param name the name to remove
+     */
+    public synchronized void remove(String name) {
+        Integer id = ids.remove(name);
+        if (id == null)
+            return;
+        names.remove(id);
+        for (String gram : gramsOf(lowerCaseNames.remove(id))) {
+            TreeSet<Integer> gramIds = grams.get(gram);
+            if (gramIds != null) {
+                gramIds.remove(id);
+                if (gramIds.isEmpty())
+                    grams.remove(gram);
+            }
+        }
+    }
+
+    /**
+     * Makes the index contain exactly the names in newNames. Only the names that differs is added or removed.
+     *
+     * @param newNames the names that should be in the index
+     */
+    public synchronized void setAll(Collection<String> newNames) {
+        Set<String> wanted = new HashSet<>(newNames);
+        for (String oldName : new ArrayList<>(ids.keySet())) {
+            if (!wanted.contains(oldName))
+                remove(oldName);
+        }
+        for (String newName : newNames) {
+            add(newName);
+        }
+    }
+
+    /**
+     * @param name a name
+     * @return true if the name is in the index
+     */
+    public synchronized boolean contains(String name) {
+        return ids.containsKey(name);
+    }
+
+    /**
+     * Finds all names that contains text, ignoring case
+     *
+     * @param text the text to search for
+     * @return the matching names in the order they was added, all names if text is empty
+     */
+    public synchronized List<String> search(String text) {
+        if (text == null || text.isEmpty())
+            return new ArrayList<>(names.values());
+
+        String query = normalize(text);
+        if (query.length() <= MAX_GRAM_LENGTH) {
+            // All parts this short is indexed, the ids is exactly the matching names
+            return namesOf(grams.getOrDefault(query, new TreeSet<>()), null);
+        }
+
+        // Use the part of the query that is in the fewest names and check the full query on them
+        TreeSet<Integer> candidates = null;
+        for (int i = 0; i + MAX_GRAM_LENGTH <= query.length(); i++) {
+            TreeSet<Integer> gramIds = grams.get(query.substring(i, i + MAX_GRAM_LENGTH));
+            if (gramIds == null)
+                return Collections.emptyList();
+            if (candidates == null || gramIds.size() < candidates.size())
+                candidates = gramIds;
+        }
+        return namesOf(candidates, query);
+    }
+
+    private List<String> namesOf(TreeSet<Integer> gramIds, String mustContain) {
+        List<String> result = new ArrayList<>();
+        for (Integer id : gramIds) {
+            if (mustContain == null || lowerCaseNames.get(id).contains(mustContain))
+                result.add(names.get(id));
+        }
+        return result;
+    }
+
+    /**
+     * @return all parts of one to MAX_GRAM_LENGTH characters in text
+     */
+    private static List<String> gramsOf(String text) {
+        List<String> result = new ArrayList<>();
+        for (int length = 1; length <= MAX_GRAM_LENGTH; length++) {
+            for (int i = 0; i + length <= text.length(); i++) {
+                result.add(text.substring(i, i + length));
+            }
+        }
+        return result;
+    }
+
+    private static String normalize(String text) {
+        return text.toLowerCase(Locale.ROOT);
+    }
+}
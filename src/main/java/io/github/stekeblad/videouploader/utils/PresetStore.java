@@ -0,0 +1,259 @@
+package io.github.stekeblad.videouploader.utils;
+
+import io.github.stekeblad.videouploader.utils.background.WriteBehind;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static io.github.stekeblad.videouploader.utils.Constants.PRESET_DIR;
+import static io.github.stekeblad.videouploader.utils.Constants.PRESET_INDEX_FILE;
+
+/**
+ * Keeps track of the saved presets for ConfigManager without reading all of them at startup. The name, last modified
+ * time, size and last time each preset was used is saved in PRESET_INDEX_FILE and only that file is read when the
+ * program starts. The presets themselves is read the first time they are needed and the most recently used ones is
+ * kept in memory.
+ * <p>
+ * The last modified time of PRESET_DIR is also saved in the index. If presets has been added or removed without
+ * using the program the time is different and the index is rebuilt from the names and attributes of the files,
+ * still without reading them. All methods is synchronized so the store can be used from background threads.
+ */
+class PresetStore {
+    private static final int MAX_CACHED_PRESETS = 32;
+    private static final String INDEX_VERSION = "preset index 1";
+    private static final String SEPARATOR = "\t";
+    // modified and size of a preset that is not written yet
+    private static final long UNKNOWN = -1;
+
+    /**
+     * What the index knows about one preset
+     */
+    private static class IndexEntry {
+        long modified;
+        long size;
+        // milliseconds since 1970, 0 if never used
+        long lastUsed;
+
+        IndexEntry(long modified, long size, long lastUsed) {
+            this.modified = modified;
+            this.size = size;
+            this.lastUsed = lastUsed;
+        }
+    }
+
+    private final Path presetDir = Paths.get(PRESET_DIR);
+    private final Path indexFile = Paths.get(PRESET_INDEX_FILE);
+    // sorted on name so the presets is always listed in the same order
+    private final TreeMap<String, IndexEntry> index = new TreeMap<>();
+    // access-ordered LinkedHashMap, the least recently used preset is removed when the cache is full
+    private final LinkedHashMap<String, String> presetStrings = new LinkedHashMap<String, String>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+            return size() > MAX_CACHED_PRESETS;
+        }
+    };
+
+    /**
+     * Reads the index, or builds it from the files in PRESET_DIR if it is missing or out of date
+     */
+    synchronized void load() {
+        long dirModified = presetDir.toFile().lastModified();
+        if (!readIndex(dirModified)) {
+            rebuildIndex();
+            saveIndex();
+        }
+    }
+
+    /**
+     * @return true if the index could be read and is up to date with PRESET_DIR
+     */
+    private boolean readIndex(long dirModified) {
+        if (!Files.isRegularFile(indexFile))
+            return false;
+        try (BufferedReader reader = Files.newBufferedReader(indexFile, StandardCharsets.UTF_8)) {
+            if (!INDEX_VERSION.equals(reader.readLine()))
+                return false;
+            String dirLine = reader.readLine();
+            if (dirLine == null)
+                return false;
+            // The entries is read even if the index is out of date so rebuildIndex can keep the last used times
+            index.clear();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                // the name is last so it can contain the separator
+                String[] parts = line.split(SEPARATOR, 4);
+                if (parts.length != 4)
+                    return false;
+                index.put(parts[3], new IndexEntry(Long.parseLong(parts[0]), Long.parseLong(parts[1]),
+                        Long.parseLong(parts[2])));
+            }
+            return Long.parseLong(dirLine) == dirModified;
+        } catch (IOException | NumberFormatException e) {
+            System.err.println("Failed to read the preset index, it will be recreated");
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    /**
+     * Builds the index from the names and attributes of the files in PRESET_DIR. The last used times is kept for
+     * presets that was in the old index.
+     */
+    private void rebuildIndex() {
+        Map<String, IndexEntry> old = new HashMap<>(index);
+        index.clear();
+        presetStrings.clear();
+        try (DirectoryStream<Path> presetFiles = Files.newDirectoryStream(presetDir)) {
+            for (Path presetFile : presetFiles) {
+                BasicFileAttributes attributes = Files.readAttributes(presetFile, BasicFileAttributes.class);
+                if (!attributes.isRegularFile() || FileUtils.isTempFile(presetFile.toFile()))
+                    continue;
+                String name = presetFile.getFileName().toString();
+                IndexEntry oldEntry = old.get(name);
+                index.put(name, new IndexEntry(attributes.lastModifiedTime().toMillis(), attributes.size(),
+                        oldEntry == null ? 0 : oldEntry.lastUsed));
+            }
+        } catch (IOException e) {
+            System.err.println("Could not list the saved presets");
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Schedules the index to be written to PRESET_INDEX_FILE. It is written after the presets saved before it so the
+     * saved time of PRESET_DIR includes them. A failure is only logged, the index is rebuilt on the next start.
+     */
+    private void saveIndex() {
+        WriteBehind.INSTANCE.write(indexFile, this::indexContent);
+    }
+
+    /**
+     * Called by WriteBehind when the index is written
+     *
+     * @return the content of the index file
+     */
+    private synchronized byte[] indexContent() {
+        StringBuilder content = new StringBuilder();
+        content.append(INDEX_VERSION).append('\n');
+        content.append(presetDir.toFile().lastModified()).append('\n');
+        for (Map.Entry<String, IndexEntry> entry : index.entrySet()) {
+            IndexEntry value = entry.getValue();
+            if (value.modified == UNKNOWN) {
+                // saved after the preset file was written, the file attributes is known now
+                File presetFile = presetDir.resolve(entry.getKey()).toFile();
+                if (presetFile.isFile()) {
+                    value.modified = presetFile.lastModified();
+                    value.size = presetFile.length();
+                }
+            }
+            content.append(value.modified).append(SEPARATOR).append(value.size).append(SEPARATOR)
+                    .append(value.lastUsed).append(SEPARATOR).append(entry.getKey()).append('\n');
+        }
+        return content.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @return the names of all saved presets, sorted
+     */
+    synchronized ArrayList<String> getNames() {
+        return new ArrayList<>(index.keySet());
+    }
+
+    /**
+     * Gets the string representation of a preset, reads it from disc if it is not in memory
+     *
+     * @param presetName the name of a saved preset
+     * @return the string representation of the preset or null if it does not exist or could not be read
+     */
+    synchronized String get(String presetName) {
+        String presetString = presetStrings.get(presetName);
+        if (presetString != null || !index.containsKey(presetName))
+            return presetString;
+
+        File presetFile = presetDir.resolve(presetName).toFile();
+        byte[] pending = WriteBehind.INSTANCE.getPending(presetFile.toPath());
+        if (pending != null) {
+            // saved but not written yet
+            presetString = new String(pending, StandardCharsets.UTF_8);
+            presetStrings.put(presetName, presetString);
+            return presetString;
+        }
+        if (!presetFile.isFile()) {
+            // removed without using the program
+            index.remove(presetName);
+            saveIndex();
+            return null;
+        }
+        try {
+            presetString = FileUtils.readAll(presetFile.getPath());
+        } catch (IOException e) {
+            System.err.println("Error reading preset file: \"" + presetName + "\"");
+            e.printStackTrace();
+            return null;
+        }
+        if (presetString == null)
+            return null;
+        presetStrings.put(presetName, presetString);
+
+        // Update the index if the file was changed without using the program
+        IndexEntry entry = index.get(presetName);
+        if (entry.modified != UNKNOWN &&
+                (entry.modified != presetFile.lastModified() || entry.size != presetFile.length())) {
+            entry.modified = presetFile.lastModified();
+            entry.size = presetFile.length();
+            saveIndex();
+        }
+        return presetString;
+    }
+
+    /**
+     * Updates the index and schedules the preset to be written to disc in the background
+     *
+     * @param presetName           the name of the preset
+     * @param stringRepresentation the string representation of the preset
+     */
+    synchronized void put(String presetName, String stringRepresentation) {
+        WriteBehind.INSTANCE.write(presetDir.resolve(presetName), stringRepresentation);
+        IndexEntry old = index.get(presetName);
+        // The time and size is read when the index is written, after the preset
+        index.put(presetName, new IndexEntry(UNKNOWN, UNKNOWN, old == null ? 0 : old.lastUsed));
+        presetStrings.put(presetName, stringRepresentation);
+        saveIndex();
+    }
+
+    /**
+     * Removes a preset from the index, the caller deletes the file
+     *
+     * @param presetName the name of the preset
+     */
+    synchronized void remove(String presetName) {
+        presetStrings.remove(presetName);
+        if (index.remove(presetName) != null)
+            saveIndex();
+    }
+
+    /**
+     * Remembers that a preset was used now
+     *
+     * @param presetName the name of the preset
+     */
+    synchronized void markUsed(String presetName) {
+        IndexEntry entry = index.get(presetName);
+        if (entry == null)
+            return;
+        entry.lastUsed = System.currentTimeMillis();
+        saveIndex();
+    }
+}
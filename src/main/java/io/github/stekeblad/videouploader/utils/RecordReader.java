@@ -0,0 +1,179 @@
+package io.github.stekeblad.videouploader.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads the fields of a preset or upload written by RecordWriter. The whole string is read in one pass without
+ * splitting it in to lines first, every value is taken directly from its length prefix.
+ * <p>
+ * Presets and uploads saved by older versions of the program does not start with the version line, they is read with
+ * the old format there every line is key:value, the description can continue on the lines after it and lists is
+ * written like [a, b, c]. Use isCurrentVersion to find out if a string should be saved again in the current format.
+ */
+public final class RecordReader {
+    static final String HEADER = "videouploader record ";
+    static final int CURRENT_VERSION = 2;
+    // Version 1 is the format used before the version line was added
+    private static final int LEGACY_VERSION = 1;
+    // The only field that could have newlines in the old format
+    private static final String LEGACY_MULTI_LINE_KEY = "_description";
+
+    private final int version;
+    private final Map<String, String> fields;
+
+    private RecordReader(int version, Map<String, String> fields) {
+        this.version = version;
+        this.fields = fields;
+    }
+
+    /**
+     * @param text a string from RecordWriter or from an older version of the program
+     * @return true if text is written in the current format, false if it should be migrated
+     */
+    public static boolean isCurrentVersion(String text) {
+        return text != null && text.startsWith(HEADER + CURRENT_VERSION + "\n");
+    }
+
+    /**
+     * Reads all fields in text
+     *
+     * @param text a string from RecordWriter or from an older version of the program
+     * @return a RecordReader with the fields in text
+     * @throws Exception if text is not in a known format
+     */
+    public static RecordReader parse(String text) throws Exception {
+        if (text == null)
+            throw new Exception("Can not read a record from null");
+        if (!text.startsWith(HEADER))
+            return new RecordReader(LEGACY_VERSION, parseLegacy(text));
+
+        int headerEnd = text.indexOf('\n');
+        if (headerEnd < 0)
+            throw malformed(text);
+        int version;
+        try {
+            version = Integer.parseInt(text.substring(HEADER.length(), headerEnd));
+        } catch (NumberFormatException e) {
+            throw malformed(text);
+        }
+        if (version != CURRENT_VERSION)
+            throw new Exception("Record has version " + version + ", this version of the program can only read " +
+                    "version " + CURRENT_VERSION + " and older");
+
+        Map<String, String> fields = new HashMap<>();
+        int pos = headerEnd + 1;
+        while (pos < text.length()) {
+            int keyEnd = text.indexOf(':', pos);
+            if (keyEnd < 0)
+                throw malformed(text);
+            int lengthEnd = text.indexOf(':', keyEnd + 1);
+            if (lengthEnd < 0)
+                throw malformed(text);
+            int length;
+            try {
+                length = Integer.parseInt(text.substring(keyEnd + 1, lengthEnd));
+            } catch (NumberFormatException e) {
+                throw malformed(text);
+            }
+            int valueEnd = lengthEnd + 1 + length;
+            // Older versions of FileUtils.readAll removed the newline at the end of the file, so the last value does
+            // not have to be followed by one
+            if (length < 0 || valueEnd > text.length() || (valueEnd < text.length() && text.charAt(valueEnd) != '\n'))
+                throw malformed(text);
+            fields.put(text.substring(pos, keyEnd), text.substring(lengthEnd + 1, valueEnd));
+            pos = valueEnd + 1;
+        }
+        return new RecordReader(CURRENT_VERSION, fields);
+    }
+
+    private static Map<String, String> parseLegacy(String text) throws Exception {
+        Map<String, String> fields = new HashMap<>();
+        // readAll used to turn \r\n in to \n, old files edited on Windows can have them
+        String[] lines = text.split("\r\n|\r|\n");
+        for (int i = 0; i < lines.length; i++) {
+            String line = lines[i];
+            int colonIndex = line.indexOf(':');
+            if (colonIndex < 0)
+                throw malformed(text);
+            String key = line.substring(0, colonIndex);
+            StringBuilder value = new StringBuilder(line.substring(colonIndex + 1));
+            if (key.equals(LEGACY_MULTI_LINE_KEY)) {
+                // As long as the next line not starts with "_" it is a part of the description
+                while (i + 1 < lines.length && !lines[i + 1].startsWith("_")) {
+                    value.append("\n").append(lines[++i]);
+                }
+            }
+            fields.put(key, value.toString());
+        }
+        return fields;
+    }
+
+    private static Exception malformed(String text) {
+        return new Exception("Malformed string representation of class. Input: \n\"" + text + "\"");
+    }
+
+    /**
+     * @return the format version the record was written in, 1 for records from before versions was added
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    /**
+     * @param key the name of a field
+     * @return the value of the field or null if the record does not have it
+     */
+    public String get(String key) {
+        return fields.get(key);
+    }
+
+    /**
+     * @param key the name of a field
+     * @return true if the field has the value true, false if it does not or is missing
+     */
+    public boolean getBoolean(String key) {
+        return Boolean.parseBoolean(fields.get(key));
+    }
+
+    /**
+     * @param key the name of a field written with RecordWriter.writeList
+     * @return the elements of the list or null if the record does not have the field
+     * @throws Exception if the field is not a list
+     */
+    public List<String> getList(String key) throws Exception {
+        String value = fields.get(key);
+        if (value == null)
+            return null;
+        if (version == LEGACY_VERSION) {
+            // written with List.toString(), like [a, b, c]
+            if (value.length() < 2 || value.charAt(0) != '[' || value.charAt(value.length() - 1) != ']')
+                throw new Exception("Field " + key + " is not a list: \"" + value + "\"");
+            value = value.substring(1, value.length() - 1);
+            if (value.isEmpty())
+                return Collections.emptyList();
+            return new ArrayList<>(Arrays.asList(value.split(", ")));
+        }
+
+        List<String> elements = new ArrayList<>();
+        int pos = 0;
+        while (pos < value.length()) {
+            int lengthEnd = value.indexOf(':', pos);
+            int length;
+            try {
+                length = lengthEnd < 0 ? -1 : Integer.parseInt(value.substring(pos, lengthEnd));
+            } catch (NumberFormatException e) {
+                length = -1;
+            }
+            if (length < 0 || lengthEnd + 1 + length > value.length())
+                throw new Exception("Field " + key + " is not a list: \"" + value + "\"");
+            elements.add(value.substring(lengthEnd + 1, lengthEnd + 1 + length));
+            pos = lengthEnd + 1 + length;
+        }
+        return elements;
+    }
+}
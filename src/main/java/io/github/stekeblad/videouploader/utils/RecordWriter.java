@@ -0,0 +1,64 @@
+package io.github.stekeblad.videouploader.utils;
+
+import java.util.List;
+
+/**
+ * Writes the fields of a preset or upload in the format read by RecordReader. Every field is written as
+ * key:length:value followed by a newline, the length is the number of characters in value so the value can contain
+ * newlines, colons or anything else without being escaped. Fields with the value null is not written.
+ * <p>
+ * The first line tells the format version so the format can be changed later without breaking old files.
+ */
+public final class RecordWriter {
+    private final StringBuilder out = new StringBuilder(512);
+
+    public RecordWriter() {
+        out.append(RecordReader.HEADER).append(RecordReader.CURRENT_VERSION).append('\n');
+    }
+
+    /**
+     * @param key   the name of the field
+     * @param value the value of the field, nothing is written if null
+     * @return this RecordWriter
+     */
+    public RecordWriter write(String key, String value) {
+        if (value != null) {
+            out.append(key).append(':').append(value.length()).append(':').append(value).append('\n');
+        }
+        return this;
+    }
+
+    /**
+     * @param key   the name of the field
+     * @param value the value of the field
+     * @return this RecordWriter
+     */
+    public RecordWriter write(String key, boolean value) {
+        return write(key, String.valueOf(value));
+    }
+
+    /**
+     * Writes a list as one field there every element is length prefixed the same way as the field itself
+     *
+     * @param key    the name of the field
+     * @param values the elements of the list, nothing is written if null
+     * @return this RecordWriter
+     */
+    public RecordWriter writeList(String key, List<String> values) {
+        if (values == null)
+            return this;
+        StringBuilder list = new StringBuilder();
+        for (String value : values) {
+            list.append(value.length()).append(':').append(value);
+        }
+        return write(key, list.toString());
+    }
+
+    /**
+     * @return everything that has been written
+     */
+    @Override
+    public String toString() {
+        return out.toString();
+    }
+}
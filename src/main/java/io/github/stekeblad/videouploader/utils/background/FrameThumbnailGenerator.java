@@ -0,0 +1,220 @@
+package io.github.stekeblad.videouploader.utils.background;
+
+import org.jcodec.api.FrameGrab;
+import org.jcodec.api.JCodecException;
+import org.jcodec.common.io.NIOUtils;
+import org.jcodec.common.io.SeekableByteChannel;
+import org.jcodec.common.model.ColorSpace;
+import org.jcodec.common.model.Picture;
+import org.jcodec.scale.ColorUtil;
+import org.jcodec.scale.Transform;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static io.github.stekeblad.videouploader.utils.Constants.THUMBNAIL_CACHE_DIR;
+
+/**
+ * A Enum-Singleton class that creates thumbnails from the video files themselves. A few candidate frames spread over
+ * the video is decoded with jcodec and the sharpest frame that is not too dark or too bright is picked, scaled down
+ * and saved as a JPEG in THUMBNAIL_CACHE_DIR.
+ * <p>
+ * Decoding video is heavy so the work is done on a small pool of background threads, a whole batch of episodes can
+ * be queued at once without slowing down the rest of the program. The same video is only processed once.
+ * All public methods in this class is threadsafe.
+ */
+public enum FrameThumbnailGenerator {
+    INSTANCE;
+
+    // Where in the video the candidate frames are taken, as a fraction of the duration
+    private static final double[] CANDIDATE_POSITIONS = {0.1, 0.3, 0.5, 0.7};
+    // Only every SAMPLE_STEP pixel in each direction is used when scoring a frame
+    private static final int SAMPLE_STEP = 4;
+    // Frames with an average brightness outside of this range is most likely a fade, black screen or flash
+    private static final double MIN_BRIGHTNESS = 40;
+    private static final double MAX_BRIGHTNESS = 215;
+
+    private final ExecutorService exec = Executors.newFixedThreadPool(
+            Math.max(1, Math.min(2, Runtime.getRuntime().availableProcessors() / 2)), runnable -> {
+                Thread thread = new Thread(runnable, "Frame thumbnail generator");
+                thread.setDaemon(true);
+                thread.setPriority(Thread.MIN_PRIORITY);
+                return thread;
+            });
+    private final Map<String, CompletableFuture<File>> tasks = new ConcurrentHashMap<>();
+
+    /**
+     * Starts creating a thumbnail for video in the background if it has not already been done.
+     *
+     * @param video the video file to take the thumbnail from
+     * @return a CompletableFuture that gives the generated thumbnail file. Completes exceptionally if the video could
+     * not be decoded, jcodec does not support all formats.
+     */
+    public CompletableFuture<File> generate(File video) {
+        String key = makeKey(video);
+        CompletableFuture<File> task = tasks.computeIfAbsent(key, k -> CompletableFuture.supplyAsync(() -> {
+            try {
+                return process(video, k);
+            } catch (IOException | JCodecException e) {
+                throw new RuntimeException("Failed to create a thumbnail from \"" + video.getAbsolutePath() + "\"", e);
+            }
+        }, exec));
+        // Let a later attempt try again instead of getting the same error
+        task.whenComplete((file, throwable) -> {
+            if (throwable != null)
+                tasks.remove(key, task);
+        });
+        return task;
+    }
+
+    /**
+     * Does the actual work, runs on the background threads
+     */
+    private File process(File video, String key) throws IOException, JCodecException {
+        Path cacheDir = Paths.get(THUMBNAIL_CACHE_DIR);
+        Path cached = cacheDir.resolve("frame-" + sha256(key) + ".jpg");
+        if (Files.exists(cached)) {
+            return cached.toFile();
+        }
+
+        BufferedImage best = null;
+        double bestScore = Double.NEGATIVE_INFINITY;
+        try (SeekableByteChannel channel = NIOUtils.readableChannel(video)) {
+            FrameGrab grab = FrameGrab.createFrameGrab(channel);
+            double duration = grab.getVideoTrack().getMeta().getTotalDuration();
+            for (double position : CANDIDATE_POSITIONS) {
+                Picture frame = grab.seekToSecondPrecise(duration * position).getNativeFrame();
+                if (frame == null) {
+                    continue;
+                }
+                BufferedImage image = toBufferedImage(frame);
+                double score = score(image);
+                if (score > bestScore) {
+                    bestScore = score;
+                    best = image;
+                }
+            }
+        }
+        if (best == null) {
+            throw new IOException("No frames could be decoded from \"" + video.getAbsolutePath() + "\"");
+        }
+        byte[] jpeg = ThumbnailPreprocessor.encodeToFit(ThumbnailPreprocessor.downscale(best));
+
+        // Write to a temporary file first so a half written file never is taken from the cache
+        Files.createDirectories(cacheDir);
+        Path temp = Files.createTempFile(cacheDir, "frame", ".tmp");
+        try {
+            Files.write(temp, jpeg);
+            Files.move(temp, cached, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        return cached.toFile();
+    }
+
+    /**
+     * Converts a decoded frame to a BufferedImage. Done by hand so the jcodec-javase module is not needed.
+     */
+    private static BufferedImage toBufferedImage(Picture frame) throws IOException {
+        Picture rgb = frame;
+        if (frame.getColor() != ColorSpace.RGB) {
+            Transform transform = ColorUtil.getTransform(frame.getColor(), ColorSpace.RGB);
+            if (transform == null) {
+                throw new IOException("Frames with the color space " + frame.getColor() + " is not supported");
+            }
+            rgb = Picture.create(frame.getWidth(), frame.getHeight(), ColorSpace.RGB);
+            transform.transform(frame, rgb);
+        }
+        int width = frame.getCroppedWidth();
+        int height = frame.getCroppedHeight();
+        int stride = rgb.getWidth() * 3;
+        byte[] source = rgb.getPlaneData(0);
+
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_3BYTE_BGR);
+        byte[] target = ((DataBufferByte) image.getRaster().getDataBuffer()).getData();
+        for (int y = 0; y < height; y++) {
+            int sourceRow = y * stride;
+            int targetRow = y * width * 3;
+            for (int x = 0; x < width * 3; x += 3) {
+                // jcodec stores samples as signed values centered around zero, the image wants them in BGR order
+                target[targetRow + x] = (byte) (source[sourceRow + x + 2] + 128);
+                target[targetRow + x + 1] = (byte) (source[sourceRow + x + 1] + 128);
+                target[targetRow + x + 2] = (byte) (source[sourceRow + x] + 128);
+            }
+        }
+        return image;
+    }
+
+    /**
+     * Gives a frame a score based on how sharp it is, frames that are too dark or too bright is penalized.
+     * Higher is better.
+     */
+    private static double score(BufferedImage image) {
+        byte[] data = ((DataBufferByte) image.getRaster().getDataBuffer()).getData();
+        int width = image.getWidth();
+        int height = image.getHeight();
+        long brightnessSum = 0;
+        long gradientSum = 0;
+        int samples = 0;
+        for (int y = SAMPLE_STEP; y < height; y += SAMPLE_STEP) {
+            for (int x = SAMPLE_STEP; x < width; x += SAMPLE_STEP) {
+                int luma = luma(data, (y * width + x) * 3);
+                int left = luma(data, (y * width + x - SAMPLE_STEP) * 3);
+                int above = luma(data, ((y - SAMPLE_STEP) * width + x) * 3);
+                brightnessSum += luma;
+                gradientSum += Math.abs(luma - left) + Math.abs(luma - above);
+                samples++;
+            }
+        }
+        if (samples == 0) {
+            return Double.NEGATIVE_INFINITY;
+        }
+        double brightness = (double) brightnessSum / samples;
+        double sharpness = (double) gradientSum / samples;
+        double penalty = 0;
+        if (brightness < MIN_BRIGHTNESS)
+            penalty = MIN_BRIGHTNESS - brightness;
+        else if (brightness > MAX_BRIGHTNESS)
+            penalty = brightness - MAX_BRIGHTNESS;
+        return sharpness - penalty;
+    }
+
+    private static int luma(byte[] bgr, int index) {
+        int b = bgr[index] & 0xFF;
+        int g = bgr[index + 1] & 0xFF;
+        int r = bgr[index + 2] & 0xFF;
+        return (r * 299 + g * 587 + b * 114) / 1000;
+    }
+
+    private static String makeKey(File file) {
+        return file.getAbsolutePath() + "|" + file.length() + "|" + file.lastModified();
+    }
+
+    private static String sha256(String text) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException(e);
+        }
+        StringBuilder hex = new StringBuilder();
+        for (byte b : digest.digest(text.getBytes(StandardCharsets.UTF_8))) {
+            hex.append(String.format("%02x", b));
+        }
+        return hex.toString();
+    }
+}
@@ -0,0 +1,61 @@
+package io.github.stekeblad.videouploader.utils.background;
+
+import io.github.stekeblad.videouploader.tagProcessing.metaDataTagProcessor.MetaDataCache;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * A Enum-Singleton class that reads the metadata of video files in the background as soon as they are picked, so it is
+ * already in MetaDataCache when a preset is applied to them.
+ * <p>
+ * The files are read one at a time on a single low priority thread so the prefetch does not compete with uploads for
+ * the disk. Only one set of files is prefetched at a time, picking new files cancels the prefetch of the old ones.
+ * If a preset is applied to a file that is being read the PresetApplicator waits for that read instead of doing its own.
+ */
+public enum MetaDataPrefetcher {
+    INSTANCE;
+
+    private final ExecutorService exec = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "Metadata prefetcher");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        return thread;
+    });
+    private final List<Future<?>> tasks = new ArrayList<>();
+
+    /**
+     * Cancels the files queued by the last call and starts reading the metadata of videoFiles in the background
+     *
+     * @param videoFiles the files the user picked
+     */
+    public synchronized void prefetch(List<File> videoFiles) {
+        cancel();
+        for (File videoFile : videoFiles) {
+            tasks.add(exec.submit(() -> {
+                try {
+                    MetaDataCache.INSTANCE.getReader(videoFile);
+                } catch (Exception e) {
+                    // Not critical, it is tried again when the preset is applied
+                    System.err.println("Failed to prefetch the metadata of \"" + videoFile.getName() + "\"");
+                    e.printStackTrace();
+                }
+            }));
+        }
+    }
+
+    /**
+     * Cancels all files that is not already being read. A file that is being read is finished, interrupting a read
+     * closes the file and would make the result useless.
+     */
+    public synchronized void cancel() {
+        for (Future<?> task : tasks) {
+            task.cancel(false);
+        }
+        tasks.clear();
+    }
+}
@@ -1,6 +1,8 @@
 package io.github.stekeblad.videouploader.utils.background;
 
-import io.github.stekeblad.videouploader.tagProcessing.ITagProcessor;
+import io.github.stekeblad.videouploader.tagProcessing.CompiledPreset;
+import io.github.stekeblad.videouploader.tagProcessing.TagProcessorAdapter;
+import io.github.stekeblad.videouploader.youtube.VideoDetails;
 import io.github.stekeblad.videouploader.youtube.VideoPreset;
 import io.github.stekeblad.videouploader.youtube.VideoUpload;
 import javafx.application.Platform;
@@ -16,31 +18,46 @@ import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 
 /**
- * Can apply a preset to a set of video files in a background thread and return VideoUpload objects.
+ * Can apply a preset to a set of video files in background threads and return VideoUpload objects.
+ * <p>
+ * The files are processed in parallel, reading metadata can require large parts of the files to be read. Every file
+ * gets its episode number from its position in the list it was given in, and third party TagProcessors that is not
+ * thread safe gets the files one at a time in that order and one batch at a time (see TagProcessorAdapter), so the
+ * result is the same as if the files was processed one by one. The finished uploads are given back on the JavaFX
+ * thread in batches and in the same order as the files was given in.
  */
 public class PresetApplicator {
+    private static final int MAX_THREADS = 4;
+
     private final Map<String, Future> tasks;
-    private Consumer<VideoUpload> successCallback = null;
+    private Consumer<List<VideoUpload>> successCallback = null;
     private BiConsumer<File, Throwable> errorCallback = null;
     private final ExecutorService exec;
 
-    private VideoPreset lastPreset;
-    private List<ITagProcessor> tagProcessors = null;
+    // Uploads that are ready to be given to successCallback, guarded by itself
+    private final List<VideoUpload> pendingDelivery = new ArrayList<>();
+    private boolean deliveryScheduled = false;
 
     public PresetApplicator() {
-        exec = Executors.newSingleThreadExecutor(Thread::new);
+        exec = Executors.newFixedThreadPool(
+                Math.max(1, Math.min(MAX_THREADS, Runtime.getRuntime().availableProcessors())), runnable -> {
+                    Thread thread = new Thread(runnable, "Preset applicator");
+                    thread.setDaemon(true);
+                    return thread;
+                });
         tasks = Collections.synchronizedMap(new HashMap<>());
     }
 
     /**
-     * Set a method to be called every time PresetApplicator has successfully applied a preset to a video.
+     * Set a method to be called when PresetApplicator has successfully applied a preset to one or more videos.
+     * The callback is called on the JavaFX thread. Uploads created at about the same time is given in the same call.
      * Setting this callback is required and needs to be set before providing any videos to apply a preset to.
      * If you attempt to change the callback while the PresetApplicator is working an NotSupportedException will be thrown.
      *
-     * @param presetApplicatorSuccessCallback the callback to call for every created VideoUpload
+     * @param presetApplicatorSuccessCallback the callback to call with the created VideoUploads
      * @throws NotSupportedException if you try to change the callback while the PresetApplicator is working
      */
-    public void setSuccessCallback(Consumer<VideoUpload> presetApplicatorSuccessCallback) throws NotSupportedException {
+    public void setSuccessCallback(Consumer<List<VideoUpload>> presetApplicatorSuccessCallback) throws NotSupportedException {
         synchronized (tasks) {
             if (!tasks.keySet().isEmpty())
                 throw new NotSupportedException("Success callback can not be changed while the PresetApplicator is working");
@@ -50,7 +67,7 @@ public class PresetApplicator {
     }
 
     /**
-     * Set a method to be called if any unhandled exceptions are thrown.
+     * Set a method to be called if any unhandled exceptions are thrown. The callback is called on the JavaFX thread.
      * Setting this callback is not required. It is recommended to call this method
      * shortly after an instance of the class is created and before providing any videos to apply a preset to.
      * If you attempt to change the callback while the PresetApplicator is working an NotSupportedException will be thrown.
@@ -88,29 +105,62 @@ public class PresetApplicator {
         }
     }
 
+    /**
+     * Queues videoFiles to get preset applied to them.
+     *
+     * @param videoFiles the video files to create uploads from
+     * @param preset     the preset to apply
+     * @param autoNum    the episode number for the first file in videoFiles, the next file gets autoNum + 1 and so on
+     */
     public void applyPreset(List<File> videoFiles, VideoPreset preset, int autoNum) {
-        for (File videoFile : videoFiles) {
+        // Start preparing the thumbnail now so it is ready when the first video of the batch is uploaded
+        if (preset.getThumbNail() != null) {
+            ThumbnailPreprocessor.INSTANCE.submit(preset.getThumbNail());
+        }
+        // Parse the preset once for all files
+        CompiledPreset compiledPreset = CompiledPreset.compile(preset);
+        // Third party tagProcessors that reads the files starts doing it when the batches before this one is done with
+        // them, next to the built in placeholders
+        TagProcessorAdapter.Pipeline tagProcessors = TagProcessorAdapter.INSTANCE.init(preset, autoNum, videoFiles);
+        ResultOrder order = new ResultOrder(videoFiles.size());
+
+        for (int i = 0; i < videoFiles.size(); i++) {
+            File videoFile = videoFiles.get(i);
             // assume the user will not send a file to PresetApplicator that is already queued
             String cancelName = videoFile.getAbsolutePath();
-            int taskAutoNum = autoNum; // variable used inside task "needs to be final or effectively final"
+            int position = i; // variable used inside task "needs to be final or effectively final"
+            int taskAutoNum = autoNum + i;
             // Create a task
             Task newTask = new Task<Void>() {
                 @Override
                 // Define what it does
                 protected Void call() {
+                    VideoUpload readyUpload = null;
                     try {
                         //Apply
-                        VideoUpload readyUpload = apply(videoFile, preset, taskAutoNum);
-                        Platform.runLater(() -> successCallback.accept(readyUpload));
+                        long applyStart = Timings.start();
+                        readyUpload = apply(videoFile, compiledPreset, tagProcessors, preset.getPresetName(), taskAutoNum,
+                                position);
+                        if (preset.isAutoThumbnail() && preset.getThumbNail() == null) {
+                            // Created in the background, the upload is added to the list without waiting for it
+                            readyUpload.setAutoThumbnail(true);
+                        }
+                        Timings.INSTANCE.record("preset/apply file", applyStart);
                     } catch (Exception e) {
                         e.printStackTrace();
                         if (errorCallback != null) {
                             Platform.runLater(() -> errorCallback.accept(videoFile, e));
                         }
-                    }
-                    // remove the task from the list
-                    synchronized (tasks) {
-                        tasks.remove(cancelName);
+                    } finally {
+                        // A failed file still needs to be marked as done so the files after it can be delivered and
+                        // the next batch can use the TagProcessors. Also if it failed with an Error, it is given to
+                        // errorCallback by setOnFailed.
+                        tagProcessors.finish(position);
+                        deliver(order.complete(position, readyUpload));
+                        // remove the task from the list
+                        synchronized (tasks) {
+                            tasks.remove(cancelName);
+                        }
                     }
                     return null;
                 }
@@ -124,64 +174,89 @@ public class PresetApplicator {
                 Future futureTask = exec.submit(newTask);
                 tasks.put(cancelName, futureTask); // save the future to be able to abort the task
             }
-            autoNum++;
         }
-
     }
 
     /**
-     * Does the thing we actually care about
-     *
-     * @param videoFile a video file to apply a preset to
-     * @param preset    the preset to apply
-     * @param autoNum   automatic episode numbering number
-     * @return a VideoUpload, ready to be uploaded
+     * Keeps track of the finished files in one call to applyPreset so the uploads can be delivered in the same order
+     * as the files was given in, even if a later file is done before an earlier one.
      */
-    private VideoUpload apply(File videoFile, VideoPreset preset, int autoNum) {
-        // Find tagProcessors if tagProcessors list is null
-        if (tagProcessors == null) {
-            tagProcessors = new ArrayList<>();
-            ServiceLoader<ITagProcessor> tagProcessorServiceLoader = ServiceLoader.load(ITagProcessor.class);
-            for (ITagProcessor tagProcessor : tagProcessorServiceLoader) {
-                tagProcessors.add(tagProcessor);
-            }
+    private static class ResultOrder {
+        private final VideoUpload[] results;
+        private final boolean[] done;
+        private int nextToDeliver = 0;
+
+        ResultOrder(int size) {
+            results = new VideoUpload[size];
+            done = new boolean[size];
         }
 
-        // Update tag processors if they are initialized to the wrong preset
-        if (!preset.equals(lastPreset)) {
-            for (ITagProcessor tagProcessor : tagProcessors) {
-                tagProcessor.init(preset, autoNum);
+        /**
+         * Marks the file at position as done
+         *
+         * @param position the position of the file in the list given to applyPreset
+         * @param upload   the created upload or null if it failed
+         * @return the uploads that can be delivered now, in order. Often empty if the files are done out of order.
+         */
+        synchronized List<VideoUpload> complete(int position, VideoUpload upload) {
+            results[position] = upload;
+            done[position] = true;
+            List<VideoUpload> deliverable = new ArrayList<>();
+            while (nextToDeliver < done.length && done[nextToDeliver]) {
+                if (results[nextToDeliver] != null)
+                    deliverable.add(results[nextToDeliver]);
+                results[nextToDeliver] = null;
+                nextToDeliver++;
             }
-            lastPreset = preset;
+            return deliverable;
         }
+    }
 
-        // run the tag processors on the preset and video file
-        String name = preset.getVideoName();
-        String description = preset.getVideoDescription();
-        List<String> videoTags = preset.getVideoTags();
-
-        for (ITagProcessor processor : tagProcessors) {
-            name = processor.processTitle(name, videoFile);
-            description = processor.processDescription(description, videoFile);
-            videoTags = processor.processTags(videoTags, videoFile);
+    /**
+     * Queues uploads to be given to successCallback. If no delivery is scheduled on the JavaFX thread one is scheduled,
+     * otherwise uploads is added to the scheduled delivery so the UI is updated once for many uploads.
+     *
+     * @param uploads the uploads that are ready
+     */
+    private void deliver(List<VideoUpload> uploads) {
+        if (uploads.isEmpty())
+            return;
+        synchronized (pendingDelivery) {
+            pendingDelivery.addAll(uploads);
+            if (deliveryScheduled)
+                return;
+            deliveryScheduled = true;
         }
+        Platform.runLater(() -> {
+            List<VideoUpload> batch;
+            synchronized (pendingDelivery) {
+                batch = new ArrayList<>(pendingDelivery);
+                pendingDelivery.clear();
+                deliveryScheduled = false;
+            }
+            successCallback.accept(batch);
+        });
+    }
 
-        // Create the VideoUpload object
-        VideoUpload.Builder newUploadBuilder = new VideoUpload.Builder()
-                .setVideoName(name)
-                .setVideoDescription(description)
-                .setVisibility(preset.getVisibility())
-                .setVideoTags(videoTags)
-                .setSelectedPlaylist(preset.getSelectedPlaylist())
-                .setCategory(preset.getCategory())
-                .setTellSubs(preset.isTellSubs())
-                .setMadeForKids(preset.isMadeForKids())
-                // assume two videos in upload pane never will have the same number and use the same preset
-                .setPaneName("upload-" + preset.getPresetName() + "-" + autoNum)
-                .setVideoFile(videoFile);
-        if (preset.getThumbNail() != null) {
-            newUploadBuilder.setThumbNailPath(preset.getThumbNail().getAbsolutePath());
-        }
-        return newUploadBuilder.build();
+    /**
+     * Does the thing we actually care about
+     *
+     * @param videoFile      a video file to apply a preset to
+     * @param compiledPreset the preset to apply
+     * @param tagProcessors  the third party TagProcessors to run for the preset
+     * @param presetName     the name of the preset, used in the id of the upload
+     * @param autoNum        automatic episode numbering number
+     * @param position       the position of videoFile in the list given to applyPreset
+     * @return a VideoUpload, ready to be uploaded
+     */
+    private VideoUpload apply(File videoFile, CompiledPreset compiledPreset, TagProcessorAdapter.Pipeline tagProcessors,
+                              String presetName, int autoNum, int position) {
+        // replace the placeholders in the preset with the values for this video file
+        VideoDetails uploadDetails = compiledPreset.apply(videoFile, autoNum);
+        uploadDetails = tagProcessors.process(uploadDetails, videoFile, position);
+
+        // Create the VideoUpload object, this does not create any UI so it is fine to do it here
+        // assume two videos in upload pane never will have the same number and use the same preset
+        return new VideoUpload(uploadDetails, videoFile, "upload-" + presetName + "-" + autoNum);
     }
 }
@@ -0,0 +1,104 @@
+package io.github.stekeblad.videouploader.utils.background;
+
+import javafx.application.Platform;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * The things that needs to be done when the program starts, described as named tasks that depends on each other.
+ * A task is started as soon as all tasks it depends on is finished, so tasks that does not depend on each other runs
+ * at the same time. Tasks added with inBackground runs on a pool of background threads and tasks added with
+ * onFxThread runs on the JavaFX application thread, for creating and changing the UI.
+ * <p>
+ * If a task fails the error is printed and all tasks that depends on it, directly or through other tasks, is skipped.
+ * The time every successful task takes is recorded in Timings as "startup/" + the name of the task.
+ * Use get to find out when a task is done or if it failed. Tasks can be added from any thread, also from a running
+ * task, but the tasks it depends on must already be added.
+ */
+public final class StartupTasks {
+
+    /**
+     * The work of a task, can throw anything to tell the task failed
+     */
+    @FunctionalInterface
+    public interface Task {
+        void run() throws Exception;
+    }
+
+    private static final Executor FX_THREAD = Platform::runLater;
+
+    private final ExecutorService exec = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "Startup task");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // Guarded by this
+    private final Map<String, CompletableFuture<Void>> tasks = new HashMap<>();
+
+    /**
+     * Adds a task that runs on a background thread
+     *
+     * @param name      a unique name for the task, used by other tasks to depend on it
+     * @param task      the work to do
+     * @param dependsOn the names of the tasks that must be finished before this task can start
+     * @return a CompletableFuture that completes when the task is done
+     */
+    public CompletableFuture<Void> inBackground(String name, Task task, String... dependsOn) {
+        return add(name, task, exec, dependsOn);
+    }
+
+    /**
+     * Adds a task that runs on the JavaFX application thread
+     *
+     * @param name      a unique name for the task, used by other tasks to depend on it
+     * @param task      the work to do
+     * @param dependsOn the names of the tasks that must be finished before this task can start
+     * @return a CompletableFuture that completes when the task is done
+     */
+    public CompletableFuture<Void> onFxThread(String name, Task task, String... dependsOn) {
+        return add(name, task, FX_THREAD, dependsOn);
+    }
+
+    /**
+     * @param name the name of a task
+     * @return a CompletableFuture that completes when the task is done and completes exceptionally if the task or a
+     * task it depends on failed
+     * @throws IllegalArgumentException if there is no task with that name
+     */
+    public synchronized CompletableFuture<Void> get(String name) {
+        CompletableFuture<Void> future = tasks.get(name);
+        if (future == null)
+            throw new IllegalArgumentException("There is no startup task named \"" + name + "\"");
+        return future;
+    }
+
+    private synchronized CompletableFuture<Void> add(String name, Task task, Executor executor, String... dependsOn) {
+        if (tasks.containsKey(name))
+            throw new IllegalArgumentException("There is already a startup task named \"" + name + "\"");
+        CompletableFuture<?>[] dependencies = new CompletableFuture<?>[dependsOn.length];
+        for (int i = 0; i < dependsOn.length; i++) {
+            dependencies[i] = get(dependsOn[i]);
+        }
+
+        // If a dependency failed the task is never run and the future completes with the error of the dependency
+        CompletableFuture<Void> future = CompletableFuture.allOf(dependencies).thenRunAsync(() -> {
+            long start = Timings.start();
+            try {
+                task.run();
+                Timings.INSTANCE.record("startup/" + name, start);
+            } catch (Exception e) {
+                System.err.println("Startup task \"" + name + "\" failed");
+                e.printStackTrace();
+                throw new CompletionException(e);
+            }
+        }, executor);
+        tasks.put(name, future);
+        return future;
+    }
+}
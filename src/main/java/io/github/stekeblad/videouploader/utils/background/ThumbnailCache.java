@@ -0,0 +1,114 @@
+package io.github.stekeblad.videouploader.utils.background;
+
+import javafx.beans.value.ChangeListener;
+import javafx.beans.value.ObservableValue;
+import javafx.scene.image.Image;
+import javafx.scene.image.ImageView;
+
+import java.io.File;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A Enum-Singleton class that caches the small thumbnail images shown on the upload and preset panes.
+ * The images are decoded in the background directly at display size and the same image is shared between all
+ * panes that uses the same file, so 300 uploads created from one preset only decodes the thumbnail once.
+ * Entries are keyed by the path, size and last modified time of the file so a changed file is loaded again.
+ * <p>
+ * This class is not threadsafe and should only be used from the JavaFX thread.
+ */
+public enum ThumbnailCache {
+    INSTANCE;
+
+    public static final int DISPLAY_WIDTH = 160;
+    public static final int DISPLAY_HEIGHT = 90;
+    private static final int MAX_CACHED_IMAGES = 256;
+    private static final String VIEW_PROPERTY_KEY = "thumbnailCacheKey";
+
+    private Image placeholder = null;
+
+    // access-ordered LinkedHashMap, the least recently used image is removed when the cache is full
+    private final LinkedHashMap<String, Image> images = new LinkedHashMap<String, Image>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Image> eldest) {
+            return size() > MAX_CACHED_IMAGES;
+        }
+    };
+
+    /**
+     * @return the image shown when no thumbnail is selected or the thumbnail is not loaded yet
+     */
+    public Image getPlaceholder() {
+        if (placeholder == null) {
+            placeholder = new Image(ThumbnailCache.class.getResourceAsStream("/images/no_image.png"));
+        }
+        return placeholder;
+    }
+
+    /**
+     * Returns the image for thumbnailFile decoded at display size. If it is not in the cache it is added and starts
+     * loading in the background, check the progress of the returned image to know when it is ready.
+     *
+     * @param thumbnailFile the thumbnail file
+     * @return a image that is loaded or loading, null if thumbnailFile is null or does not exist
+     */
+    public Image getThumbnail(File thumbnailFile) {
+        if (thumbnailFile == null || !thumbnailFile.isFile()) {
+            return null;
+        }
+        String key = makeKey(thumbnailFile);
+        Image image = images.get(key);
+        if (image == null || image.isError()) {
+            image = new Image(thumbnailFile.toURI().toString(), DISPLAY_WIDTH, DISPLAY_HEIGHT,
+                    true, true, true);
+            images.put(key, image);
+        }
+        return image;
+    }
+
+    /**
+     * Shows thumbnailFile in imageView. The placeholder image is shown until the thumbnail has been loaded and if
+     * thumbnailFile is null or could not be loaded. If this method is called again for the same imageView before the
+     * first thumbnail is loaded, the first thumbnail will not replace the second one when it is done.
+     *
+     * @param imageView     the ImageView to show the thumbnail in
+     * @param thumbnailFile the thumbnail to show, or null to show the placeholder
+     */
+    public void loadInto(ImageView imageView, File thumbnailFile) {
+        Image image = getThumbnail(thumbnailFile);
+        if (image == null) {
+            imageView.getProperties().remove(VIEW_PROPERTY_KEY);
+            imageView.setImage(getPlaceholder());
+            return;
+        }
+        if (image.getProgress() >= 1) {
+            imageView.getProperties().remove(VIEW_PROPERTY_KEY);
+            imageView.setImage(image.isError() ? getPlaceholder() : image);
+            return;
+        }
+
+        // Still loading, show the placeholder and swap when done if the view has not been given another image
+        imageView.getProperties().put(VIEW_PROPERTY_KEY, image);
+        imageView.setImage(getPlaceholder());
+        ChangeListener<Number> loadedListener = new ChangeListener<Number>() {
+            @Override
+            public void changed(ObservableValue<? extends Number> observable, Number oldValue, Number newValue) {
+                if (newValue.doubleValue() < 1) {
+                    return;
+                }
+                image.progressProperty().removeListener(this);
+                if (imageView.getProperties().get(VIEW_PROPERTY_KEY) == image) {
+                    imageView.getProperties().remove(VIEW_PROPERTY_KEY);
+                    if (!image.isError()) {
+                        imageView.setImage(image);
+                    }
+                }
+            }
+        };
+        image.progressProperty().addListener(loadedListener);
+    }
+
+    private static String makeKey(File file) {
+        return file.getAbsolutePath() + "|" + file.length() + "|" + file.lastModified();
+    }
+}
@@ -0,0 +1,233 @@
+package io.github.stekeblad.videouploader.utils.background;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.*;
+
+import static io.github.stekeblad.videouploader.utils.Constants.THUMBNAIL_CACHE_DIR;
+import static io.github.stekeblad.videouploader.youtube.VideoInformationBase.MAX_THUMB_SIZE;
+
+/**
+ * A Enum-Singleton class that makes sure thumbnails can be accepted by YouTube. Images larger than MAX_THUMB_SIZE or
+ * 1280x720 is downscaled and re-encoded as JPEG with the highest quality that gives a file below MAX_THUMB_SIZE.
+ * <p>
+ * The work is done on a pool of background threads. The results are saved in THUMBNAIL_CACHE_DIR with the SHA-256 of
+ * the source image as name, so the same image is only processed once even if it is used by a whole batch of uploads
+ * or selected again later. All public methods in this class is threadsafe.
+ */
+public enum ThumbnailPreprocessor {
+    INSTANCE;
+
+    public static final int MAX_WIDTH = 1280;
+    public static final int MAX_HEIGHT = 720;
+    private static final float MIN_QUALITY = 0.05f;
+    private static final float MAX_QUALITY = 0.95f;
+    private static final int QUALITY_SEARCH_STEPS = 7;
+
+    private final ExecutorService exec = Executors.newFixedThreadPool(
+            Math.max(1, Runtime.getRuntime().availableProcessors() - 1), runnable -> {
+                Thread thread = new Thread(runnable, "Thumbnail preprocessor");
+                thread.setDaemon(true);
+                return thread;
+            });
+    // Keyed on path, size and last modified time so a file is not hashed again when it is used again
+    private final Map<String, Future<File>> tasks = new ConcurrentHashMap<>();
+
+    /**
+     * Starts preparing thumbnail in the background if it has not already been done.
+     *
+     * @param thumbnail the thumbnail selected by the user
+     * @return a Future that gives a file that can be uploaded, thumbnail itself if it did not need any changes
+     */
+    public Future<File> submit(File thumbnail) {
+        String key = thumbnail.getAbsolutePath() + "|" + thumbnail.length() + "|" + thumbnail.lastModified();
+        return tasks.computeIfAbsent(key, k -> exec.submit(() -> process(thumbnail)));
+    }
+
+    /**
+     * Prepares thumbnail and waits for the result. Returns directly if the thumbnail has already been prepared.
+     *
+     * @param thumbnail the thumbnail selected by the user
+     * @return a file that can be uploaded, thumbnail itself if it did not need any changes
+     * @throws IOException if the thumbnail could not be read or could not be made small enough
+     */
+    public File prepare(File thumbnail) throws IOException {
+        Future<File> result = submit(thumbnail);
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            throw new IOException("INTERRUPTED");
+        } catch (ExecutionException e) {
+            // Let the next attempt try again instead of getting the same error
+            tasks.values().remove(result);
+            if (e.getCause() instanceof IOException)
+                throw (IOException) e.getCause();
+            throw new IOException("Failed to prepare the thumbnail \"" + thumbnail.getAbsolutePath() + "\"", e.getCause());
+        }
+    }
+
+    /**
+     * Does the actual work, runs on the background threads
+     */
+    private File process(File thumbnail) throws IOException {
+        if (thumbnail.length() <= MAX_THUMB_SIZE) {
+            Dimension size = readSize(thumbnail);
+            if (size.width <= MAX_WIDTH && size.height <= MAX_HEIGHT) {
+                return thumbnail; // Already acceptable
+            }
+        }
+
+        Path cacheDir = Paths.get(THUMBNAIL_CACHE_DIR);
+        Path cached = cacheDir.resolve(sha256(thumbnail) + ".jpg");
+        if (Files.exists(cached)) {
+            return cached.toFile();
+        }
+
+        BufferedImage source = ImageIO.read(thumbnail);
+        if (source == null) {
+            throw new IOException("The thumbnail \"" + thumbnail.getAbsolutePath() + "\" is not a supported image");
+        }
+        byte[] jpeg = encodeToFit(downscale(source));
+
+        // Write to a temporary file first so a half written file never is taken from the cache
+        Files.createDirectories(cacheDir);
+        Path temp = Files.createTempFile(cacheDir, "thumb", ".tmp");
+        try {
+            Files.write(temp, jpeg);
+            Files.move(temp, cached, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        return cached.toFile();
+    }
+
+    /**
+     * Reads the width and height of a image without decoding it
+     */
+    private static Dimension readSize(File image) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(image)) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                throw new IOException("The thumbnail \"" + image.getAbsolutePath() + "\" is not a supported image");
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                return new Dimension(reader.getWidth(0), reader.getHeight(0));
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * Scales the image down to fit inside MAX_WIDTH x MAX_HEIGHT keeping the aspect ratio. Images that already fits is
+     * not scaled up. The result has no alpha channel, transparent parts become white.
+     */
+    static BufferedImage downscale(BufferedImage source) {
+        double scale = Math.min(1.0, Math.min((double) MAX_WIDTH / source.getWidth(), (double) MAX_HEIGHT / source.getHeight()));
+        int width = Math.max(1, (int) Math.round(source.getWidth() * scale));
+        int height = Math.max(1, (int) Math.round(source.getHeight() * scale));
+
+        BufferedImage scaled = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = scaled.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.setColor(Color.WHITE);
+            graphics.fillRect(0, 0, width, height);
+            graphics.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return scaled;
+    }
+
+    /**
+     * Binary searches for the highest JPEG quality that gives a file smaller than MAX_THUMB_SIZE
+     */
+    static byte[] encodeToFit(BufferedImage image) throws IOException {
+        byte[] best = null;
+        float low = MIN_QUALITY;
+        float high = MAX_QUALITY;
+
+        // Try the best quality first, most images fits directly after downscaling
+        byte[] encoded = encodeJpeg(image, high);
+        if (encoded.length <= MAX_THUMB_SIZE) {
+            return encoded;
+        }
+        for (int i = 0; i < QUALITY_SEARCH_STEPS; i++) {
+            float quality = (low + high) / 2;
+            encoded = encodeJpeg(image, quality);
+            if (encoded.length <= MAX_THUMB_SIZE) {
+                best = encoded;
+                low = quality;
+            } else {
+                high = quality;
+            }
+        }
+        if (best == null) {
+            encoded = encodeJpeg(image, MIN_QUALITY);
+            if (encoded.length > MAX_THUMB_SIZE) {
+                throw new IOException("The thumbnail could not be made smaller than the max thumbnail size");
+            }
+            best = encoded;
+        }
+        return best;
+    }
+
+    private static byte[] encodeJpeg(BufferedImage image, float quality) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpg").next();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ImageOutputStream output = ImageIO.createImageOutputStream(bytes)) {
+            writer.setOutput(output);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(quality);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return bytes.toByteArray();
+    }
+
+    private static String sha256(File file) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException(e);
+        }
+        byte[] buffer = new byte[64 * 1024];
+        try (InputStream input = Files.newInputStream(file.toPath())) {
+            int read;
+            while ((read = input.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        StringBuilder hex = new StringBuilder();
+        for (byte b : digest.digest()) {
+            hex.append(String.format("%02x", b));
+        }
+        return hex.toString();
+    }
+}
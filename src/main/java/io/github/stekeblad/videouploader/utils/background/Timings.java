@@ -0,0 +1,178 @@
+package io.github.stekeblad.videouploader.utils.background;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static io.github.stekeblad.videouploader.utils.Constants.DATA_DIR;
+
+/**
+ * A Enum-Singleton class that remembers how long the steps of starting the program and the things the user is waiting
+ * for takes, like applying a preset or the parts of an upload. It is always on and recording a time only costs a
+ * couple of System.nanoTime() calls and adding to a queue, nothing is formatted or written on the calling thread.
+ * <p>
+ * The times is written to LOG_FILE every LOG_INTERVAL_SECONDS by a low priority background thread, and when the
+ * program exits. When the log is larger than MAX_LOG_SIZE it is renamed to OLD_LOG_FILE and a new log is started,
+ * so the logs never uses more than two times MAX_LOG_SIZE of the disc. getSummary gives the count, average and
+ * maximum time for everything recorded since the program started, for showing in the diagnostics dialog.
+ * <p>
+ * Usage:
+ * <pre>
+ * long start = Timings.start();
+ * doSomething();
+ * Timings.INSTANCE.record("area/something", start);
+ * </pre>
+ */
+public enum Timings {
+    INSTANCE;
+
+    private static final Path LOG_FILE = Paths.get(DATA_DIR, "timings.log");
+    private static final Path OLD_LOG_FILE = Paths.get(DATA_DIR, "timings.log.1");
+    private static final long MAX_LOG_SIZE = 512 * 1024;
+    private static final long LOG_INTERVAL_SECONDS = 10;
+    // If the log can not be written the oldest times is not kept forever
+    private static final int MAX_UNLOGGED = 10000;
+    private static final DateTimeFormatter LOG_TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS");
+
+    private final Map<String, Stats> stats = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<Sample> unlogged = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger unloggedCount = new AtomicInteger();
+    private final ScheduledExecutorService exec = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "Timings log");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        return thread;
+    });
+
+    Timings() {
+        exec.scheduleWithFixedDelay(this::writeLog, LOG_INTERVAL_SECONDS, LOG_INTERVAL_SECONDS, TimeUnit.SECONDS);
+        Runtime.getRuntime().addShutdownHook(new Thread(this::writeLog, "Timings log shutdown"));
+    }
+
+    /**
+     * @return the start time to give to record when the timed thing is done
+     */
+    public static long start() {
+        return System.nanoTime();
+    }
+
+    /**
+     * Records the time from startNanos until now. Can be called from any thread.
+     *
+     * @param name       what was timed, like "upload/thumbnail set". The part before the slash is the area.
+     * @param startNanos the value returned by start() before the timed thing started
+     */
+    public void record(String name, long startNanos) {
+        long nanos = System.nanoTime() - startNanos;
+        stats.computeIfAbsent(name, key -> new Stats()).add(nanos);
+        if (unloggedCount.incrementAndGet() <= MAX_UNLOGGED) {
+            unlogged.add(new Sample(System.currentTimeMillis(), name, nanos));
+        } else {
+            unloggedCount.decrementAndGet();
+        }
+    }
+
+    /**
+     * @return a text with one line for every recorded name, sorted on the name, telling how many times it was
+     * recorded and the average, maximum and last time
+     */
+    public String getSummary() {
+        StringBuilder summary = new StringBuilder();
+        summary.append("Times since the program started, older times can be found in \"")
+                .append(LOG_FILE.toAbsolutePath()).append("\"\n\n");
+        if (stats.isEmpty()) {
+            summary.append("Nothing has been recorded yet");
+            return summary.toString();
+        }
+        for (Map.Entry<String, Stats> entry : new TreeMap<>(stats).entrySet()) {
+            summary.append(entry.getKey()).append(": ").append(entry.getValue()).append('\n');
+        }
+        return summary.toString();
+    }
+
+    /**
+     * Appends the times recorded since the last call to the log, called on the log thread and when the program exits
+     */
+    private synchronized void writeLog() {
+        if (unlogged.isEmpty())
+            return;
+        StringBuilder lines = new StringBuilder();
+        Sample sample;
+        while ((sample = unlogged.poll()) != null) {
+            unloggedCount.decrementAndGet();
+            lines.append(LOG_TIME_FORMAT.format(LocalDateTime.ofInstant(
+                    Instant.ofEpochMilli(sample.timeMillis), ZoneId.systemDefault())))
+                    .append('\t').append(sample.name)
+                    .append('\t').append(formatMillis(sample.nanos)).append('\n');
+        }
+        try {
+            Files.createDirectories(LOG_FILE.getParent());
+            if (Files.exists(LOG_FILE) && Files.size(LOG_FILE) > MAX_LOG_SIZE) {
+                Files.move(LOG_FILE, OLD_LOG_FILE, StandardCopyOption.REPLACE_EXISTING);
+            }
+            Files.write(LOG_FILE, lines.toString().getBytes(StandardCharsets.UTF_8),
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            System.err.println("Failed to write the timings log");
+            e.printStackTrace();
+        }
+    }
+
+    private static String formatMillis(long nanos) {
+        return String.format("%.3f ms", nanos / 1_000_000.0);
+    }
+
+    /**
+     * One recorded time that has not been written to the log yet
+     */
+    private static class Sample {
+        private final long timeMillis;
+        private final String name;
+        private final long nanos;
+
+        private Sample(long timeMillis, String name, long nanos) {
+            this.timeMillis = timeMillis;
+            this.name = name;
+            this.nanos = nanos;
+        }
+    }
+
+    /**
+     * All times recorded for one name
+     */
+    private static class Stats {
+        private long count = 0;
+        private long totalNanos = 0;
+        private long maxNanos = 0;
+        private long lastNanos = 0;
+
+        private synchronized void add(long nanos) {
+            count++;
+            totalNanos += nanos;
+            maxNanos = Math.max(maxNanos, nanos);
+            lastNanos = nanos;
+        }
+
+        @Override
+        public synchronized String toString() {
+            return "count " + count + ", average " + formatMillis(totalNanos / count) + ", max " +
+                    formatMillis(maxNanos) + ", last " + formatMillis(lastNanos);
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package io.github.stekeblad.videouploader.utils.background;
+
+import io.github.stekeblad.videouploader.utils.FileUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * A Enum-Singleton class that writes files in the background a short time after they was changed, so saving settings
+ * or presets does not make the UI wait for the disc. If a file is changed again before it is written only the last
+ * content is written, many changes in a row only cost one write. Files are written with FileUtils.writeAllAtomic so a
+ * crash never leaves a half written file.
+ * <p>
+ * Everything that has not been written yet is written when the program exits. Files are written in the order they
+ * was last changed, so a file describing other files (like the preset index) can be written after them.
+ */
+public enum WriteBehind {
+    INSTANCE;
+
+    // Wait this long after the last change before writing, but never longer than MAX_DELAY_MILLIS after the first
+    private static final long DEBOUNCE_MILLIS = 500;
+    private static final long MAX_DELAY_MILLIS = 3000;
+
+    private final ScheduledExecutorService exec = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "Write behind");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // Only one flush at the time, held while writing. Never taken while holding the lock of this object.
+    private final Object writeLock = new Object();
+    // Guarded by this. The files waiting to be written and the files that is being written now.
+    private final LinkedHashMap<Path, Supplier<byte[]>> pending = new LinkedHashMap<>();
+    private final Map<Path, Supplier<byte[]>> writing = new LinkedHashMap<>();
+    private ScheduledFuture<?> scheduledFlush = null;
+    private long firstChangeTime = 0;
+
+    WriteBehind() {
+        Runtime.getRuntime().addShutdownHook(new Thread(this::flush, "Write behind shutdown flush"));
+    }
+
+    /**
+     * Schedules data to be written to file as UTF-8
+     *
+     * @param file the file to write
+     * @param data the new content of the file
+     */
+    public void write(Path file, String data) {
+        byte[] bytes = data.getBytes(StandardCharsets.UTF_8);
+        write(file, () -> bytes);
+    }
+
+    /**
+     * Schedules a file to be written. content is called on the writing thread when it is time to write, so it can
+     * create the content from the state at that time. content must not wait for something that waits for
+     * flush() or cancel(...).
+     *
+     * @param file    the file to write
+     * @param content creates the new content of the file
+     */
+    public synchronized void write(Path file, Supplier<byte[]> content) {
+        Path key = file.toAbsolutePath();
+        // remove first so the file is moved to the end of the write order
+        pending.remove(key);
+        pending.put(key, content);
+
+        long now = System.currentTimeMillis();
+        if (scheduledFlush == null) {
+            firstChangeTime = now;
+        } else {
+            scheduledFlush.cancel(false);
+        }
+        long delay = Math.max(0, Math.min(DEBOUNCE_MILLIS, firstChangeTime + MAX_DELAY_MILLIS - now));
+        scheduledFlush = exec.schedule(this::flush, delay, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Gets the content a file will have when the waiting write is done, for reading a file that may not have been
+     * written yet
+     *
+     * @param file a file
+     * @return the content that will be written to file or null if there is no waiting write for it
+     */
+    public byte[] getPending(Path file) {
+        Path key = file.toAbsolutePath();
+        Supplier<byte[]> content;
+        synchronized (this) {
+            content = pending.get(key);
+            if (content == null)
+                content = writing.get(key);
+        }
+        return content == null ? null : content.get();
+    }
+
+    /**
+     * Forgets the waiting write to file, used before deleting it. If file is being written the method waits for that
+     * write to finish so the file is not created again after it was deleted.
+     *
+     * @param file a file
+     */
+    public void cancel(Path file) {
+        Path key = file.toAbsolutePath();
+        synchronized (writeLock) {
+            synchronized (this) {
+                pending.remove(key);
+            }
+        }
+    }
+
+    /**
+     * Writes all waiting files now. Called on the writing thread after a change and when the program exits, but can
+     * be called from any thread.
+     */
+    public void flush() {
+        synchronized (writeLock) {
+            synchronized (this) {
+                if (scheduledFlush != null) {
+                    scheduledFlush.cancel(false);
+                    scheduledFlush = null;
+                }
+                writing.putAll(pending);
+                pending.clear();
+            }
+            for (Map.Entry<Path, Supplier<byte[]>> entry : writing.entrySet()) {
+                try {
+                    FileUtils.writeAllAtomic(entry.getKey(), entry.getValue().get());
+                } catch (Exception e) {
+                    System.err.println("Failed to save " + entry.getKey());
+                    e.printStackTrace();
+                }
+            }
+            synchronized (this) {
+                writing.clear();
+            }
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package io.github.stekeblad.videouploader.utils.translation;
+
+import io.github.stekeblad.videouploader.utils.FileUtils;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.TreeMap;
+
+/**
+ * Knows what translation files exist in the resources/strings directory without listing the directory. The Gradle
+ * build writes INDEX_RESOURCE with one line per translation file, like "baseStrings/baseStrings_sv_SE.properties",
+ * and that small file is the only thing read. Listing the directory inside the jar means looking at every class in
+ * the jar, including all libraries.
+ * <p>
+ * When the program is started from an IDE without the generated file the directories is listed like before.
+ */
+final class TranslationIndex {
+    private static final String INDEX_RESOURCE = "generated/TranslationIndex.properties";
+    private static final String STRINGS_DIR = "strings/";
+
+    // bundle name -> the files of that bundle, sorted on the bundle name
+    private static TreeMap<String, List<String>> bundles = null;
+
+    private TranslationIndex() {
+    }
+
+    /**
+     * @return the names of all translation bundles, the directories in resources/strings
+     */
+    static synchronized List<String> getBundleNames() {
+        return new ArrayList<>(getBundles().keySet());
+    }
+
+    /**
+     * @param bundleName the name of a translation bundle
+     * @return the names of the translation files of that bundle, empty if the bundle does not exist
+     */
+    static synchronized List<String> getFiles(String bundleName) {
+        List<String> files = getBundles().get(bundleName);
+        return files == null ? Collections.emptyList() : new ArrayList<>(files);
+    }
+
+    private static TreeMap<String, List<String>> getBundles() {
+        if (bundles == null) {
+            bundles = readIndex();
+            if (bundles == null) {
+                bundles = listDirectories();
+            }
+        }
+        return bundles;
+    }
+
+    /**
+     * @return the content of INDEX_RESOURCE or null if it does not exist
+     */
+    private static TreeMap<String, List<String>> readIndex() {
+        InputStream inputStream = TranslationIndex.class.getClassLoader().getResourceAsStream(INDEX_RESOURCE);
+        if (inputStream == null)
+            return null;
+        TreeMap<String, List<String>> result = new TreeMap<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                int separator = line.indexOf('/');
+                if (separator < 1)
+                    continue;
+                result.computeIfAbsent(line.substring(0, separator), k -> new ArrayList<>())
+                        .add(line.substring(separator + 1));
+            }
+        } catch (IOException e) {
+            System.err.println("Failed to read the translation index, listing the translation directories instead");
+            e.printStackTrace();
+            return null;
+        }
+        return result;
+    }
+
+    private static TreeMap<String, List<String>> listDirectories() {
+        TreeMap<String, List<String>> result = new TreeMap<>();
+        List<String> bundleNames = FileUtils.getContentOfResourceDir(STRINGS_DIR);
+        if (bundleNames == null)
+            return result;
+        for (String bundleName : bundleNames) {
+            List<String> files = FileUtils.getContentOfResourceDir(STRINGS_DIR + bundleName);
+            result.put(bundleName, files == null ? new ArrayList<>() : new ArrayList<>(files));
+        }
+        return result;
+    }
+}
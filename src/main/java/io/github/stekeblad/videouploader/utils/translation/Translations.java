@@ -1,7 +1,6 @@
 package io.github.stekeblad.videouploader.utils.translation;
 
 import io.github.stekeblad.videouploader.main.mainWindowController;
-import io.github.stekeblad.videouploader.utils.FileUtils;
 import javafx.scene.Node;
 import javafx.scene.Parent;
 import javafx.scene.control.Labeled;
@@ -24,6 +23,8 @@ public class Translations {
     private ResourceBundle fallback;
     private Locale locale;
     private final String translationFamily;
+    // What autoTranslate should do for every Node id, created the first time it is used
+    private HashMap<String, List<Binding>> bindings = null;
 
     /**
      * Creates the translations object. It searches for translations files in the resources directory at strings/ for
@@ -67,7 +68,7 @@ public class Translations {
                 } else {
                     // Did not find translation for user locale. Try find a similar translation, like en_GB instead of en_US
                     try {
-                        List<String> availableTranslations = FileUtils.getContentOfResourceDir("strings/" + bundleName);
+                        List<String> availableTranslations = TranslationIndex.getFiles(bundleName);
                         if (availableTranslations != null) {
                             String matchLocalePart = bundleName + "_" + locale.toString().substring(0, 2);
                             for (String aTranslation : availableTranslations) {
@@ -129,53 +130,34 @@ public class Translations {
 
     /**
      * Automatically tries to translate all Nodes that are children or any level of grandchildren of window.
-     * This is done by first generating a list of children of all levels and then iterating over all translation key and
-     * comparing them to the node ids. On top of that, if a translation key
+     * This is done by walking over all Nodes and looking up their id, with prefix removed, among the translation keys.
+     * On top of that, if a translation key
      * ends with _tt it looks for a Node with that id (excluding the _tt) and if found sets the translation as the Node
      * Tooltip. If a translation key ends with _pt it searches for a Node with that id (excluding _pt) and if found
      * sets the translation as the Node PromptText. The second parameter is for if all Nodes have a prefix that should
      * be ignored when looking for a matching translation key.
+     * <p>
+     * What to do for every id is worked out the first time this method is called and reused after that, including the
+     * Tooltips, so translating many panes of the same kind (like the uploads in the main window) only costs one lookup
+     * per Node.
      *
      * @param window A parent with children to translate (like an entire window pane)
      * @param prefix the prefix of the Nodes that is not in the translation keys
      */
     public void autoTranslate(Parent window, String prefix) {
-        HashMap<String, Node> children = childScanner(window);
         if (prefix == null) {
             prefix = "";
         }
-
-        for (String key : fallback.keySet()) {
-            if (key.endsWith("_tt")) {
-                // All nodes that extends Labeled can have a Tooltip,
-                // But textFields do not and they can also have a Tooltip.
-                // Anything can have a tooltip this way.
-                Node aNode = children.get(prefix + key.substring(0, key.length() - 3));
-                if (aNode != null) {
-                    Tooltip tt = new Tooltip(getString(key));
-                    Tooltip.install(aNode, tt);
-                }
-            } else if (key.endsWith("_pt")) { // Test if it is a promptText translation
-                // All nodes that extend TextInputControl can have a prompt text
-                Node aNode = children.get(prefix + key.substring(0, key.length() - 3));
-                if (aNode instanceof TextInputControl) {
-                    ((TextInputControl) aNode).setPromptText(getString(key));
-                }
-                // Else it is a text translation
-            } else {
-                // All nodes that can have text extends Labeled
-                Node aNode = children.get(prefix + key);
-                if (aNode instanceof Labeled) {
-                    ((Labeled) aNode).setText(getString(key));
-                }
-            }
+        if (bindings == null) {
+            bindings = createBindings();
         }
+        translateChildren(window, prefix);
     }
 
     /**
      * Automatically tries to translate all Nodes that are children or any level of grandchildren of window.
-     * This is done by first generating a list of children of all levels and then iterating over all translation key and
-     * comparing them to the node ids. On top of that, if a translation key
+     * This is done by walking over all Nodes and looking up their id among the translation keys. On top of that, if a
+     * translation key
      * ends with _tt it looks for a Node with that id (excluding the _tt) and if found sets the translation as the Node
      * Tooltip. If a translation key ends with _pt it searches for a Node with that id (excluding _pt) and if found
      * sets the translation as the Node PromptText.
@@ -187,19 +169,94 @@ public class Translations {
     }
 
     /**
-     * Builds a list of all children of parent and if any child also is a parent there children are checked and added by recursion.
-     *
-     * @param parent a Node to start listing children from
-     * @return An HashMap&lt String, Node&gt with all children and any level of grand children of parent
+     * Translates all children and any level of grand children of parent that has a id, with prefix removed, that is in
+     * bindings
      */
-    private HashMap<String, Node> childScanner(Parent parent) {
-        HashMap<String, Node> children = new HashMap<>();
+    private void translateChildren(Parent parent, String prefix) {
         for (Node aNode : parent.getChildrenUnmodifiable()) {
             if (aNode instanceof Parent) {
-                children.putAll(childScanner((Parent) aNode));
+                translateChildren((Parent) aNode, prefix);
+            }
+            String id = aNode.getId();
+            if (id == null || !id.startsWith(prefix))
+                continue;
+            List<Binding> nodeBindings = bindings.get(id.substring(prefix.length()));
+            if (nodeBindings == null)
+                continue;
+            for (Binding binding : nodeBindings) {
+                binding.apply(aNode);
+            }
+        }
+    }
+
+    /**
+     * Looks up the translation of every key once and groups them on the id of the Node they are for
+     *
+     * @return Node id (without prefix) -> what should be translated on that Node
+     */
+    private HashMap<String, List<Binding>> createBindings() {
+        HashMap<String, List<Binding>> result = new HashMap<>();
+        for (String key : fallback.keySet()) {
+            BindingType type;
+            String nodeId;
+            if (key.endsWith("_tt")) {
+                type = BindingType.TOOLTIP;
+                nodeId = key.substring(0, key.length() - 3);
+            } else if (key.endsWith("_pt")) {
+                type = BindingType.PROMPT_TEXT;
+                nodeId = key.substring(0, key.length() - 3);
+            } else {
+                type = BindingType.TEXT;
+                nodeId = key;
+            }
+            result.computeIfAbsent(nodeId, k -> new ArrayList<>(1)).add(new Binding(type, getString(key)));
+        }
+        return result;
+    }
+
+    private enum BindingType {
+        TEXT, TOOLTIP, PROMPT_TEXT
+    }
+
+    /**
+     * One translation to set on every Node with a matching id
+     */
+    private static class Binding {
+        private final BindingType type;
+        private final String translation;
+        // Created the first time it is needed as Tooltips must be created on the JavaFX thread.
+        // One Tooltip can be installed on any number of Nodes.
+        private Tooltip tooltip = null;
+
+        private Binding(BindingType type, String translation) {
+            this.type = type;
+            this.translation = translation;
+        }
+
+        private void apply(Node aNode) {
+            switch (type) {
+                case TOOLTIP:
+                    // All nodes that extends Labeled can have a Tooltip,
+                    // But textFields do not and they can also have a Tooltip.
+                    // Anything can have a tooltip this way.
+                    if (tooltip == null) {
+                        tooltip = new Tooltip(translation);
+                    }
+                    Tooltip.install(aNode, tooltip);
+                    break;
+                case PROMPT_TEXT:
+                    // All nodes that extend TextInputControl can have a prompt text
+                    if (aNode instanceof TextInputControl) {
+                        ((TextInputControl) aNode).setPromptText(translation);
+                    }
+                    break;
+                case TEXT:
+                    // All nodes that can have text extends Labeled
+                    if (aNode instanceof Labeled) {
+                        ((Labeled) aNode).setText(translation);
+                    }
+                    break;
             }
-            children.put(aNode.getId(), aNode);
         }
-        return children;
     }
 }
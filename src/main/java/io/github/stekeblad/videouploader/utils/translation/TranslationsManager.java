@@ -1,7 +1,5 @@
 package io.github.stekeblad.videouploader.utils.translation;
 
-import io.github.stekeblad.videouploader.utils.FileUtils;
-
 import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
@@ -64,8 +62,8 @@ public class TranslationsManager {
         if (locale.toString().equals(DEFAULT_LOCALE)) {
             locale = null;
         }
-        List<String> resources = FileUtils.getContentOfResourceDir("strings/");
-        if (resources != null) {
+        List<String> resources = TranslationIndex.getBundleNames();
+        if (!resources.isEmpty()) {
             for (String resource : resources) {
                 loadTranslation(resource, locale);
             }
@@ -1,7 +1,5 @@
 package io.github.stekeblad.videouploader.utils.translation;
 
-import io.github.stekeblad.videouploader.utils.FileUtils;
-
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.*;
@@ -19,8 +17,8 @@ public class TranslationsMeta {
      */
     public TranslationsMeta() {
         transMeta = new HashMap<>();
-        List<String> resources = FileUtils.getContentOfResourceDir("strings/meta");
-        if (resources != null && !resources.isEmpty()) {
+        List<String> resources = TranslationIndex.getFiles("meta");
+        if (!resources.isEmpty()) {
             for (String resource : resources) {
                 InputStream inputStream = getClass().getClassLoader().getResourceAsStream("strings/meta/" + resource);
                 if (inputStream != null) {
@@ -1,11 +1,13 @@
 package io.github.stekeblad.videouploader.windowControllers;
 
 import io.github.stekeblad.videouploader.jfxExtension.MyStage;
+import io.github.stekeblad.videouploader.jfxExtension.VideoInformationListCell;
 import io.github.stekeblad.videouploader.utils.AlertUtils;
 import io.github.stekeblad.videouploader.utils.ConfigManager;
 import io.github.stekeblad.videouploader.utils.Constants;
 import io.github.stekeblad.videouploader.utils.FileUtils;
 import io.github.stekeblad.videouploader.utils.background.OpenInBrowser;
+import io.github.stekeblad.videouploader.utils.background.ThumbnailPreprocessor;
 import io.github.stekeblad.videouploader.utils.state.ButtonProperties;
 import io.github.stekeblad.videouploader.utils.state.VideoPresetState;
 import io.github.stekeblad.videouploader.utils.translation.TranslationBundles;
@@ -14,7 +16,9 @@ import io.github.stekeblad.videouploader.utils.translation.TranslationsManager;
 import io.github.stekeblad.videouploader.youtube.VideoPreset;
 import io.github.stekeblad.videouploader.youtube.utils.CategoryUtils;
 import io.github.stekeblad.videouploader.youtube.utils.VisibilityStatus;
+import javafx.application.Platform;
 import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Cursor;
@@ -22,7 +26,6 @@ import javafx.scene.control.*;
 import javafx.scene.input.KeyCode;
 import javafx.scene.input.MouseButton;
 import javafx.scene.layout.AnchorPane;
-import javafx.scene.layout.GridPane;
 import javafx.stage.Modality;
 import javafx.stage.WindowEvent;
 
@@ -33,14 +36,14 @@ import java.util.ArrayList;
 import java.util.HashMap;
 
 import static io.github.stekeblad.videouploader.utils.Constants.*;
-import static io.github.stekeblad.videouploader.youtube.VideoInformationBase.MAX_THUMB_SIZE;
+import static io.github.stekeblad.videouploader.youtube.VideoInformationBase.MAX_THUMB_SOURCE_SIZE;
 import static io.github.stekeblad.videouploader.youtube.VideoInformationBase.THUMBNAIL_FILE_FORMAT;
 
 
 public class PresetsWindowController {
 
     public AnchorPane presetWindow;
-    public ListView<GridPane> listPresets;
+    public ListView<PresetEntry> listPresets;
     public ToolBar toolbar;
     public Button btn_tips;
     public Button btn_addNewPreset;
@@ -49,7 +52,7 @@ public class PresetsWindowController {
     public TextField txt_nameNewPreset;
     public Label label_savedPresets;
 
-    private ArrayList<VideoPreset> videoPresets;
+    private ObservableList<PresetEntry> videoPresets;
     private ConfigManager configManager;
     private CategoryUtils categoryUtils;
     private int presetCounter = 0;
@@ -63,6 +66,68 @@ public class PresetsWindowController {
 
     private static final String PRESET_PANE_ID_PREFIX = "preset-";
 
+    /**
+     * A preset in the list. Saved presets is only read from disc and parsed the first time they are shown or used,
+     * opening the window only needs the names from the preset index.
+     */
+    private final class PresetEntry {
+        private final String paneId;
+        // the name of the saved preset, only used until the preset is loaded
+        private final String savedName;
+        private VideoPreset preset;
+        private boolean loadFailed = false;
+
+        PresetEntry(String paneId, String savedName, VideoPreset preset) {
+            this.paneId = paneId;
+            this.savedName = savedName;
+            this.preset = preset;
+        }
+
+        /**
+         * @return the preset, loaded from disc if this is the first time it is needed, or null if it could not be loaded
+         */
+        VideoPreset get() {
+            if (preset == null && !loadFailed) {
+                try {
+                    VideoPreset loaded = new VideoPreset(configManager.getPresetString(savedName), paneId);
+                    loaded.setThumbnailCursorEventHandler(PresetsWindowController.this::updateCursor);
+                    buttonStates.setLocked(loaded);
+                    preset = loaded;
+                } catch (Exception e) {
+                    loadFailed = true;
+                    e.printStackTrace();
+                    System.err.println("Failed loading preset: " + savedName);
+                    // Usually called while the list is laid out, the dialog can not be shown during that
+                    Platform.runLater(() -> AlertUtils.exceptionDialog("Could not load preset", "An error " +
+                            "occurred while trying to load the preset " + savedName + ". \nThis may be because it " +
+                            "has been externally modified or because the selected thumbnail file can not be found. " +
+                            "\nMore details below.", e));
+                }
+            }
+            return preset;
+        }
+
+        /**
+         * @return the name of the preset, without loading it
+         */
+        String getName() {
+            return preset != null ? preset.getPresetName() : savedName;
+        }
+
+        /**
+         * @return true if the preset is loaded and is being edited
+         */
+        boolean isEditing() {
+            return preset != null && preset.getButton2Id().contains(BUTTON_SAVE);
+        }
+
+        @Override
+        public String toString() {
+            // shown in the list if the preset could not be loaded
+            return getName();
+        }
+    }
+
     /**
      * Initialize a few things when the window is opened, used instead of initialize as that one does not have access to the scene
      */
@@ -74,7 +139,7 @@ public class PresetsWindowController {
         categoryUtils = CategoryUtils.INSTANCE;
 
         presetBackups = new HashMap<>();
-        videoPresets = new ArrayList<>();
+        videoPresets = FXCollections.observableArrayList();
 
         // It will cause problems if locale is changed while something is being edited or uploaded
         this.disableLocaleChange = disableLocaleChange;
@@ -104,31 +169,23 @@ public class PresetsWindowController {
         // Set up button sets for different preset states (locked, editing)
         definePresetStates();
 
-        // Load all saved presets
+        // Only the visible presets has a pane, the cells moves their panes between presets when the list is scrolled
+        listPresets.setCellFactory(list -> new VideoInformationListCell<>(PresetEntry::get, pane -> {
+            pane.prefWidthProperty().bind(listPresets.widthProperty().subtract(35)); // Auto Resize width
+            transPreset.autoTranslate(pane, pane.getId());
+        }));
+        listPresets.setItems(videoPresets);
+
+        // List the saved presets by the names in the preset index, a preset is read when its cell shows it
         ArrayList<String> savedPresetNames = configManager.getPresetNames();
         if (savedPresetNames != null) {
+            ArrayList<PresetEntry> entries = new ArrayList<>();
             for (String presetName : savedPresetNames) {
-                VideoPreset videoPreset;
-                try {
-                    videoPreset = new VideoPreset(configManager.getPresetString(presetName), PRESET_PANE_ID_PREFIX + presetCounter);
-                } catch (Exception e) {
-                    e.printStackTrace();
-                    System.err.println("Failed loading preset: " + presetName);
-                    AlertUtils.exceptionDialog("Could not load preset", "An error occurred while trying to " +
-                            "load the preset " + presetName + ". \nThis may be because it has been externally modified or " +
-                            "because the selected thumbnail file can not be found. \nMore details below.", e);
-                    continue;
-                }
-                videoPreset.setThumbnailCursorEventHandler(this::updateCursor);
-                videoPreset.getPane().prefWidthProperty().bind(listPresets.widthProperty().subtract(35)); // Auto Resize width
-                transPreset.autoTranslate(videoPreset.getPane(), videoPreset.getPaneId());
-                buttonStates.setLocked(videoPreset);
-                videoPresets.add(videoPreset);
-
+                entries.add(new PresetEntry(PRESET_PANE_ID_PREFIX + presetCounter, presetName, null));
                 presetCounter++;
             }
+            videoPresets.setAll(entries);
         }
-        updatePresetList();
 
         // Set so pressing enter in txt_nameNewPreset triggers onPresetAddNewClicked
         txt_nameNewPreset.setOnKeyPressed(event -> {
@@ -157,8 +214,8 @@ public class PresetsWindowController {
      */
     public void onWindowClose(WindowEvent windowEvent) {
         boolean editingPreset = false;
-        for (VideoPreset aPreset : videoPresets) {
-            if (aPreset.getButton2Id().contains(BUTTON_SAVE)) {
+        for (PresetEntry aPreset : videoPresets) {
+            if (aPreset.isEditing()) {
                 editingPreset = true;
                 break;
             }
@@ -185,8 +242,8 @@ public class PresetsWindowController {
                     transPresetWin.getString("diag_presetNeedName_full")).show();
             return;
         }
-        for (VideoPreset videoPreset : videoPresets) {
-            if (videoPreset.getPresetName().equals(txt_nameNewPreset.getText())) {
+        for (PresetEntry videoPreset : videoPresets) {
+            if (videoPreset.getName().equals(txt_nameNewPreset.getText())) {
                 AlertUtils.simpleClose(transPresetWin.getString("diag_presetExist_short"),
                         transPresetWin.getString("diag_presetExist_full")).show();
                 return;
@@ -197,24 +254,19 @@ public class PresetsWindowController {
         VideoPreset newPreset = new VideoPreset("", "", VisibilityStatus.PUBLIC, null,
                 null, null, false, null, false,
                 PRESET_PANE_ID_PREFIX + presetCounter, txt_nameNewPreset.getText());
-        // Make so the preset change its width together with the list and the window
-        newPreset.getPane().prefWidthProperty().bind(listPresets.widthProperty().subtract(35));
-        transPreset.autoTranslate(newPreset.getPane(), newPreset.getPaneId());
-
         newPreset.setThumbnailCursorEventHandler(this::updateCursor);
-        videoPresets.add(newPreset);
+        videoPresets.add(new PresetEntry(newPreset.getPaneId(), null, newPreset));
         onPresetEdit(PRESET_PANE_ID_PREFIX + presetCounter + "_fakeButton");
 
         // Change the cancel button to a delete button, the backed up state created by onEdit is not valid
         Button deleteButton = new Button(transBasic.getString("delete"));
         deleteButton.setId(PRESET_PANE_ID_PREFIX + presetCounter + BUTTON_DELETE);
         deleteButton.setOnMouseClicked(event -> onPresetDelete(deleteButton.getId()));
-        videoPresets.get(videoPresets.size() - 1).setButton2(deleteButton);
+        newPreset.setButton2(deleteButton);
 
         listPresets.scrollTo(listPresets.getItems().size() -1);
         txt_nameNewPreset.setText("");
         presetCounter++;
-        updatePresetList();
         actionEvent.consume();
     }
 
@@ -291,17 +343,6 @@ public class PresetsWindowController {
         });
     }
 
-    /**
-     * Re-adds all presets to the listPreset to make sure the UI is up-to-date
-     */
-    private void updatePresetList() {
-        ArrayList<GridPane> presetPanes = new ArrayList<>();
-        for (VideoPreset videoPreset : videoPresets) {
-            presetPanes.add(videoPreset.getPane());
-        }
-        listPresets.setItems(FXCollections.observableArrayList(presetPanes));
-    }
-
     /**
      * Returns the index in videoPresets that has a preset with the paneId nameToTest or -1 if no preset has that name
      * @param nameToTest paneId to test for
@@ -310,7 +351,7 @@ public class PresetsWindowController {
     private int getPresetIndexByPaneId(String nameToTest) {
         int presetIndex = -1;
         for (int i = 0; i < videoPresets.size(); i++) {
-            if (videoPresets.get(i).getPaneId().equals(nameToTest)) {
+            if (videoPresets.get(i).paneId.equals(nameToTest)) {
                 presetIndex = i;
                 break;
             }
@@ -358,19 +399,25 @@ public class PresetsWindowController {
             System.err.println("Non-existing edit button was pressed!!!");
             return;
         }
+        VideoPreset preset = videoPresets.get(selected).get();
+        if (preset == null)
+            return; // could not be loaded, has no buttons
 
         // create backup and enable editing
-        presetBackups.put(videoPresets.get(selected).getPaneId(), videoPresets.get(selected).copy(null));
-        videoPresets.get(selected).setEditable(true);
+        presetBackups.put(preset.getPaneId(), preset.copy(null));
+        preset.setEditable(true);
 
         // Sets the thumbnail clickable for changing
-        videoPresets.get(selected).setOnThumbnailClicked(event -> {
+        preset.setOnThumbnailClicked(event -> {
             if (event.getButton() == MouseButton.SECONDARY)
                 return; // Conflicting with context menu, only do this on left click
-            File pickedThumbnail = FileUtils.pickThumbnail(THUMBNAIL_FILE_FORMAT, MAX_THUMB_SIZE);
+            File pickedThumbnail = FileUtils.pickThumbnail(THUMBNAIL_FILE_FORMAT, MAX_THUMB_SOURCE_SIZE);
             if(pickedThumbnail != null) {
                 try {
-                    videoPresets.get(selected).setThumbNailFile(pickedThumbnail);
+                    preset.setThumbNailFile(pickedThumbnail);
+                    preset.setAutoThumbnail(false);
+                    // Too large thumbnails is made smaller in the background before they are uploaded
+                    ThumbnailPreprocessor.INSTANCE.submit(pickedThumbnail);
                 } catch (Exception e) {
                     e.printStackTrace();
                 }
@@ -379,18 +426,35 @@ public class PresetsWindowController {
         // Sets the thumbnail right click context menu
         ContextMenu thumbnailRClickMenu = new ContextMenu();
         MenuItem item1 = new MenuItem(transBasic.getString("resetToDefault"));
+        CheckMenuItem item2 = new CheckMenuItem(transBasic.getString("useVideoFrame"));
+        item2.setSelected(preset.isAutoThumbnail());
         item1.setOnAction(actionEvent -> {
             try {
-                videoPresets.get(selected).setThumbNailFile(null);
+                preset.setThumbNailFile(null);
+                preset.setAutoThumbnail(false);
+                item2.setSelected(false);
             } catch (Exception e) {
                 e.printStackTrace();
             }
             actionEvent.consume();
         });
-        thumbnailRClickMenu.getItems().add(item1);
-        videoPresets.get(selected).setThumbnailContextMenu(thumbnailRClickMenu);
+        // A frame from each video is used as thumbnail, a selected thumbnail would be used instead so remove it
+        item2.setOnAction(actionEvent -> {
+            try {
+                if (item2.isSelected())
+                    preset.setThumbNailFile(null);
+                preset.setAutoThumbnail(item2.isSelected());
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+            actionEvent.consume();
+        });
+        thumbnailRClickMenu.getItems().addAll(item1, item2);
+        // Picking a thumbnail turns off the frame thumbnail, make sure the menu shows the current state
+        thumbnailRClickMenu.setOnShowing(event -> item2.setSelected(preset.isAutoThumbnail()));
+        preset.setThumbnailContextMenu(thumbnailRClickMenu);
 
-        buttonStates.setEditing(videoPresets.get(selected));
+        buttonStates.setEditing(preset);
         setLocaleButtonDisabled();
     }
 
@@ -407,20 +471,23 @@ public class PresetsWindowController {
             System.err.println("Can't find witch preset to save");
             return;
         }
+        VideoPreset preset = videoPresets.get(selected).get();
+        if (preset == null)
+            return; // could not be loaded, has no buttons
         // Make sure a category is selected and the category name still match a stored category
         // (will not match stored if categories have been re-localized)
-        if (videoPresets.get(selected).getCategory() == null) {
+        if (preset.getCategory() == null) {
             AlertUtils.simpleClose(transBasic.getString("diag_invalidCategory_short"),
                     transBasic.getString("diag_invalidCategory_full")).show();
             return;
         }
-        if (!categoryUtils.getCategoryNames().contains(videoPresets.get(selected).getCategory())) {
+        if (!categoryUtils.getCategoryNames().contains(preset.getCategory())) {
             AlertUtils.simpleClose(transBasic.getString("diag_categoryRemoved_short"),
                     transBasic.getString("diag_categoryRemoved_full")).show();
             return;
         }
         // make sure preset name is not empty
-        if(videoPresets.get(selected).getPresetName().equals("")) {
+        if(preset.getPresetName().equals("")) {
             AlertUtils.simpleClose(transPresetWin.getString("diag_presetNeedName_short"),
                     transPresetWin.getString("diag_presetNeedName_full")).show();
             return;
@@ -431,7 +498,7 @@ public class PresetsWindowController {
             if (i == selected) {
                 continue; // this case is not interesting
             }
-            if (videoPresets.get(i).getPresetName().equals(videoPresets.get(selected).getPresetName())) {
+            if (videoPresets.get(i).getName().equals(preset.getPresetName())) {
                 otherPreset = i;
                 break;
             }
@@ -442,17 +509,17 @@ public class PresetsWindowController {
             return;
         }
         // if there is a backup it needs to be deleted
-        if (presetBackups.containsKey(videoPresets.get(selected).getPaneId())) {
+        if (presetBackups.containsKey(preset.getPaneId())) {
             // if preset name changed then the preset save file needs to be changed
-            String oldPresetName = presetBackups.get(videoPresets.get(selected).getPaneId()).getPresetName();
-            if (!videoPresets.get(selected).getPresetName().equals(oldPresetName)) {
+            String oldPresetName = presetBackups.get(preset.getPaneId()).getPresetName();
+            if (!preset.getPresetName().equals(oldPresetName)) {
                 configManager.deletePreset(oldPresetName);
             }
-            presetBackups.remove(videoPresets.get(selected).getPaneId());
+            presetBackups.remove(preset.getPaneId());
         }
-        videoPresets.get(selected).setEditable(false);
-        configManager.savePreset(videoPresets.get(selected).getPresetName(), videoPresets.get(selected).toString());
-        buttonStates.setLocked(videoPresets.get(selected));
+        preset.setEditable(false);
+        configManager.savePreset(preset.getPresetName(), preset.toString());
+        buttonStates.setLocked(preset);
         setLocaleButtonDisabled();
     }
 
@@ -469,24 +536,22 @@ public class PresetsWindowController {
             return;
         }
 
-        videoPresets.get(selected).setEditable(false);
+        VideoPreset preset = videoPresets.get(selected).get();
+        if (preset == null)
+            return; // could not be loaded, has no buttons
+        preset.setEditable(false);
 
         // test for the existence of a backup
-        if (! presetBackups.containsKey(videoPresets.get(selected).getPaneId())) {
+        VideoPreset backup = presetBackups.remove(preset.getPaneId());
+        if (backup == null) {
             // If no backup, assume preset is a newly added not saved preset, delete it directly
             videoPresets.remove(selected);
-            updatePresetList();
             setLocaleButtonDisabled();
             return;
-        } else {
-            // restore backup
-            videoPresets.set(selected, presetBackups.get(videoPresets.get(selected).getPaneId()));
-            videoPresets.get(selected).getPane().prefWidthProperty().bind(listPresets.widthProperty().subtract(35));
-            presetBackups.remove(videoPresets.get(selected).getPaneId());
         }
-
-        buttonStates.setLocked(videoPresets.get(selected));
-        updatePresetList();
+        // restore backup, the cell showing the preset moves its pane to the backup
+        buttonStates.setLocked(backup);
+        videoPresets.set(selected, new PresetEntry(backup.getPaneId(), backup.getPresetName(), backup));
         setLocaleButtonDisabled();
     }
 
@@ -502,17 +567,19 @@ public class PresetsWindowController {
             System.err.println("Non-existing delete button was pressed!!!");
             return;
         }
+        VideoPreset preset = videoPresets.get(selected).get();
+        if (preset == null)
+            return; // could not be loaded, has no buttons
         String desc = String.format(transPresetWin.getString("diag_presetDelete_full"),
-                videoPresets.get(selected).getPresetName());
+                preset.getPresetName());
 
         ButtonType userChoice = AlertUtils.yesNo(transPresetWin.getString("diag_presetDelete_short"),
                 desc, ButtonType.NO);
         if (userChoice == ButtonType.YES) {
-            if (!configManager.deletePreset(videoPresets.get(selected).getPresetName())) {
+            if (!configManager.deletePreset(preset.getPresetName())) {
                 AlertUtils.simpleClose(transBasic.getString("error"), "Could not delete preset").show();
             } else {
                 videoPresets.remove(selected);
-                updatePresetList();
                 setLocaleButtonDisabled();
             }
         } //else if ButtonType.NO or closed [X] do nothing
@@ -531,25 +598,24 @@ public class PresetsWindowController {
             return;
         }
 
-        VideoPreset orig = videoPresets.get(selected);
+        VideoPreset orig = videoPresets.get(selected).get();
+        if (orig == null)
+            return; // could not be loaded, has no buttons
         VideoPreset copy = orig.copy(PRESET_PANE_ID_PREFIX + presetCounter);
         copy.setPresetName(transPresetWin.getString("copyOf") + orig.getPresetName());
-        copy.getPane().prefWidthProperty().bind(listPresets.widthProperty().subtract(35));
         copy.setThumbnailCursorEventHandler(this::updateCursor);
 
-        transPreset.autoTranslate(copy.getPane(), copy.getPaneId());
         buttonStates.setEditing(copy);
-        videoPresets.add(selected + 1, copy); // add right after original in list
+        videoPresets.add(selected + 1, new PresetEntry(copy.getPaneId(), null, copy)); // add right after original in list
         onPresetEdit(PRESET_PANE_ID_PREFIX + presetCounter + "_fakeButton");
 
         // Change the cancel button to a delete button, the backed up state created by onEdit is not valid
         Button deleteButton = new Button(transBasic.getString("delete"));
         deleteButton.setId(PRESET_PANE_ID_PREFIX + presetCounter + BUTTON_DELETE);
         deleteButton.setOnMouseClicked(event -> onPresetDelete(deleteButton.getId()));
-        videoPresets.get(videoPresets.size() - 1).setButton2(deleteButton);
+        copy.setButton2(deleteButton);
 
         presetCounter++;
-        updatePresetList();
         listPresets.scrollTo(selected + 1);
     }
 }
\ No newline at end of file
@@ -8,6 +8,8 @@ import com.google.api.client.http.InputStreamContent;
 import com.google.api.client.util.ExponentialBackOff;
 import com.google.api.services.youtube.YouTube;
 import com.google.api.services.youtube.model.*;
+import io.github.stekeblad.videouploader.utils.background.ThumbnailPreprocessor;
+import io.github.stekeblad.videouploader.utils.background.Timings;
 import io.github.stekeblad.videouploader.utils.translation.TranslationBundles;
 import io.github.stekeblad.videouploader.utils.translation.Translations;
 import io.github.stekeblad.videouploader.utils.translation.TranslationsManager;
@@ -23,6 +25,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
@@ -134,11 +137,15 @@ public class Uploader {
     }
 
     /**
-     * Adds video to the upload list. This method is threadsafe.
+     * Adds video to the upload list. This method should be called on the JavaFX thread if video has a pane.
      * @param video video to upload
      * @param cancelName String to use for aborting the upload (and used to report that its finished if a callback is set)
      */
     public void add(VideoUpload video, String cancelName) {
+        // Take a snapshot of the details now, the upload thread should not read from the UI
+        VideoDetails details = video.getDetails();
+        // The frame thumbnail may not be created yet, it is waited for after the video is uploaded
+        boolean autoThumbnail = video.isAutoThumbnail();
         // Create the task
         Task newTask = new Task<Void>() {
             @Override
@@ -153,7 +160,7 @@ public class Uploader {
                         throw new RuntimeException("INTERRUPTED");
                     }
                     // now, upload!
-                    upload(video);
+                    upload(video, details, autoThumbnail);
                 } catch (Exception e) {
                     // if not interrupted by the user, print the error and call error handler if it is set
                     if (e.getMessage() != null && !e.getMessage().equals("INTERRUPTED")) {
@@ -191,19 +198,21 @@ public class Uploader {
 
     /**
      * Does the uploading.
-     * @param video a VideoUpload with all the details needed for uploading
+     * @param video a VideoUpload to report the progress to
+     * @param details a snapshot of the details of the video, taken when it was added so the UI is not read from this thread
+     * @param autoThumbnail true if a frame from the video should be used as thumbnail when details has no thumbnail
      * @throws IOException if the user aborts the upload while it is uploading, there is a exception while reading the video
      * or thumbnail file or there is a network error that could not be handled.
      */
-    private void upload(VideoUpload video) throws IOException {
+    private void upload(VideoUpload video, VideoDetails details, boolean autoThumbnail) throws IOException {
 
         // debug thing to force error
-        if (video.getVideoName().equals("forceUploadFailure")) {
+        if (details.getVideoName().equals("forceUploadFailure")) {
             throw new RuntimeException("forced by filename.\nThe filename used is reserved for testing, uploads with this " +
                     "name will ALWAYS fail");
         }
         // debug thing to force error after a 10 seconds delay
-        if (video.getVideoName().equals("forceUploadFailure_delayed")) {
+        if (details.getVideoName().equals("forceUploadFailure_delayed")) {
             try {
                 Thread.sleep(1000 * 10);
             } catch (InterruptedException e) {
@@ -220,7 +229,7 @@ public class Uploader {
                 throw new IOException("INTERRUPTED");
         }
         // debug for testing daily upload limit exceeded
-        if (video.getVideoName().equals("forceDailyLimit")) {
+        if (details.getVideoName().equals("forceDailyLimit")) {
             throw new RuntimeException("The daily upload limit has been reached. (quotaExceeded)");
         }
 
@@ -236,14 +245,14 @@ public class Uploader {
         Video videoObject = new Video();
 
         videoObject.setStatus(
-                new VideoStatus().setPrivacyStatus(video.getVisibility().getStatusName())
-                        .setSelfDeclaredMadeForKids(video.isMadeForKids()));
+                new VideoStatus().setPrivacyStatus(details.getVisibility().getStatusName())
+                        .setSelfDeclaredMadeForKids(details.isMadeForKids()));
 
         VideoSnippet videoMetaData = new VideoSnippet();
-        videoMetaData.setTitle(video.getVideoName());
-        videoMetaData.setDescription(video.getVideoDescription());
-        videoMetaData.setTags(video.getVideoTags());
-        videoMetaData.setCategoryId(categoryUtils.getCategoryId(video.getCategory()));
+        videoMetaData.setTitle(details.getVideoName());
+        videoMetaData.setDescription(details.getVideoDescription());
+        videoMetaData.setTags(details.getVideoTags());
+        videoMetaData.setCategoryId(categoryUtils.getCategoryId(details.getCategory()));
 
         videoObject.setSnippet(videoMetaData);
         InputStreamContent videoFileStream;
@@ -264,12 +273,13 @@ public class Uploader {
         YouTube.Videos.Insert videoInsert = myTube.videos()
                 .insert(videoParts, videoObject, videoFileStream);
 
-        videoInsert.setNotifySubscribers(video.isTellSubs());
+        videoInsert.setNotifySubscribers(details.isTellSubs());
 
         // getMediaHttpUploader for being able to report progress
         MediaHttpUploader uploader = videoInsert.getMediaHttpUploader();
         uploader.setDirectUploadEnabled(false); // makes the upload resumable?
 
+        long uploadStart = Timings.start();
         MediaHttpUploaderProgressListener progressListener = uploader1 -> {
             // If abortUpload() has been called for this upload while it is uploading
             if (Thread.interrupted()) {
@@ -281,6 +291,7 @@ public class Uploader {
                     Platform.runLater(() -> video.setStatusLabelText(translationsUpload.getString("preparing")));
                     break;
                 case INITIATION_COMPLETE:
+                    Timings.INSTANCE.record("upload/initiation", uploadStart);
                     Platform.runLater(() -> video.setProgressBarProgress(0));
                     Platform.runLater(() -> video.setStatusLabelText(translationsUpload.getString("starting")));
                     break;
@@ -305,11 +316,17 @@ public class Uploader {
 
         // finally ready for upload!
         Video uploadedVideo = videoInsert.execute();
+        Timings.INSTANCE.record("upload/video", uploadStart);
 
-        // Set thumbnail if selected
-        if (video.getThumbNail() != null) {
+        // Set thumbnail if selected, or the frame from the video if it should be used
+        File selectedThumbnail = details.getThumbNail();
+        if (selectedThumbnail != null || autoThumbnail)
             Platform.runLater(() -> video.setStatusLabelText(translationsUpload.getString("thumbnail")));
-            File thumbFile = video.getThumbNail();
+        if (selectedThumbnail == null && autoThumbnail)
+            selectedThumbnail = waitForFrameThumbnail(video);
+        if (selectedThumbnail != null) {
+            // Scaled down and re-encoded if it is too large, usually already done in the background
+            File thumbFile = ThumbnailPreprocessor.INSTANCE.prepare(selectedThumbnail);
             String contentType = Files.probeContentType(Paths.get(thumbFile.toURI()));
 
             InputStreamContent thumbnailFileContent;
@@ -322,20 +339,22 @@ public class Uploader {
                         "\". It may have been deleted, moved or renamed since the upload was queued");
             }
             YouTube.Thumbnails.Set thumbnailSet = myTube.thumbnails().set(uploadedVideo.getId(), thumbnailFileContent);
+            long thumbnailStart = Timings.start();
             thumbnailSet.execute();
+            Timings.INSTANCE.record("upload/thumbnail set", thumbnailStart);
         }
         // Add to playlist if it is not null, empty or the "no selected" default value
-        String playlistString = video.getSelectedPlaylist();
+        String playlistString = details.getSelectedPlaylist();
         if (playlistString != null && !playlistString.equals("null") && !playlistString.equals("") &&
                 !playlistString.equals(translationsBasic.getString("noSelected"))) {
-            String newStatusText = String.format(translationsUpload.getString("playlist"), video.getSelectedPlaylist());
+            String newStatusText = String.format(translationsUpload.getString("playlist"), details.getSelectedPlaylist());
             Platform.runLater(() -> video.setStatusLabelText(newStatusText));
             ResourceId resourceId = new ResourceId();
             resourceId.setKind("youtube#video");
             resourceId.setVideoId(uploadedVideo.getId());
 
             PlaylistItemSnippet playlistSnippet = new PlaylistItemSnippet();
-            playlistSnippet.setPlaylistId(playlistUtils.getPlaylistId(video.getSelectedPlaylist()));
+            playlistSnippet.setPlaylistId(playlistUtils.getPlaylistId(details.getSelectedPlaylist()));
             playlistSnippet.setResourceId(resourceId);
 
             PlaylistItem playlistItem = new PlaylistItem();
@@ -344,11 +363,32 @@ public class Uploader {
             playlistParts.add("snippet");
             playlistParts.add("contentDetails");
             YouTube.PlaylistItems.Insert playlistInsert = myTube.playlistItems().insert(playlistParts, playlistItem);
+            long playlistStart = Timings.start();
             playlistInsert.execute();
+            Timings.INSTANCE.record("upload/playlist insert", playlistStart);
         }
         String link = "https://youtu.be/" + uploadedVideo.getId();
         String newStatusText = String.format(translationsUpload.getString("doneWithLink"), link);
         Platform.runLater(() -> video.setStatusLabelText(newStatusText));
         Platform.runLater(() -> video.setStatusLabelOnClickUrl(link));
     }
+
+    /**
+     * Waits for the thumbnail created from a frame of the video, it is usually done long before the video is uploaded
+     * @param video the upload to get the thumbnail for
+     * @return the thumbnail file or null if it could not be created, then the video keeps the default thumbnail
+     * @throws IOException if the upload is aborted while waiting
+     */
+    private File waitForFrameThumbnail(VideoUpload video) throws IOException {
+        try {
+            return video.getFrameThumbnail().get();
+        } catch (InterruptedException e) {
+            throw new IOException("INTERRUPTED");
+        } catch (ExecutionException e) {
+            // Not critical, the video is uploaded without a custom thumbnail
+            System.err.println("Could not create a thumbnail from the video \"" + video.getVideoFile().getName() + "\"");
+            e.printStackTrace();
+            return null;
+        }
+    }
 }
@@ -0,0 +1,276 @@
+package io.github.stekeblad.videouploader.youtube;
+
+import io.github.stekeblad.videouploader.utils.RecordReader;
+import io.github.stekeblad.videouploader.utils.RecordWriter;
+import io.github.stekeblad.videouploader.youtube.utils.VisibilityStatus;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * An immutable description of a video, the information that is shared between presets and uploads. VideoDetails does
+ * not create any UI and is therefore safe to create and pass around on background threads, the UI classes
+ * VideoInformationBase, VideoUpload and VideoPreset only build their panes from it when they are shown.
+ * <p>
+ * Use the VideoDetails.Builder to create a new instance or a modified copy of an existing instance.
+ */
+public final class VideoDetails {
+
+    // Field names used in the string representation, same as the node ids in VideoInformationBase
+    static final String KEY_TITLE = "_title";
+    static final String KEY_DESCRIPTION = "_description";
+    static final String KEY_CATEGORY = "_category";
+    static final String KEY_TAGS = "_tags";
+    static final String KEY_PLAYLIST = "_playlist";
+    static final String KEY_VISIBILITY = "_visibility";
+    static final String KEY_TELL_SUBS = "_tellSubs";
+    static final String KEY_THUMBNAIL = "_thumbNail";
+    static final String KEY_MADE_FOR_KIDS = "_madeForKids";
+
+    private final String videoName;
+    private final String videoDescription;
+    private final VisibilityStatus visibility;
+    private final List<String> videoTags;
+    private final String selectedPlaylist;
+    private final String category;
+    private final boolean tellSubs;
+    private final String thumbNailPath;
+    private final boolean madeForKids;
+
+    private VideoDetails(Builder builder) {
+        videoName = builder.videoName == null ? "" : builder.videoName;
+        videoDescription = builder.videoDescription == null ? "" : builder.videoDescription;
+        visibility = builder.visibility == null ? VisibilityStatus.PUBLIC : builder.visibility;
+        if (builder.videoTags == null) {
+            videoTags = Collections.emptyList();
+        } else {
+            videoTags = Collections.unmodifiableList(new ArrayList<>(builder.videoTags));
+        }
+        selectedPlaylist = builder.selectedPlaylist;
+        category = builder.category;
+        tellSubs = builder.tellSubs;
+        if (builder.thumbNailPath == null || builder.thumbNailPath.equals("_")) {
+            thumbNailPath = null;
+        } else {
+            thumbNailPath = builder.thumbNailPath;
+        }
+        madeForKids = builder.madeForKids;
+    }
+
+    // Getters
+
+    public String getVideoName() {
+        return videoName;
+    }
+
+    public String getVideoDescription() {
+        return videoDescription;
+    }
+
+    public VisibilityStatus getVisibility() {
+        return visibility;
+    }
+
+    /**
+     * @return an unmodifiable list with the tags, copy it before modifying
+     */
+    public List<String> getVideoTags() {
+        return videoTags;
+    }
+
+    public String getSelectedPlaylist() {
+        return selectedPlaylist;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public boolean isTellSubs() {
+        return tellSubs;
+    }
+
+    /**
+     * @return the path to the selected thumbnail or null if no custom thumbnail is selected
+     */
+    public String getThumbNailPath() {
+        return thumbNailPath;
+    }
+
+    /**
+     * @return the selected thumbnail file or null if no custom thumbnail is selected
+     */
+    public File getThumbNail() {
+        return thumbNailPath == null ? null : new File(thumbNailPath);
+    }
+
+    public boolean isMadeForKids() {
+        return madeForKids;
+    }
+
+    /**
+     * Used for building a VideoDetails one attribute at the time.
+     * Call build() to get a real VideoDetails when you are done setting attributes.
+     */
+    public static class Builder {
+        private String videoName;
+        private String videoDescription;
+        private VisibilityStatus visibility;
+        private List<String> videoTags;
+        private String selectedPlaylist;
+        private String category;
+        private boolean tellSubs;
+        private String thumbNailPath;
+        private boolean madeForKids;
+
+        public Builder() {
+        }
+
+        /**
+         * Creates a Builder with all attributes set to the values in an existing VideoDetails
+         *
+         * @param original the VideoDetails to copy the attributes from
+         */
+        public Builder(VideoDetails original) {
+            videoName = original.videoName;
+            videoDescription = original.videoDescription;
+            visibility = original.visibility;
+            videoTags = original.videoTags;
+            selectedPlaylist = original.selectedPlaylist;
+            category = original.category;
+            tellSubs = original.tellSubs;
+            thumbNailPath = original.thumbNailPath;
+            madeForKids = original.madeForKids;
+        }
+
+        public Builder setVideoName(String videoName) {
+            this.videoName = videoName;
+            return this;
+        }
+
+        public Builder setVideoDescription(String videoDescription) {
+            this.videoDescription = videoDescription;
+            return this;
+        }
+
+        public Builder setVisibility(VisibilityStatus visibility) {
+            this.visibility = visibility;
+            return this;
+        }
+
+        public Builder setVideoTags(List<String> videoTags) {
+            this.videoTags = videoTags;
+            return this;
+        }
+
+        public Builder setSelectedPlaylist(String selectedPlaylist) {
+            this.selectedPlaylist = selectedPlaylist;
+            return this;
+        }
+
+        public Builder setCategory(String category) {
+            this.category = category;
+            return this;
+        }
+
+        public Builder setTellSubs(boolean tellSubs) {
+            this.tellSubs = tellSubs;
+            return this;
+        }
+
+        public Builder setThumbNailPath(String thumbNailPath) {
+            this.thumbNailPath = thumbNailPath;
+            return this;
+        }
+
+        public Builder setMadeForKids(boolean madeForKids) {
+            this.madeForKids = madeForKids;
+            return this;
+        }
+
+        public VideoDetails build() {
+            return new VideoDetails(this);
+        }
+    }
+
+    // Serialization
+
+    /**
+     * Reconstructs a VideoDetails from a string created by toString(), or by an older version of the program.
+     * Fields with other names (like the ones added by VideoUpload and VideoPreset) are ignored.
+     *
+     * @param fromString The string representation of a VideoDetails
+     * @return the VideoDetails described by fromString
+     * @throws Exception If the string could not be converted to a VideoDetails
+     */
+    public static VideoDetails fromString(String fromString) throws Exception {
+        return fromRecord(RecordReader.parse(fromString));
+    }
+
+    /**
+     * Reconstructs a VideoDetails from the fields in an already read record
+     *
+     * @param record the fields of a VideoDetails, VideoUpload or VideoPreset
+     * @return the VideoDetails described by record
+     * @throws Exception If the fields could not be converted to a VideoDetails
+     */
+    static VideoDetails fromRecord(RecordReader record) throws Exception {
+        Builder builder = new Builder()
+                .setVideoName(record.get(KEY_TITLE))
+                .setVideoDescription(record.get(KEY_DESCRIPTION))
+                .setVideoTags(record.getList(KEY_TAGS))
+                .setSelectedPlaylist(record.get(KEY_PLAYLIST))
+                .setCategory(record.get(KEY_CATEGORY))
+                .setTellSubs(record.getBoolean(KEY_TELL_SUBS))
+                .setThumbNailPath(record.get(KEY_THUMBNAIL))
+                .setMadeForKids(record.getBoolean(KEY_MADE_FOR_KIDS));
+        String visibility = record.get(KEY_VISIBILITY);
+        if (visibility != null) {
+            builder.setVisibility(VisibilityStatus.valueOf(visibility));
+        }
+        return builder.build();
+    }
+
+    /**
+     * Writes all fields of this VideoDetails to writer
+     *
+     * @param writer the RecordWriter used for creating the string representation of a VideoDetails,
+     *               VideoUpload or VideoPreset
+     */
+    void writeTo(RecordWriter writer) {
+        String thumbnailSave = null; // no thumbnail set, default is selected
+        if (thumbNailPath != null) {
+            // Attempt to get the path of the thumbnail and if it fails fall back to the default thumbnail.
+            try {
+                thumbnailSave = new File(thumbNailPath).getCanonicalPath();
+            } catch (IOException e) {
+                System.err.println("Failed getting the path of the thumbnail while creating a string of " + videoName);
+            }
+        }
+        writer.write(KEY_TITLE, videoName)
+                .write(KEY_DESCRIPTION, videoDescription)
+                .write(KEY_VISIBILITY, visibility.getStatusName().toUpperCase())
+                .writeList(KEY_TAGS, videoTags)
+                .write(KEY_PLAYLIST, selectedPlaylist)
+                .write(KEY_CATEGORY, category)
+                .write(KEY_TELL_SUBS, tellSubs)
+                .write(KEY_THUMBNAIL, thumbnailSave)
+                .write(KEY_MADE_FOR_KIDS, madeForKids);
+    }
+
+    /**
+     * Creates a string representation of the class that can be saved and later used to recreate the class
+     * with fromString(String)
+     *
+     * @return A String representation of this class
+     */
+    @Override
+    public String toString() {
+        RecordWriter writer = new RecordWriter();
+        writeTo(writer);
+        return writer.toString();
+    }
+}
@@ -1,6 +1,10 @@
 package io.github.stekeblad.videouploader.youtube;
 
+import io.github.stekeblad.videouploader.jfxExtension.SearchableComboBox;
+import io.github.stekeblad.videouploader.utils.RecordReader;
+import io.github.stekeblad.videouploader.utils.RecordWriter;
 import io.github.stekeblad.videouploader.utils.background.OpenInBrowser;
+import io.github.stekeblad.videouploader.utils.background.ThumbnailCache;
 import io.github.stekeblad.videouploader.youtube.utils.CategoryUtils;
 import io.github.stekeblad.videouploader.youtube.utils.PlaylistUtils;
 import io.github.stekeblad.videouploader.youtube.utils.VisibilityStatus;
@@ -9,8 +13,8 @@ import javafx.collections.ObservableList;
 import javafx.event.EventHandler;
 import javafx.geometry.Side;
 import javafx.scene.Node;
+import javafx.scene.Parent;
 import javafx.scene.control.*;
-import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import javafx.scene.input.MouseEvent;
 import javafx.scene.layout.*;
@@ -34,6 +38,8 @@ public class VideoInformationBase {
     // Constants
     public static final List<String> THUMBNAIL_FILE_FORMAT = Arrays.asList("*.jpg", "*.png");
     public static final long MAX_THUMB_SIZE = 2 * 1024 * 1024;
+    // Larger thumbnails than MAX_THUMB_SIZE can be selected, they are scaled down by ThumbnailPreprocessor
+    public static final long MAX_THUMB_SOURCE_SIZE = 50 * 1024 * 1024;
 
     private static final String NODE_ID_TITLE = "_title";
     private static final String NODE_ID_DESCRIPTION = "_description";
@@ -48,10 +54,13 @@ public class VideoInformationBase {
     private static final String NODE_ID_BUTTONSBOX = "_buttons";
 
     // Variables
-    private GridPane videoBasePane;
+    private VideoDetails details;
+    private GridPane videoBasePane = null;
     private final String paneId;
-    private File thumbNailFile;
     private boolean allowEdit;
+    private final Button[] buttons = new Button[3];
+    private EventHandler<MouseEvent> thumbnailClickHandler = null;
+    private ContextMenu thumbnailContextMenu = null;
     private final CategoryUtils categoryUtils = CategoryUtils.INSTANCE;
     private final PlaylistUtils playlistUtils = PlaylistUtils.INSTANCE;
     Consumer<Boolean> thumbnailCursorEventHandler = null;
@@ -62,33 +71,33 @@ public class VideoInformationBase {
      * @return returns the Id of the button in the first button slot. Can be used to know what button is there at the moment
      */
     public String getButton1Id() {
-        HBox buttonBox = ensureButtonBox();
-        ensureButtonExistence(buttonBox, 1);
-        return buttonBox.getChildren().get(0).getId();
+        return getButtonId(0);
     }
 
     /**
      * @return returns the Id of the button in the second button slot. Can be used to know what button is there at the moment
      */
     public String getButton2Id() {
-        HBox buttonBox = ensureButtonBox();
-        ensureButtonExistence(buttonBox, 2);
-        return buttonBox.getChildren().get(1).getId();
+        return getButtonId(1);
     }
 
     /**
      * @return returns the Id of the button in the third button slot. Can be used to know what button is there at the moment
      */
     public String getButton3Id() {
-        HBox buttonBox = ensureButtonBox();
-        ensureButtonExistence(buttonBox, 3);
-        return buttonBox.getChildren().get(2).getId();
+        return getButtonId(2);
+    }
+
+    private String getButtonId(int slot) {
+        return buttons[slot] == null ? null : buttons[slot].getId();
     }
 
     /**
      * @return the content of the video name TextField
      */
     public String getVideoName() {
+        if (videoBasePane == null)
+            return details.getVideoName();
         return ((TextField) videoBasePane.lookup("#" + paneId + NODE_ID_TITLE)).getText();
     }
 
@@ -96,6 +105,8 @@ public class VideoInformationBase {
      * @return returns the content of the video description TextArea
      */
     public String getVideoDescription() {
+        if (videoBasePane == null)
+            return details.getVideoDescription();
         return ((TextArea) videoBasePane.lookup("#" + paneId + NODE_ID_DESCRIPTION)).getText();
     }
 
@@ -104,6 +115,8 @@ public class VideoInformationBase {
      */
     @SuppressWarnings("unchecked")
     public VisibilityStatus getVisibility() {
+        if (videoBasePane == null)
+            return details.getVisibility();
         return VisibilityStatus.valueOf(((ChoiceBox<String>) videoBasePane.lookup("#" + paneId + NODE_ID_VISIBILITY)).getSelectionModel().getSelectedItem().toUpperCase());
     }
 
@@ -111,23 +124,25 @@ public class VideoInformationBase {
      * @return returns the tags in the tags TextArea as a ArrayList of Strings, the tags are split on ", "
      */
     public List<String> getVideoTags() {
+        if (videoBasePane == null)
+            return new ArrayList<>(details.getVideoTags());
         return new ArrayList<>(Arrays.asList(((TextArea) videoBasePane.lookup("#" + paneId + NODE_ID_TAGS)).getText().split(", ")));
     }
 
     /**
-     * @return returns the name of the selected playlist in the playlist ChoiceBox
+     * @return returns the name of the selected playlist in the playlist SearchableComboBox
      */
-    @SuppressWarnings("unchecked")
     public String getSelectedPlaylist() {
-        return ((ChoiceBox<String>) videoBasePane.lookup("#" + paneId + NODE_ID_PLAYLIST)).getSelectionModel().getSelectedItem();
+        if (videoBasePane == null)
+            return details.getSelectedPlaylist();
+        return ((SearchableComboBox) videoBasePane.lookup("#" + paneId + NODE_ID_PLAYLIST)).getSelectionModel().getSelectedItem();
     }
 
     /**
-     * @return a list of all strings that currently is in the playlist ChoiceBox
+     * @return a list of all strings that currently is in the playlist SearchableComboBox
      */
-    @SuppressWarnings("unchecked")
     private List<String> getPlaylistChoices() {
-        return ((ChoiceBox<String>) videoBasePane.lookup("#" + paneId + NODE_ID_PLAYLIST)).getItems();
+        return ((SearchableComboBox) videoBasePane.lookup("#" + paneId + NODE_ID_PLAYLIST)).getAllItems();
     }
 
     /**
@@ -135,6 +150,8 @@ public class VideoInformationBase {
      */
     @SuppressWarnings("unchecked")
     public String getCategory() {
+        if (videoBasePane == null)
+            return details.getCategory();
         return ((ChoiceBox<String>) videoBasePane.lookup("#" + paneId + NODE_ID_CATEGORY)).getSelectionModel().getSelectedItem();
     }
 
@@ -151,6 +168,8 @@ public class VideoInformationBase {
      */
     @SuppressWarnings("unchecked")
     public boolean isTellSubs() { // only two choices, do notify subscribers is the second choice (index 1)
+        if (videoBasePane == null)
+            return details.isTellSubs();
         return (((ChoiceBox<String>) videoBasePane.lookup("#" + paneId + NODE_ID_TELL_SUBS)).getSelectionModel().isSelected(1));
     }
 
@@ -158,17 +177,43 @@ public class VideoInformationBase {
      * @return returns the selected thumbnail file or null if no custom thumbnail is selected
      */
     public File getThumbNail() {
-        if (thumbNailFile == null || thumbNailFile.getName().equals("_")) {
-            return null;
-        } else {
-            return thumbNailFile;
-        }
+        return details.getThumbNail();
     }
 
     public boolean isMadeForKids() {
+        if (videoBasePane == null)
+            return details.isMadeForKids();
         return ((CheckBox) videoBasePane.lookup("#" + paneId + NODE_ID_MADE_FOR_KIDS)).isSelected();
     }
 
+    /**
+     * Returns the current details of this item as an immutable VideoDetails. If the pane has been created the values
+     * are read from it so edits made by the user is included. The returned object can safely be used from other threads.
+     *
+     * @return a snapshot of the current video details
+     */
+    public VideoDetails getDetails() {
+        if (videoBasePane == null)
+            return details;
+        return new VideoDetails.Builder(details)
+                .setVideoName(getVideoName())
+                .setVideoDescription(getVideoDescription())
+                .setVisibility(getVisibility())
+                .setVideoTags(getVideoTags())
+                .setSelectedPlaylist(getSelectedPlaylist())
+                .setCategory(getCategory())
+                .setTellSubs(isTellSubs())
+                .setMadeForKids(isMadeForKids())
+                .build();
+    }
+
+    /**
+     * @return true if the fields on the pane is editable
+     */
+    public boolean isEditable() {
+        return allowEdit;
+    }
+
     /**
      * @return returns the id of the Pane
      */
@@ -177,9 +222,32 @@ public class VideoInformationBase {
     }
 
     /**
+     * Returns the UI Pane. The pane is not created until this method is called for the first time so items that
+     * is never shown on screen does not need to create any UI.
+     *
      * @return returns the entire UI Pane.
      */
     public GridPane getPane() {
+        if (videoBasePane == null) {
+            makeVideoBasePane();
+            extendPane(videoBasePane);
+            fillPane();
+        }
+        return videoBasePane;
+    }
+
+    /**
+     * @param pane a pane
+     * @return true if pane is not null and is the pane currently used by this item
+     */
+    public boolean hasPane(GridPane pane) {
+        return pane != null && videoBasePane == pane;
+    }
+
+    /**
+     * @return the UI Pane if it has been created, else null
+     */
+    GridPane getCreatedPane() {
         return videoBasePane;
     }
 
@@ -194,9 +262,7 @@ public class VideoInformationBase {
         if (btn1 == null)
             throw new IllegalArgumentException("Button 1 parameter can not be null");
 
-        HBox buttonBox = ensureButtonBox();
-        ensureButtonExistence(buttonBox, 1);
-        buttonBox.getChildren().set(0, btn1);
+        setButton(btn1, 0);
     }
 
     /**
@@ -208,9 +274,7 @@ public class VideoInformationBase {
         if (btn2 == null)
             throw new IllegalArgumentException("Button 2 parameter can not be null");
 
-        HBox buttonBox = ensureButtonBox();
-        ensureButtonExistence(buttonBox, 2);
-        buttonBox.getChildren().set(1, btn2);
+        setButton(btn2, 1);
     }
 
     /**
@@ -222,9 +286,19 @@ public class VideoInformationBase {
         if (btn3 == null)
             throw new IllegalArgumentException("Button 3 parameter can not be null");
 
-        HBox buttonBox = ensureButtonBox();
-        ensureButtonExistence(buttonBox, 3);
-        buttonBox.getChildren().set(2, btn3);
+        setButton(btn3, 2);
+    }
+
+    /**
+     * Remembers the button for when the pane is created and places it on the pane if it already exists
+     */
+    private void setButton(Button btn, int slot) {
+        buttons[slot] = btn;
+        if (videoBasePane != null) {
+            HBox buttonBox = ensureButtonBox();
+            ensureButtonExistence(buttonBox, slot + 1);
+            buttonBox.getChildren().set(slot, btn);
+        }
     }
 
     /**
@@ -267,15 +341,29 @@ public class VideoInformationBase {
      */
     public void setEditable(boolean newEditStatus) {
         allowEdit = newEditStatus;
-        ((TextField) videoBasePane.lookup("#" + paneId + NODE_ID_TITLE)).setEditable(newEditStatus);
-        ((TextArea) videoBasePane.lookup("#" + paneId + NODE_ID_DESCRIPTION)).setEditable(newEditStatus);
-        videoBasePane.lookup("#" + paneId + NODE_ID_CATEGORY).setDisable(!newEditStatus);
-        ((TextArea) videoBasePane.lookup("#" + paneId + NODE_ID_TAGS)).setEditable(newEditStatus);
-        videoBasePane.lookup("#" + paneId + NODE_ID_PLAYLIST).setDisable(!newEditStatus);
-        videoBasePane.lookup("#" + paneId + NODE_ID_VISIBILITY).setDisable(!newEditStatus);
-        videoBasePane.lookup("#" + paneId + NODE_ID_TELL_SUBS).setDisable(!newEditStatus);
-        videoBasePane.lookup("#" + paneId + NODE_ID_MADE_FOR_KIDS).setDisable(!newEditStatus);
-        if (newEditStatus) {
+        if (!newEditStatus) {
+            // Disable thumbnail click
+            thumbnailClickHandler = null;
+            thumbnailContextMenu = null;
+        }
+        if (videoBasePane != null) {
+            applyEditable();
+        }
+    }
+
+    /**
+     * Updates the nodes on the pane to match the value of allowEdit
+     */
+    private void applyEditable() {
+        ((TextField) videoBasePane.lookup("#" + paneId + NODE_ID_TITLE)).setEditable(allowEdit);
+        ((TextArea) videoBasePane.lookup("#" + paneId + NODE_ID_DESCRIPTION)).setEditable(allowEdit);
+        videoBasePane.lookup("#" + paneId + NODE_ID_CATEGORY).setDisable(!allowEdit);
+        ((TextArea) videoBasePane.lookup("#" + paneId + NODE_ID_TAGS)).setEditable(allowEdit);
+        videoBasePane.lookup("#" + paneId + NODE_ID_PLAYLIST).setDisable(!allowEdit);
+        videoBasePane.lookup("#" + paneId + NODE_ID_VISIBILITY).setDisable(!allowEdit);
+        videoBasePane.lookup("#" + paneId + NODE_ID_TELL_SUBS).setDisable(!allowEdit);
+        videoBasePane.lookup("#" + paneId + NODE_ID_MADE_FOR_KIDS).setDisable(!allowEdit);
+        if (allowEdit) {
             // check valid status of category and playlist, update available choices if needed
             List<String> playlistChoices = playlistUtils.getVisiblePlaylistNames();
             if (!getPlaylistChoices().equals(playlistChoices)) {
@@ -285,11 +373,8 @@ public class VideoInformationBase {
             if (!getCategoryChoices().equals(categories)) {
                 setCategories(categories);
             }
-        } else {
-            // Disable thumbnail click
-            setOnThumbnailClicked(null);
-            setThumbnailContextMenu(null);
         }
+        applyThumbnailHandlers();
     }
 
     /**
@@ -301,16 +386,36 @@ public class VideoInformationBase {
         if (!allowEdit) {
             throw new Exception("Edit not allowed");
         } else {
-            if (thumbnail == null) {
-                //reset to default
-                thumbNailFile = null;
-                ((ImageView) videoBasePane.lookup("#" + paneId + NODE_ID_THUMBNAIL)).setImage(
-                        new Image(this.getClass().getResourceAsStream("/images/no_image.png")));
-            } else {
-                ((ImageView) videoBasePane.lookup("#" + paneId + NODE_ID_THUMBNAIL)).setImage(
-                        new Image(new FileInputStream(thumbnail)));
-                thumbNailFile = thumbnail;
+            if (thumbnail != null && !thumbnail.isFile()) {
+                throw new FileNotFoundException("Could not find the thumbnail file \"" + thumbnail.getAbsolutePath() + "\"");
             }
+            // null resets to default
+            details = new VideoDetails.Builder(details)
+                    .setThumbNailPath(thumbnail == null ? null : thumbnail.getPath())
+                    .build();
+            if (videoBasePane != null) {
+                ThumbnailCache.INSTANCE.loadInto(
+                        (ImageView) videoBasePane.lookup("#" + paneId + NODE_ID_THUMBNAIL), thumbnail);
+            }
+        }
+    }
+
+    /**
+     * Sets a thumbnail that was generated by the program, like a frame from the video. Unlike setThumbNailFile this
+     * works even if editing is not allowed, but it does nothing if a thumbnail already is selected so a thumbnail
+     * the user picked while the generated one was being created is not replaced.
+     * @param thumbnail the generated thumbnail image file
+     */
+    public void setGeneratedThumbNail(File thumbnail) {
+        if (thumbnail == null || !thumbnail.isFile() || details.getThumbNail() != null) {
+            return;
+        }
+        details = new VideoDetails.Builder(details)
+                .setThumbNailPath(thumbnail.getPath())
+                .build();
+        if (videoBasePane != null) {
+            ThumbnailCache.INSTANCE.loadInto(
+                    (ImageView) videoBasePane.lookup("#" + paneId + NODE_ID_THUMBNAIL), thumbnail);
         }
     }
 
@@ -323,16 +428,32 @@ public class VideoInformationBase {
      * @param clickEvent a handler for the click event
      */
     public void setOnThumbnailClicked(EventHandler<MouseEvent> clickEvent) {
-        videoBasePane.lookup("#" + paneId + NODE_ID_THUMBNAIL).setOnMouseClicked(clickEvent);
+        thumbnailClickHandler = clickEvent;
+        if (videoBasePane != null) {
+            applyThumbnailHandlers();
+        }
     }
 
     public void setThumbnailContextMenu(ContextMenu menu) {
-        videoBasePane.lookup("#" + paneId + NODE_ID_THUMBNAIL).setOnContextMenuRequested(event -> {
+        thumbnailContextMenu = menu;
+        if (videoBasePane != null) {
+            applyThumbnailHandlers();
+        }
+    }
+
+    /**
+     * Hooks up the thumbnail click handler and context menu with the thumbnail on the pane
+     */
+    private void applyThumbnailHandlers() {
+        Node thumbnail = videoBasePane.lookup("#" + paneId + NODE_ID_THUMBNAIL);
+        thumbnail.setOnMouseClicked(thumbnailClickHandler);
+        ContextMenu menu = thumbnailContextMenu;
+        thumbnail.setOnContextMenuRequested(event -> {
             event.consume();
             if (menu == null) {
                 return;
             }
-            menu.show(videoBasePane.lookup("#" + paneId + NODE_ID_THUMBNAIL), Side.BOTTOM, 0, -50);
+            menu.show(thumbnail, Side.BOTTOM, 0, -50);
         });
     }
 
@@ -349,27 +470,26 @@ public class VideoInformationBase {
     }
 
     /**
-     * Sets the strings that will appear in the playlists ChoiceBox
+     * Sets the strings that will appear in the playlists SearchableComboBox
      * If there already are some playlists set the method will attempt to keep the currently selected item selected
      * if it still exist, else it will selected the item at index 0.
      * If null or a empty list is provided no change will be done
      * @param playlistNames A ArrayList with the names of all playlists
      */
-    @SuppressWarnings("unchecked")
     private void setPlaylistChoices(List<String> playlistNames) {
         if (playlistNames == null || playlistNames.size() == 0) {
             return;
         }
-        // Get the ChoiceBox and currently selected item
-        ChoiceBox<String> choiceBox = (ChoiceBox<String>) videoBasePane.lookup("#" + paneId + NODE_ID_PLAYLIST);
+        // Get the SearchableComboBox and currently selected item
+        SearchableComboBox choiceBox = (SearchableComboBox) videoBasePane.lookup("#" + paneId + NODE_ID_PLAYLIST);
         String selected = choiceBox.getValue();
-        // Change the items in the list
-        choiceBox.itemsProperty().set(FXCollections.observableList(playlistNames));
+        // Change the items in the list, only the changed names is updated in its search index
+        choiceBox.setAllItems(playlistNames);
         // Check if the selected item is still available and if so select it, else select item at index 0
         if (selected == null) {
             choiceBox.getSelectionModel().select(0);
         } else {
-            if (choiceBox.getItems().contains(selected)) {
+            if (choiceBox.hasItem(selected)) {
                 choiceBox.getSelectionModel().select(selected);
             } else {
                 choiceBox.getSelectionModel().select(0);
@@ -389,7 +509,10 @@ public class VideoInformationBase {
     }
 
     public void setMadeForKids(boolean madeForKids) {
-        ((CheckBox) videoBasePane.lookup("#" + paneId + NODE_ID_MADE_FOR_KIDS)).setSelected(madeForKids);
+        details = new VideoDetails.Builder(details).setMadeForKids(madeForKids).build();
+        if (videoBasePane != null) {
+            ((CheckBox) videoBasePane.lookup("#" + paneId + NODE_ID_MADE_FOR_KIDS)).setSelected(madeForKids);
+        }
     }
 
     // other methods
@@ -409,106 +532,40 @@ public class VideoInformationBase {
     VideoInformationBase(String videoName, String videoDescription, VisibilityStatus visibility, List<String> videoTags,
                          String selectedPlaylist, String category, boolean tellSubs,
                          String thumbNailPath, boolean madeForKids, String paneId) {
-
-        if (visibility == null) { // optional, default to public
-            visibility = VisibilityStatus.PUBLIC;
-        }
+        this(new VideoDetails.Builder()
+                .setVideoName(videoName)
+                .setVideoDescription(videoDescription)
+                .setVisibility(visibility)
+                .setVideoTags(videoTags)
+                .setSelectedPlaylist(selectedPlaylist)
+                .setCategory(category)
+                .setTellSubs(tellSubs)
+                .setThumbNailPath(thumbNailPath)
+                .setMadeForKids(madeForKids)
+                .build(), paneId);
+    }
+
+    /**
+     * Creates a VideoInformationBase from a VideoDetails. No UI is created until getPane() is called.
+     * @param details The details of the video
+     * @param paneId A string used for naming all UI elements
+     */
+    VideoInformationBase(VideoDetails details, String paneId) {
+        if (details == null)
+            throw new IllegalArgumentException("details can not be null");
+        this.details = details;
         this.paneId = paneId;
-        if (thumbNailPath != null) {
-            this.thumbNailFile = new File(thumbNailPath);
-        } else {
-            this.thumbNailFile = null;
-        }
-        makeVideoBasePane(videoName, videoDescription, visibility, videoTags, selectedPlaylist,
-                category, tellSubs, thumbNailPath, madeForKids);
         allowEdit = false;
     }
 
     /**
-     * Reconstructs a VideoInformationBase form its string version created by calling toString()
-     * @param fromString The string representation of a VideoInformationBase
+     * Reconstructs a VideoInformationBase form the fields read from its string version created by calling toString()
+     * @param record The fields of the string representation of a VideoInformationBase
      * @param paneId A string used for naming all UI elements
-     * @throws Exception If the string could not be converted to a VideoInformationBase
+     * @throws Exception If the fields could not be converted to a VideoInformationBase
      */
-    VideoInformationBase(String fromString, String paneId) throws Exception {
-
-        this.paneId = paneId;
-
-        String videoName = null;
-        String videoDescription = null;
-        VisibilityStatus visibility = null;
-        ArrayList<String> videoTags = null;
-        String selectedPlaylist = null;
-        String category = null;
-        boolean tellSubs = false;
-        String thumbnailPath = null;
-        boolean madeForKids = false;
-
-        // Splitting up the data for easy reading, one thing per row -> on thing per array element
-        String[] lines = fromString.split("\n");
-        String line;
-        // For all lines
-        for(int i = 0; i < lines.length; i++) {
-            line = lines[i];
-            // Locate the separator between field name and value
-            int colonIndex = line.indexOf(':');
-            if (colonIndex < 0) {
-                System.err.println(fromString);
-                throw new Exception("Malformed string representation of class. Input: \n\"" + fromString + "\"");
-            } else {
-                // Switch on field name
-                switch (line.substring(0, colonIndex)) {
-                    case NODE_ID_TITLE:
-                        videoName = line.substring(colonIndex + 1);
-                        break;
-                    case NODE_ID_DESCRIPTION:
-                        // A bit special to allow descriptions to be multi-lined with actual enters in.
-                        StringBuilder descBuilder = new StringBuilder();
-                        descBuilder.append(line.substring(colonIndex + 1));
-                        // Skips lines in the outer loop because they are not valid
-                        i++;
-                        // As long as the next line not starts with "_" treat it as a part of the description
-                        while(!lines[i].startsWith("_")) {
-                            descBuilder.append("\n").append(lines[i]);
-                            i++;
-                        }
-                        // Line started with _ ,go back one so the increment in the loop does not cause this line to be skipped
-                        i--;
-                        videoDescription = descBuilder.toString();
-                        break;
-                    case NODE_ID_VISIBILITY:
-                        visibility = VisibilityStatus.valueOf(line.substring(colonIndex + 1));
-                        break;
-                    case NODE_ID_TAGS:
-                        line = line.substring(colonIndex + 2, line.length() - 1); // remove brackets
-                        videoTags = new ArrayList<>(Arrays.asList(line.split(",")));
-                        break;
-                    case NODE_ID_PLAYLIST:
-                        selectedPlaylist = line.substring(colonIndex + 1);
-                        break;
-                    case NODE_ID_CATEGORY:
-                        category = line.substring(colonIndex + 1);
-                        break;
-                    case NODE_ID_TELL_SUBS:
-                        tellSubs = Boolean.parseBoolean(line.substring(colonIndex + 1));
-                        break;
-                    case NODE_ID_THUMBNAIL:
-                        thumbnailPath = line.substring(colonIndex + 1);
-                        if(thumbnailPath.equals("_")) {
-                            this.thumbNailFile = null; // use default
-                        } else {
-                            this.thumbNailFile = new File(thumbnailPath);
-                        }
-                        break;
-                    case NODE_ID_MADE_FOR_KIDS:
-                        madeForKids = Boolean.parseBoolean(line.substring(colonIndex + 1));
-                    default:
-                        //ignore, might be a child value
-                }
-            }
-        }
-        makeVideoBasePane(videoName, videoDescription, visibility, videoTags, selectedPlaylist,
-                category, tellSubs, thumbnailPath, madeForKids);
+    VideoInformationBase(RecordReader record, String paneId) throws Exception {
+        this(VideoDetails.fromRecord(record), paneId);
     }
 
     /**
@@ -523,9 +580,7 @@ public class VideoInformationBase {
         if (paneIdForCopy == null) {
             paneIdForCopy = paneId;
         }
-        return new VideoInformationBase(getVideoName(), getVideoDescription(), getVisibility(),
-                getVideoTags(), getSelectedPlaylist(), getCategory(), isTellSubs(),
-                getThumbNail().getAbsolutePath(), isMadeForKids(), paneIdForCopy);
+        return new VideoInformationBase(getDetails(), paneIdForCopy);
     }
 
     /**
@@ -636,136 +691,96 @@ public class VideoInformationBase {
             return this;
         }
 
+        /**
+         * @return a VideoDetails with the attributes set on this builder
+         */
+        VideoDetails buildDetails() {
+            return new VideoDetails.Builder()
+                    .setVideoName(videoName)
+                    .setVideoDescription(videoDescription)
+                    .setVisibility(visibility)
+                    .setVideoTags(videoTags)
+                    .setSelectedPlaylist(selectedPlaylist)
+                    .setCategory(category)
+                    .setTellSubs(tellSubs)
+                    .setThumbNailPath(thumbNailPath)
+                    .setMadeForKids(madeForKids)
+                    .build();
+        }
+
         public VideoInformationBase build() {
-            return new VideoInformationBase(videoName, videoDescription, visibility, videoTags, selectedPlaylist,
-                    category, tellSubs, thumbNailPath, madeForKids, paneName);
-        }
-    }
-
-    /**
-     * Creates the UI Pane so it can be be retrieved by front end code with getPane()
-     * @param videoName Content of the video title field
-     * @param videoDescription Content of the video description field
-     * @param visibility The VisibilityStatus to be selected by default
-     * @param videoTags The tags to be inside th tags field
-     * @param selectedPlaylist The name of the playlist to be selected by default
-     * @param category The category to be selected by default
-     * @param tellSubs The default value of tellSubs
-     * @param thumbNailPath The path to the selected thumbnail or null for the no thumbnail selected image
-     */
-    private void makeVideoBasePane(String videoName, String videoDescription, VisibilityStatus visibility,
-                                   List<String> videoTags, String selectedPlaylist,
-                                   String category, boolean tellSubs, String thumbNailPath, boolean madeForKids) {
-         // Creating the pane, id, size, border
-         videoBasePane = new GridPane();
-         videoBasePane.setId(paneId);
-         videoBasePane.setBorder(new Border(new BorderStroke(Color.BLACK, BorderStrokeStyle.SOLID, CornerRadii.EMPTY, BorderWidths.DEFAULT)));
-
-         if(videoName == null) videoName = "";
-         if(videoDescription == null) videoDescription = "";
-
-
-         TextField title = new TextField();     // Creating the video title TextField
-         title.setId(paneId + NODE_ID_TITLE);   // Naming it
-         title.setPromptText("Video title");    // Faded text to tell the user what should be entered here
-         title.setText(videoName);              // Set text to be shown
-         title.setEditable(false);              // Do not allow the content in the TextField to be changed by the user
-
-         TextArea description = new TextArea();
-         description.setId(paneId + NODE_ID_DESCRIPTION);
-         description.setPromptText("Video description");
-         description.setText(videoDescription);
-         description.setEditable(false);
-         // Visually start a new line when the edge of TextArea is reached so the user do not need to scroll sideways to
-         // read what they just entered. This type of automatic enter is only visible in the UI and is not a part of the
-         // string returned by description.getText()
-         description.setWrapText(true);
-
-         ChoiceBox<String> categoryChoiceBox = new ChoiceBox<>(FXCollections.observableArrayList(categoryUtils.getCategoryNames()));
-         categoryChoiceBox.setId(paneId + NODE_ID_CATEGORY);
-         categoryChoiceBox.getSelectionModel().select(category);
-         categoryChoiceBox.setTooltip(new Tooltip("Youtube Video Category"));
-         categoryChoiceBox.setDisable(true);    // prevent editing
-
-         TextArea tags = new TextArea();
-         tags.setId(paneId + NODE_ID_TAGS);
-         tags.setPromptText("list, of, tags, separated, with, comma, and, space");
-         StringBuilder tagsString = new StringBuilder();
-         if(videoTags != null && videoTags.size() > 0) {
-             // Add the tags to the screen with a ", " separation between them
-             tags.setText(String.join(", ", videoTags));
-         } else {
-             tags.setText("");
-         }
-         tags.setEditable(false);
-         tags.setWrapText(true);
-         tags.textProperty().addListener((observable, oldValue, newValue) -> { //Prevent newlines, allow text wrap
-                 tags.setText(newValue.replaceAll("\\R", ""));
-         });
-
-        ChoiceBox<String> playlistChoiceBox = new ChoiceBox<>(
-                FXCollections.observableArrayList(PlaylistUtils.INSTANCE.getVisiblePlaylistNames()));
-        if (selectedPlaylist == null) {
-            playlistChoiceBox.getSelectionModel().select(0);
-        } else {
-            if (playlistChoiceBox.getItems().contains(selectedPlaylist)) {
-                playlistChoiceBox.getSelectionModel().select(selectedPlaylist);
-            } else {
-                playlistChoiceBox.getSelectionModel().select(0);
-            }
+            return new VideoInformationBase(buildDetails(), paneName);
         }
-         playlistChoiceBox.setId(paneId + NODE_ID_PLAYLIST);
-         playlistChoiceBox.setTooltip(new Tooltip("Select a playlist to add this video to"));
-         playlistChoiceBox.setDisable(true);
+    }
+
+    /**
+     * Creates the UI Pane with all its nodes, the nodes are filled with the values of this item in fillPane()
+     */
+    private void makeVideoBasePane() {
+        // Creating the pane, id, size, border
+        videoBasePane = new GridPane();
+        videoBasePane.setId(paneId);
+        videoBasePane.setBorder(new Border(new BorderStroke(Color.BLACK, BorderStrokeStyle.SOLID, CornerRadii.EMPTY, BorderWidths.DEFAULT)));
+
+        TextField title = new TextField();     // Creating the video title TextField
+        title.setId(paneId + NODE_ID_TITLE);   // Naming it
+        title.setPromptText("Video title");    // Faded text to tell the user what should be entered here
+        title.setEditable(false);              // Do not allow the content in the TextField to be changed by the user
+
+        TextArea description = new TextArea();
+        description.setId(paneId + NODE_ID_DESCRIPTION);
+        description.setPromptText("Video description");
+        description.setEditable(false);
+        // Visually start a new line when the edge of TextArea is reached so the user do not need to scroll sideways to
+        // read what they just entered. This type of automatic enter is only visible in the UI and is not a part of the
+        // string returned by description.getText()
+        description.setWrapText(true);
+
+        ChoiceBox<String> categoryChoiceBox = new ChoiceBox<>(FXCollections.observableArrayList(categoryUtils.getCategoryNames()));
+        categoryChoiceBox.setId(paneId + NODE_ID_CATEGORY);
+        categoryChoiceBox.setTooltip(new Tooltip("Youtube Video Category"));
+        categoryChoiceBox.setDisable(true);    // prevent editing
 
-         ArrayList<VisibilityStatus> statuses = new ArrayList<>(EnumSet.allOf(VisibilityStatus.class));
-         ArrayList<String> visibilityStrings = new ArrayList<>();
-         for (VisibilityStatus status : statuses) {
+        TextArea tags = new TextArea();
+        tags.setId(paneId + NODE_ID_TAGS);
+        tags.setPromptText("list, of, tags, separated, with, comma, and, space");
+        tags.setEditable(false);
+        tags.setWrapText(true);
+        tags.textProperty().addListener((observable, oldValue, newValue) -> { //Prevent newlines, allow text wrap
+            tags.setText(newValue.replaceAll("\\R", ""));
+        });
+
+        SearchableComboBox playlistChoiceBox = new SearchableComboBox(playlistUtils.getSearchIndex(),
+                playlistUtils.getVisiblePlaylistNames());
+        playlistChoiceBox.setId(paneId + NODE_ID_PLAYLIST);
+        playlistChoiceBox.setTooltip(new Tooltip("Select a playlist to add this video to"));
+        playlistChoiceBox.setDisable(true);
+
+        ArrayList<VisibilityStatus> statuses = new ArrayList<>(EnumSet.allOf(VisibilityStatus.class));
+        ArrayList<String> visibilityStrings = new ArrayList<>();
+        for (VisibilityStatus status : statuses) {
             visibilityStrings.add(status.getStatusName());
-         }
-         ChoiceBox<String> visibilityChoiceBox = new ChoiceBox<>(FXCollections.observableArrayList(visibilityStrings));
-         visibilityChoiceBox.setId(paneId + NODE_ID_VISIBILITY);
-         visibilityChoiceBox.getSelectionModel().select(visibility.getStatusName());
-         visibilityChoiceBox.setTooltip(new Tooltip("how will the video be accessible?"));
-         visibilityChoiceBox.setDisable(true);
-
-         ArrayList<String> tellSubsOptions = new ArrayList<>();
-         tellSubsOptions.add("Do not Notify Subscribers");
-         tellSubsOptions.add("Notify Subscribers");
-         ChoiceBox<String> tellSubsChoiceBox = new ChoiceBox<>(FXCollections.observableArrayList(tellSubsOptions));
+        }
+        ChoiceBox<String> visibilityChoiceBox = new ChoiceBox<>(FXCollections.observableArrayList(visibilityStrings));
+        visibilityChoiceBox.setId(paneId + NODE_ID_VISIBILITY);
+        visibilityChoiceBox.setTooltip(new Tooltip("how will the video be accessible?"));
+        visibilityChoiceBox.setDisable(true);
+
+        ArrayList<String> tellSubsOptions = new ArrayList<>();
+        tellSubsOptions.add("Do not Notify Subscribers");
+        tellSubsOptions.add("Notify Subscribers");
+        ChoiceBox<String> tellSubsChoiceBox = new ChoiceBox<>(FXCollections.observableArrayList(tellSubsOptions));
         tellSubsChoiceBox.setId(paneId + NODE_ID_TELL_SUBS);
-         if (tellSubs) {
-            tellSubsChoiceBox.getSelectionModel().select(1);
-         } else {
-            tellSubsChoiceBox.getSelectionModel().select(0);
-         }
-         tellSubsChoiceBox.setTooltip(new Tooltip(
-                 "Should the channel's subscribers be notified that a new video has been uploaded? " +
-                         "Not recommended then uploading a lot of videos"));
-         tellSubsChoiceBox.setDisable(true);
-
-         Image thumbNailImage;
-         try {
-             thumbNailImage = new Image(new BufferedInputStream(new FileInputStream(new File(thumbNailPath))));
-         } catch (FileNotFoundException | NullPointerException e) {
-             InputStream thumbStream = this.getClass().getResourceAsStream("/images/no_image.png");
-             thumbNailImage = new Image(thumbStream);
-         }
-         ImageView thumbNailFrame = new ImageView(thumbNailImage);
-         thumbNailFrame.setFitWidth(160);
-         thumbNailFrame.setFitHeight(90);
-         thumbNailFrame.setId(paneId + NODE_ID_THUMBNAIL);
-         thumbNailFrame.setPreserveRatio(true);
-         thumbNailFrame.setOnMouseEntered(event -> {
-             if (thumbnailCursorEventHandler != null && allowEdit) {
-                 thumbnailCursorEventHandler.accept(true);
-             }
-         });
-        thumbNailFrame.setOnMouseExited(event -> {
-            if (thumbnailCursorEventHandler != null && allowEdit) {
-                thumbnailCursorEventHandler.accept(false);
-            }
-        });
+        tellSubsChoiceBox.setTooltip(new Tooltip(
+                "Should the channel's subscribers be notified that a new video has been uploaded? " +
+                        "Not recommended then uploading a lot of videos"));
+        tellSubsChoiceBox.setDisable(true);
+
+        ImageView thumbNailFrame = new ImageView();
+        thumbNailFrame.setFitWidth(160);
+        thumbNailFrame.setFitHeight(90);
+        thumbNailFrame.setId(paneId + NODE_ID_THUMBNAIL);
+        thumbNailFrame.setPreserveRatio(true);
 
         CheckBox checkBoxMFK = new CheckBox("Flag video as \"Made for kids\"");
         checkBoxMFK.setId(paneId + NODE_ID_MADE_FOR_KIDS);
@@ -774,24 +789,17 @@ public class VideoInformationBase {
             OpenInBrowser.openInBrowser("https://support.google.com/youtube/answer/9528076");
         });
         checkBoxMFK.setTooltip(new Tooltip("Left click to toggle selection, right click to open help about Made for kids"));
-        checkBoxMFK.setSelected(madeForKids);
         checkBoxMFK.setDisable(true);
 
-        // Create empty buttons so setters/getters for the buttons do not throw NullPointerException
-        Button ghostBtn1 = new Button("");
-        ghostBtn1.setVisible(false);
-        Button ghostBtn2 = new Button("");
-        ghostBtn2.setVisible(false);
-        Button ghostBtn3 = new Button("");
-        ghostBtn3.setVisible(false);
+        // The buttons is placed in fillPane()
         // The buttonBox gets recreated in ensureButtonBox, if changed here, also update there!
-        HBox buttonsBox = new HBox(5, ghostBtn1, ghostBtn2, ghostBtn3);
+        HBox buttonsBox = new HBox(5);
         buttonsBox.setId(getPaneId() + NODE_ID_BUTTONSBOX);
 
-         // Place the different nodes on the pane
-         videoBasePane.add(title, 0, 0);
-         videoBasePane.add(categoryChoiceBox, 1, 0);
-         videoBasePane.add(playlistChoiceBox, 2, 0);
+        // Place the different nodes on the pane
+        videoBasePane.add(title, 0, 0);
+        videoBasePane.add(categoryChoiceBox, 1, 0);
+        videoBasePane.add(playlistChoiceBox, 2, 0);
 
         videoBasePane.add(description, 0, 1, 1, 4);
         videoBasePane.add(tags, 1, 1, 1, 2);
@@ -804,48 +812,182 @@ public class VideoInformationBase {
 
         videoBasePane.add(buttonsBox, 0, 5);
 
-         // Sizing
-         ColumnConstraints rightConstraint = new ColumnConstraints(170, 170, 170);
-         ColumnConstraints defaultConstraint = new ColumnConstraints(100, USE_COMPUTED_SIZE, MAX_VALUE);
-         videoBasePane.getColumnConstraints().setAll(defaultConstraint, defaultConstraint, rightConstraint);
+        // Sizing
+        ColumnConstraints rightConstraint = new ColumnConstraints(170, 170, 170);
+        ColumnConstraints defaultConstraint = new ColumnConstraints(100, USE_COMPUTED_SIZE, MAX_VALUE);
+        videoBasePane.getColumnConstraints().setAll(defaultConstraint, defaultConstraint, rightConstraint);
 
         RowConstraints rowConstraint = new RowConstraints(30);
         videoBasePane.getRowConstraints().setAll(rowConstraint, rowConstraint,
                 rowConstraint, rowConstraint, rowConstraint, rowConstraint);
     }
 
+    /**
+     * Sets the values and event handlers of this item on the nodes of the pane. Used both when the pane is created and
+     * when a pane previously used by another item is attached to this item.
+     */
+    @SuppressWarnings("unchecked")
+    private void fillPane() {
+        ((TextField) videoBasePane.lookup("#" + paneId + NODE_ID_TITLE)).setText(details.getVideoName());
+        ((TextArea) videoBasePane.lookup("#" + paneId + NODE_ID_DESCRIPTION)).setText(details.getVideoDescription());
+        // Add the tags to the screen with a ", " separation between them
+        ((TextArea) videoBasePane.lookup("#" + paneId + NODE_ID_TAGS)).setText(String.join(", ", details.getVideoTags()));
+
+        ChoiceBox<String> categoryChoiceBox = (ChoiceBox<String>) videoBasePane.lookup("#" + paneId + NODE_ID_CATEGORY);
+        categoryChoiceBox.getSelectionModel().select(details.getCategory());
+
+        SearchableComboBox playlistChoiceBox = (SearchableComboBox) videoBasePane.lookup("#" + paneId + NODE_ID_PLAYLIST);
+        String selectedPlaylist = details.getSelectedPlaylist();
+        if (selectedPlaylist != null && !playlistUtils.isLoaded() && !playlistChoiceBox.hasItem(selectedPlaylist)) {
+            // The playlists is still being loaded when the program starts. Keep the playlist as a choice so it is not
+            // lost, the choices is replaced when the playlists is loaded.
+            List<String> choices = new ArrayList<>(playlistChoiceBox.getAllItems());
+            choices.add(selectedPlaylist);
+            playlistChoiceBox.setAllItems(choices);
+        }
+        if (selectedPlaylist != null && playlistChoiceBox.hasItem(selectedPlaylist)) {
+            playlistChoiceBox.getSelectionModel().select(selectedPlaylist);
+        } else {
+            playlistChoiceBox.getSelectionModel().select(0);
+        }
+
+        ((ChoiceBox<String>) videoBasePane.lookup("#" + paneId + NODE_ID_VISIBILITY)).getSelectionModel()
+                .select(details.getVisibility().getStatusName());
+        // only two choices, do notify subscribers is the second choice (index 1)
+        ((ChoiceBox<String>) videoBasePane.lookup("#" + paneId + NODE_ID_TELL_SUBS)).getSelectionModel()
+                .select(details.isTellSubs() ? 1 : 0);
+        ((CheckBox) videoBasePane.lookup("#" + paneId + NODE_ID_MADE_FOR_KIDS)).setSelected(details.isMadeForKids());
+
+        // The thumbnail is decoded in the background and shared with all other panes showing the same file
+        ImageView thumbNailFrame = (ImageView) videoBasePane.lookup("#" + paneId + NODE_ID_THUMBNAIL);
+        ThumbnailCache.INSTANCE.loadInto(thumbNailFrame, details.getThumbNail());
+        thumbNailFrame.setOnMouseEntered(event -> {
+            if (thumbnailCursorEventHandler != null && allowEdit) {
+                thumbnailCursorEventHandler.accept(true);
+            }
+        });
+        thumbNailFrame.setOnMouseExited(event -> {
+            if (thumbnailCursorEventHandler != null && allowEdit) {
+                thumbnailCursorEventHandler.accept(false);
+            }
+        });
+
+        // Place the buttons that has been set, use empty buttons for the slots that has not been set yet
+        HBox buttonsBox = ensureButtonBox();
+        buttonsBox.getChildren().clear();
+        for (Button button : buttons) {
+            if (button != null) {
+                buttonsBox.getChildren().add(button);
+            } else {
+                Button ghostBtn = new Button("");
+                ghostBtn.setVisible(false);
+                buttonsBox.getChildren().add(ghostBtn);
+            }
+        }
+
+        fillExtendedPane(videoBasePane);
+        applyEditable();
+    }
 
     /**
-     * Creates a string representation of the class that can be saved and later used to recreate the class as it
-     * looked like before with the VideoInformationBase(String, String) constructor
-     * @return A String representation of this class
+     * Gives this item a pane that was previously used by another item of the same class and detached from it with
+     * detachPane(). The nodes are renamed to use the paneId of this item and filled with its values. This makes it
+     * possible to show a long list of items with only a few panes, for example in a ListCell that is reused
+     * for different items.
+     *
+     * @param pane a pane from detachPane() on another item of the same class
      */
-    public String toString() {
-        StringBuilder classString = new StringBuilder();
-        String thumbnailSave;
+    public void attachPane(GridPane pane) {
+        if (pane == null)
+            throw new IllegalArgumentException("pane can not be null");
+        if (videoBasePane != null)
+            detachPane();
 
-        if (thumbNailFile == null) {
-            thumbnailSave = "_"; //no thumbnail set, default is selected
-        } else {
-            // Attempt to get the path of the thumbnail and if it fails fall back to the default thumbnail.
-            // Earlier the entire Instance of the class was lost.
-            try {
-                thumbnailSave = thumbNailFile.getCanonicalPath();
-            } catch (IOException e) {
-                System.err.println("Failed getting the path of the thumbnail while creating a string of " + paneId + " named " + getVideoName());
-                thumbnailSave = "_";
+        renameNodes(pane, pane.getId() + "_", paneId + "_");
+        pane.setId(paneId);
+        videoBasePane = pane;
+        fillPane();
+    }
+
+    /**
+     * Removes the pane from this item so it can be given to another item with attachPane(GridPane).
+     * The values in the pane is saved in this item before the pane is released, a new pane will be created if
+     * getPane() is called later.
+     *
+     * @return the pane that was used by this item or null if this item did not have a pane
+     */
+    public GridPane detachPane() {
+        if (videoBasePane == null)
+            return null;
+
+        details = getDetails();
+        commitExtendedPane(videoBasePane);
+        GridPane pane = videoBasePane;
+        videoBasePane = null;
+        return pane;
+    }
+
+    /**
+     * Changes the id prefix of all nodes on parent, and their children, that has an id starting with oldPrefix
+     */
+    private static void renameNodes(Parent parent, String oldPrefix, String newPrefix) {
+        for (Node node : parent.getChildrenUnmodifiable()) {
+            if (node.getId() != null && node.getId().startsWith(oldPrefix)) {
+                node.setId(newPrefix + node.getId().substring(oldPrefix.length()));
+            }
+            if (node instanceof Parent) {
+                renameNodes((Parent) node, oldPrefix, newPrefix);
             }
         }
-        classString.append(NODE_ID_TITLE + ":").append(getVideoName()).append("\n")
-                .append(NODE_ID_DESCRIPTION).append(":").append(getVideoDescription()).append("\n")
-                .append(NODE_ID_VISIBILITY).append(":").append(getVisibility().getStatusName().toUpperCase()).append("\n")
-                .append(NODE_ID_TAGS).append(":").append(getVideoTags().toString()).append("\n")
-                .append(NODE_ID_PLAYLIST).append(":").append(getSelectedPlaylist()).append("\n")
-                .append(NODE_ID_CATEGORY).append(":").append(getCategory()).append("\n")
-                .append(NODE_ID_TELL_SUBS).append(":").append(isTellSubs()).append("\n")
-                .append(NODE_ID_THUMBNAIL).append(":").append(thumbnailSave).append("\n")
-                .append(NODE_ID_MADE_FOR_KIDS).append(":").append(isMadeForKids());
-        return classString.toString();
+    }
 
+    /**
+     * Called once when the pane has been created, subclasses can override this to add their own nodes to it.
+     * The nodes should be filled with values in fillExtendedPane(GridPane).
+     *
+     * @param pane the newly created pane
+     */
+    void extendPane(GridPane pane) {
+        // Nothing to add in the base class
+    }
+
+    /**
+     * Called every time the pane has been filled with the values of this item, subclasses can override this to
+     * set the values of the nodes they added in extendPane(GridPane).
+     *
+     * @param pane the pane used by this item
+     */
+    void fillExtendedPane(GridPane pane) {
+        // Nothing to fill in the base class
+    }
+
+    /**
+     * Called before the pane is detached from this item, subclasses that has editable nodes can override this to
+     * save their values.
+     *
+     * @param pane the pane that is about to be detached
+     */
+    void commitExtendedPane(GridPane pane) {
+        // The base class values is saved in detachPane()
+    }
+
+    /**
+     * Creates a string representation of the class that can be saved and later used to recreate the class as it
+     * looked like before with the constructor taking a string in the subclass
+     * @return A String representation of this class
+     */
+    public final String toString() {
+        RecordWriter writer = new RecordWriter();
+        writeFields(writer);
+        return writer.toString();
+    }
+
+    /**
+     * Writes the fields that should be saved to writer. Subclasses that has more fields to save should call
+     * super.writeFields(writer) and then write their own fields.
+     * @param writer the RecordWriter creating the string representation
+     */
+    void writeFields(RecordWriter writer) {
+        getDetails().writeTo(writer);
     }
 }
@@ -1,5 +1,7 @@
 package io.github.stekeblad.videouploader.youtube;
 
+import io.github.stekeblad.videouploader.utils.RecordReader;
+import io.github.stekeblad.videouploader.utils.RecordWriter;
 import io.github.stekeblad.videouploader.youtube.utils.VisibilityStatus;
 import javafx.scene.control.TextField;
 import javafx.scene.layout.GridPane;
@@ -12,30 +14,51 @@ import java.util.List;
 public class VideoPreset extends VideoInformationBase {
 
     private static final String NODE_ID_PRESETNAME = "_presetName";
+    private static final String KEY_AUTO_THUMBNAIL = "_autoThumbnail";
 
-    private GridPane presetPane;
+    private String presetName;
+    private boolean autoThumbnail = false;
 
     public void setPresetName(String newName) {
-        ((TextField) presetPane.lookup("#" + getPaneId() + NODE_ID_PRESETNAME)).setText(newName);
+        presetName = newName;
+        GridPane presetPane = getCreatedPane();
+        if (presetPane != null) {
+            ((TextField) presetPane.lookup("#" + getPaneId() + NODE_ID_PRESETNAME)).setText(newName);
+        }
     }
     /**
      * @return returns the name of this preset
      */
     public String getPresetName() {
+        GridPane presetPane = getCreatedPane();
+        if (presetPane == null)
+            return presetName;
         return ((TextField) presetPane.lookup("#" + getPaneId() + NODE_ID_PRESETNAME)).getText();
     }
 
     /**
-     * @return returns the entire UI pane for placement on screen
+     * @return true if videos using this preset should get a thumbnail taken from a frame of the video when
+     * no thumbnail is selected in the preset
      */
-    public GridPane getPane() {
-        return presetPane;
+    public boolean isAutoThumbnail() {
+        return autoThumbnail;
+    }
+
+    /**
+     * @param autoThumbnail true to give videos using this preset a thumbnail taken from a frame of the video when
+     *                      no thumbnail is selected in the preset
+     */
+    public void setAutoThumbnail(boolean autoThumbnail) {
+        this.autoThumbnail = autoThumbnail;
     }
 
     // Inherit parent doc
     public void setEditable(boolean newEditStatus) {
         super.setEditable(newEditStatus);
-        ((TextField) presetPane.lookup("#" + getPaneId() + NODE_ID_PRESETNAME)).setEditable(newEditStatus);
+        GridPane presetPane = getCreatedPane();
+        if (presetPane != null) {
+            ((TextField) presetPane.lookup("#" + getPaneId() + NODE_ID_PRESETNAME)).setEditable(newEditStatus);
+        }
     }
 
     /**
@@ -58,7 +81,18 @@ public class VideoPreset extends VideoInformationBase {
 
         super(videoName, videoDescription, visibility, videoTags, selectedPlaylist,
                 category, tellSubs, thumbNailPath, madeForKids, paneId);
-        makePresetPane(presetName);
+        this.presetName = presetName;
+    }
+
+    /**
+     * Creates a VideoPreset from a VideoDetails. No UI is created until getPane() is called.
+     * @param details The details to use for the videos that uses this preset
+     * @param presetName A name used to recognize this preset
+     * @param paneId A string used for naming all UI elements
+     */
+    public VideoPreset(VideoDetails details, String presetName, String paneId) {
+        super(details, paneId);
+        this.presetName = presetName;
     }
 
     /**
@@ -68,27 +102,16 @@ public class VideoPreset extends VideoInformationBase {
      * @throws Exception If the string could not be converted to a VideoPreset
      */
     public VideoPreset(String fromString, String paneId) throws Exception {
-        super(fromString, paneId);
-
-        String presetName = null;
-
-        String[] lines = fromString.split("\n");
-        for (String line : lines) {
-            int colonIndex = line.indexOf(':');
-            if (colonIndex > 0) {
-                switch (line.substring(0, colonIndex)) {
-                    case NODE_ID_PRESETNAME:
-                        presetName = line.substring(colonIndex + 1);
-                        break;
-                    default:
-                        // likely belong to parent
-                }
-            }
-        }
+        this(RecordReader.parse(fromString), paneId);
+    }
+
+    private VideoPreset(RecordReader record, String paneId) throws Exception {
+        super(record, paneId);
+        presetName = record.get(NODE_ID_PRESETNAME);
+        autoThumbnail = record.getBoolean(KEY_AUTO_THUMBNAIL);
         if (presetName == null) {
             throw new Exception("String representation of class does not have presetName");
         }
-        makePresetPane(presetName);
     }
 
     /**
@@ -103,14 +126,9 @@ public class VideoPreset extends VideoInformationBase {
         if(paneIdForCopy == null) {
             paneIdForCopy = this.getPaneId();
         }
-        String thumbnailPath;
-        if(getThumbNail() == null) {
-            thumbnailPath = null;
-        } else {
-            thumbnailPath = getThumbNail().getAbsolutePath();
-        }
-        return new VideoPreset(getVideoName(), getVideoDescription(), getVisibility(), getVideoTags(), getSelectedPlaylist(),
-                getCategory(), isTellSubs(), thumbnailPath, isMadeForKids(), paneIdForCopy, getPresetName());
+        VideoPreset copy = new VideoPreset(getDetails(), getPresetName(), paneIdForCopy);
+        copy.setAutoThumbnail(autoThumbnail);
+        return copy;
     }
 
     /**
@@ -181,36 +199,54 @@ public class VideoPreset extends VideoInformationBase {
         }
 
         public VideoPreset build() {
-            return new VideoPreset(getVideoName(), getVideoDescription(), getVisibility(), getVideoTags(), getSelectedPlaylist(),
-                    getCategory(), isTellSubs(), getThumbNailPath(), isMadeForKids(), getPresetName(), presetName);
+            return new VideoPreset(buildDetails(), presetName, getPaneName());
         }
     }
 
     /**
-     * Creates the UI Pane so it can be be retrieved by front end code with getPane()
-     * @param name The preset name
+     * Adds the preset specific nodes to the pane created by the base class
+     * @param presetPane the pane to extend
      */
-    private void makePresetPane(String name) {
-        // The base class has already done most of the work
-        presetPane = super.getPane();
-
-        TextField presetName = new TextField();
-        presetName.setId(getPaneId() + NODE_ID_PRESETNAME);
-        presetName.setPromptText("Preset name");
-        presetName.setText(name);
-        presetName.setEditable(false);
+    @Override
+    void extendPane(GridPane presetPane) {
+        TextField presetNameField = new TextField();
+        presetNameField.setId(getPaneId() + NODE_ID_PRESETNAME);
+        presetNameField.setPromptText("Preset name");
+        presetNameField.setEditable(false);
 
         // Add new Nodes on new row at the bottom
-        presetPane.add(presetName, 1, 5);
+        presetPane.add(presetNameField, 1, 5);
+    }
+
+    /**
+     * Sets the value of the preset specific nodes
+     * @param presetPane the pane used by this preset
+     */
+    @Override
+    void fillExtendedPane(GridPane presetPane) {
+        TextField presetNameField = (TextField) presetPane.lookup("#" + getPaneId() + NODE_ID_PRESETNAME);
+        presetNameField.setText(presetName);
+        presetNameField.setEditable(isEditable());
+    }
+
+    /**
+     * Saves the preset name before the pane is detached
+     * @param presetPane the pane that is about to be detached
+     */
+    @Override
+    void commitExtendedPane(GridPane presetPane) {
+        presetName = getPresetName();
     }
 
     /**
-     * Creates a string representation of the class that can be saved and later used to recreate the class as it
-     * looked like before with the VideoPreset(String, String) constructor
-     * @return A String representation of this class
+     * Adds the preset name and auto thumbnail setting to the string representation, the class can later be recreated
+     * as it looked like before with the VideoPreset(String, String) constructor
+     * @param writer the RecordWriter creating the string representation
      */
-    public String toString() {
-        return super.toString() + "\n" +
-                NODE_ID_PRESETNAME + ":" + getPresetName();
+    @Override
+    void writeFields(RecordWriter writer) {
+        super.writeFields(writer);
+        writer.write(NODE_ID_PRESETNAME, getPresetName())
+                .write(KEY_AUTO_THUMBNAIL, autoThumbnail);
     }
 }
@@ -1,7 +1,12 @@
 package io.github.stekeblad.videouploader.youtube;
 
+import io.github.stekeblad.videouploader.utils.RecordReader;
+import io.github.stekeblad.videouploader.utils.RecordWriter;
+import io.github.stekeblad.videouploader.utils.background.FrameThumbnailGenerator;
 import io.github.stekeblad.videouploader.utils.background.OpenInBrowser;
 import io.github.stekeblad.videouploader.youtube.utils.VisibilityStatus;
+import javafx.application.Platform;
+import javafx.scene.Node;
 import javafx.scene.control.Label;
 import javafx.scene.control.ProgressBar;
 import javafx.scene.layout.GridPane;
@@ -10,6 +15,7 @@ import java.io.File;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Can represents a video that is being prepared for uploading or currently being uploaded.
@@ -17,9 +23,18 @@ import java.util.List;
 public class VideoUpload extends VideoInformationBase{
     private static final String NODE_ID_PROGRESS = "_progress";
     private static final String NODE_ID_UPLOADSTATUS = "_status";
+    private static final String KEY_VIDEO_FILE = "_videofile";
+    private static final String KEY_AUTO_THUMBNAIL = "_autoThumbnail";
 
     private File videoFile;
-    private GridPane uploadPane;
+    private boolean autoThumbnail = false;
+
+    // State of the upload specific nodes, kept here so the pane can be created (or recreated) at any time
+    private double progress = 0;
+    private boolean progressBarVisible = false;
+    private String progressBarColor = null;
+    private String statusLabelText = "Upload not started";
+    private String statusLabelUrl = null;
 
     /**
      * @return returns a File object with the video file set to be used when uploading
@@ -29,10 +44,44 @@ public class VideoUpload extends VideoInformationBase{
     }
 
     /**
-     * @return returns the entire UI pane for placement on screen
+     * @return true if the video should get a thumbnail taken from a frame of the video when no thumbnail is selected
+     */
+    public boolean isAutoThumbnail() {
+        return autoThumbnail;
+    }
+
+    /**
+     * Sets if the video should get a thumbnail taken from a frame of the video when no thumbnail is selected. If it
+     * should the frame is created in the background and shown when it is ready, the upload can be started before
+     * that, Uploader waits for the frame with getFrameThumbnail.
+     * @param autoThumbnail true to use a frame from the video as thumbnail
+     */
+    public void setAutoThumbnail(boolean autoThumbnail) {
+        this.autoThumbnail = autoThumbnail;
+        if (!autoThumbnail || getThumbNail() != null || videoFile == null)
+            return;
+        getFrameThumbnail().whenComplete((thumbnail, throwable) -> {
+            if (throwable != null) {
+                // Not critical, the video is uploaded without a custom thumbnail
+                System.err.println("Could not create a thumbnail from the video \"" + videoFile.getName() + "\"");
+                throwable.printStackTrace();
+                return;
+            }
+            Platform.runLater(() -> {
+                // Turned off while the frame was being created
+                if (this.autoThumbnail)
+                    setGeneratedThumbNail(thumbnail);
+            });
+        });
+    }
+
+    /**
+     * Creates a thumbnail from a frame of the video file in the background, or gives the one that is already created.
+     * The thumbnail is created once per video file, calling this again is cheap.
+     * @return a CompletableFuture that gives the thumbnail file, completes exceptionally if the video could not be decoded
      */
-    public GridPane getPane() {
-        return this.uploadPane;
+    public CompletableFuture<File> getFrameThumbnail() {
+        return FrameThumbnailGenerator.INSTANCE.generate(videoFile);
     }
 
     // Inherit parent doc
@@ -47,7 +96,11 @@ public class VideoUpload extends VideoInformationBase{
      */
     public void setProgressBarProgress(double progress) {
         if (progress >=0 && progress <= 1) {
-            ((ProgressBar) uploadPane.lookup("#" + getPaneId() + NODE_ID_PROGRESS)).setProgress(progress);
+            this.progress = progress;
+            GridPane uploadPane = getCreatedPane();
+            if (uploadPane != null) {
+                ((ProgressBar) uploadPane.lookup("#" + getPaneId() + NODE_ID_PROGRESS)).setProgress(progress);
+            }
         }
     }
 
@@ -57,7 +110,11 @@ public class VideoUpload extends VideoInformationBase{
      * @param show true if it should be visible, false if it should not
      */
     public void setProgressBarVisibility(boolean show) {
-        uploadPane.lookup("#" + getPaneId() + NODE_ID_PROGRESS).setVisible(show);
+        progressBarVisible = show;
+        GridPane uploadPane = getCreatedPane();
+        if (uploadPane != null) {
+            uploadPane.lookup("#" + getPaneId() + NODE_ID_PROGRESS).setVisible(show);
+        }
     }
 
     /**
@@ -69,7 +126,11 @@ public class VideoUpload extends VideoInformationBase{
         if (color == null) {
             color = "#0096c9"; // default -fx-accent color in used style (Modena)
         }
-        uploadPane.lookup("#" + getPaneId() + NODE_ID_PROGRESS).setStyle("-fx-accent: " + color);
+        progressBarColor = color;
+        GridPane uploadPane = getCreatedPane();
+        if (uploadPane != null) {
+            uploadPane.lookup("#" + getPaneId() + NODE_ID_PROGRESS).setStyle("-fx-accent: " + color);
+        }
     }
 
     /**
@@ -77,7 +138,11 @@ public class VideoUpload extends VideoInformationBase{
      * @param text the text to show
      */
     public void setStatusLabelText(String text) {
-        ((Label) uploadPane.lookup("#" + getPaneId() + NODE_ID_UPLOADSTATUS)).setText(text);
+        statusLabelText = text;
+        GridPane uploadPane = getCreatedPane();
+        if (uploadPane != null) {
+            ((Label) uploadPane.lookup("#" + getPaneId() + NODE_ID_UPLOADSTATUS)).setText(text);
+        }
     }
 
     /**
@@ -86,19 +151,29 @@ public class VideoUpload extends VideoInformationBase{
      * @param url the url to open
      */
     public void setStatusLabelOnClickUrl(String url) {
-        uploadPane.lookup("#" + getPaneId() + NODE_ID_UPLOADSTATUS)
-                .setOnMouseClicked(event -> {
-                    try {
-                        OpenInBrowser.openInBrowser(new URI(url), (t, e) -> e.printStackTrace());
-                    } catch (URISyntaxException e) {
-                        e.printStackTrace();
-                    }
-                });
+        statusLabelUrl = url;
+        GridPane uploadPane = getCreatedPane();
+        if (uploadPane != null) {
+            applyStatusLabelUrl(uploadPane.lookup("#" + getPaneId() + NODE_ID_UPLOADSTATUS));
+        }
+    }
+
+    /**
+     * Makes the status label open statusLabelUrl when clicked
+     * @param statusLabel the status label node
+     */
+    private void applyStatusLabelUrl(Node statusLabel) {
+        String url = statusLabelUrl;
+        statusLabel.setOnMouseClicked(event -> {
+            try {
+                OpenInBrowser.openInBrowser(new URI(url), (t, e) -> e.printStackTrace());
+            } catch (URISyntaxException e) {
+                e.printStackTrace();
+            }
+        });
         if (thumbnailCursorEventHandler != null) {
-            uploadPane.lookup("#" + getPaneId() + NODE_ID_UPLOADSTATUS)
-                    .setOnMouseEntered(event -> thumbnailCursorEventHandler.accept(true));
-            uploadPane.lookup("#" + getPaneId() + NODE_ID_UPLOADSTATUS)
-                    .setOnMouseExited(event -> thumbnailCursorEventHandler.accept(false));
+            statusLabel.setOnMouseEntered(event -> thumbnailCursorEventHandler.accept(true));
+            statusLabel.setOnMouseExited(event -> thumbnailCursorEventHandler.accept(false));
         }
     }
 
@@ -123,7 +198,18 @@ public class VideoUpload extends VideoInformationBase{
         super(videoName, videoDescription, visibility, videoTags, selectedPlaylist, category,
                 tellSubs, thumbNailPath, madeForKids, paneName);
         this.videoFile = videoFile;
-        makeUploadPane();
+    }
+
+    /**
+     * Creates a VideoUpload from a VideoDetails. No UI is created until getPane() is called so this constructor
+     * can be used from background threads.
+     * @param details The details of the video that will be uploaded
+     * @param videoFile The video that will be uploaded
+     * @param paneName A string used for naming all UI elements
+     */
+    public VideoUpload(VideoDetails details, File videoFile, String paneName) {
+        super(details, paneName);
+        this.videoFile = videoFile;
     }
 
     /**
@@ -133,21 +219,17 @@ public class VideoUpload extends VideoInformationBase{
      * @throws Exception If the string could not be converted to a VideoUpload
      */
     public VideoUpload(String fromString, String paneId) throws Exception{
-        super(fromString, paneId);
-        String[] lines = fromString.split("\n");
-        for (String line : lines) {
-            int colonIndex = line.indexOf(':');
-            if (colonIndex > 0) {
-                switch (line.substring(0, colonIndex)) {
-                    case "_videofile":
-                        videoFile = new File(line.substring((colonIndex + 1)));
-                        break;
-                    default:
-                        // likely belongs to parent
-                }
-            }
+        this(RecordReader.parse(fromString), paneId);
+    }
+
+    private VideoUpload(RecordReader record, String paneId) throws Exception {
+        super(record, paneId);
+        String videoFilePath = record.get(KEY_VIDEO_FILE);
+        if (videoFilePath != null) {
+            videoFile = new File(videoFilePath);
         }
-        makeUploadPane();
+        // The frame is created again, or taken from the thumbnail cache, if it was not ready when this was saved
+        setAutoThumbnail(record.getBoolean(KEY_AUTO_THUMBNAIL));
     }
 
     /**
@@ -162,14 +244,9 @@ public class VideoUpload extends VideoInformationBase{
         if(paneIdCopy == null) {
             paneIdCopy = getPaneId();
         }
-        String thumbnailPath;
-        if(getThumbNail() == null) {
-            thumbnailPath = null;
-        } else {
-            thumbnailPath = getThumbNail().getAbsolutePath();
-        }
-        return new VideoUpload(getVideoName(), getVideoDescription(), getVisibility(), getVideoTags(), getSelectedPlaylist(),
-                getCategory(), isTellSubs(), thumbnailPath, isMadeForKids(), paneIdCopy, getVideoFile());
+        VideoUpload copy = new VideoUpload(getDetails(), getVideoFile(), paneIdCopy);
+        copy.setAutoThumbnail(autoThumbnail);
+        return copy;
     }
 
     /**
@@ -240,25 +317,21 @@ public class VideoUpload extends VideoInformationBase{
         }
 
         public VideoUpload build() {
-            return new VideoUpload(getVideoName(), getVideoDescription(), getVisibility(), getVideoTags(),
-                    getSelectedPlaylist(), getCategory(), isTellSubs(),
-                    getThumbNailPath(), isMadeForKids(), getPaneName(), videoFile);
+            return new VideoUpload(buildDetails(), videoFile, getPaneName());
         }
     }
 
     /**
-     * Creates the UI Pane so it can be be retrieved by front end code with getPane()
+     * Adds the upload specific nodes to the pane created by the base class
+     * @param uploadPane the pane to extend
      */
-    private void makeUploadPane() {
-        // The base class has already done most of the work
-        uploadPane = super.getPane();
-
+    @Override
+    void extendPane(GridPane uploadPane) {
         ProgressBar progressBar = new ProgressBar();
         progressBar.setId(getPaneId() + NODE_ID_PROGRESS);
         progressBar.setPrefWidth(160);
-        progressBar.setVisible(false);
 
-        Label uploadStatus = new Label("Upload not started");
+        Label uploadStatus = new Label();
         uploadStatus.setId(getPaneId() + NODE_ID_UPLOADSTATUS);
 
         // Add the new Nodes on a new row at the bottom
@@ -267,13 +340,36 @@ public class VideoUpload extends VideoInformationBase{
     }
 
     /**
-     * Creates a string representation of the class that can be saved and later used to recreate the class as it
-     * looked like before with the VideoUpload(String, String) constructor
-     * @return A String representation of this class
+     * Sets the state of the upload specific nodes
+     * @param uploadPane the pane used by this upload
+     */
+    @Override
+    void fillExtendedPane(GridPane uploadPane) {
+        ProgressBar progressBar = (ProgressBar) uploadPane.lookup("#" + getPaneId() + NODE_ID_PROGRESS);
+        progressBar.setProgress(progress);
+        progressBar.setVisible(progressBarVisible);
+        progressBar.setStyle(progressBarColor == null ? "" : "-fx-accent: " + progressBarColor);
+
+        Label uploadStatus = (Label) uploadPane.lookup("#" + getPaneId() + NODE_ID_UPLOADSTATUS);
+        uploadStatus.setText(statusLabelText);
+        if (statusLabelUrl != null) {
+            applyStatusLabelUrl(uploadStatus);
+        } else {
+            uploadStatus.setOnMouseClicked(null);
+            uploadStatus.setOnMouseEntered(null);
+            uploadStatus.setOnMouseExited(null);
+        }
+    }
+
+    /**
+     * Adds the video file and auto thumbnail setting to the string representation, the class can later be recreated
+     * as it looked like before with the VideoUpload(String, String) constructor
+     * @param writer the RecordWriter creating the string representation
      */
-    public String toString() {
-        String classString = super.toString();
-        classString += "\n_videofile:" + videoFile.getAbsolutePath();
-        return classString;
+    @Override
+    void writeFields(RecordWriter writer) {
+        super.writeFields(writer);
+        writer.write(KEY_VIDEO_FILE, videoFile.getAbsolutePath())
+                .write(KEY_AUTO_THUMBNAIL, autoThumbnail);
     }
 }
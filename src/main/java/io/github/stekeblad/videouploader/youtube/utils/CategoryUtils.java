@@ -22,7 +22,8 @@ public enum CategoryUtils {
 
     private final ConfigManager configManager = ConfigManager.INSTANCE;
 
-    private HashMap<String, String> categories = null;
+    // volatile as the categories is loaded on a background thread when the program starts
+    private volatile HashMap<String, String> categories = null;
 
     /**
      * Gets Categories from Youtube. Does not check if permission has been given or not. If you want to display a warning
@@ -106,17 +107,19 @@ public enum CategoryUtils {
 
     /**
      * Loads saved categories from disc, if no saved categories was found then a default no categories category is added.
+     * Can be called on a background thread, the categories is replaced first when all is loaded.
      */
     public void loadCategories() {
-        categories = new HashMap<>();
+        HashMap<String, String> loaded = new HashMap<>();
         ArrayList<String> data = configManager.loadLocalizedCategories();
         for (String category : data) {
             String id = category.substring(0, category.indexOf(':'));
             String name = category.substring(category.indexOf(':') + 1);
-            categories.put(name, id);
+            loaded.put(name, id);
         }
-        if(categories.isEmpty()) {
-            categories.put("Categories not localized", "-1");
+        if(loaded.isEmpty()) {
+            loaded.put("Categories not localized", "-1");
         }
+        categories = loaded;
     }
 }
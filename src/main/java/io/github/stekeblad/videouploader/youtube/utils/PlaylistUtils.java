@@ -7,6 +7,7 @@ import com.google.api.services.youtube.model.PlaylistListResponse;
 import com.google.api.services.youtube.model.PlaylistSnippet;
 import com.google.api.services.youtube.model.PlaylistStatus;
 import io.github.stekeblad.videouploader.utils.ConfigManager;
+import io.github.stekeblad.videouploader.utils.NameSearchIndex;
 import io.github.stekeblad.videouploader.utils.translation.TranslationBundles;
 import io.github.stekeblad.videouploader.utils.translation.TranslationsManager;
 import io.github.stekeblad.videouploader.youtube.Auth;
@@ -26,7 +27,10 @@ public enum PlaylistUtils {
 
     private final ConfigManager configManager = ConfigManager.INSTANCE;
     private String noPlaylistName = "";
-    private HashMap<String, LocalPlaylist> playlistCache = null;
+    // volatile as the cache is loaded on a background thread when the program starts
+    private volatile HashMap<String, LocalPlaylist> playlistCache = null;
+    // The names of all playlists, shared by the playlist pickers so they do not need to index the names themselves
+    private final NameSearchIndex searchIndex = new NameSearchIndex();
 
     /**
      * Gets playlists from Youtube. Does not check if permission has been given or not. If you want to display a warning
@@ -71,6 +75,7 @@ public enum PlaylistUtils {
                     userPlaylists.setPageToken(response.getNextPageToken());
                 }
             }while(response.getNextPageToken() != null);
+            searchIndex.setAll(playlistCache.keySet());
             saveCache();
         } catch (IOException e) {
             playlistCache = oldCache;
@@ -79,13 +84,23 @@ public enum PlaylistUtils {
     }
 
     /**
-     * First attempts to load local playlists from disc, if no playlists is found then attempt to get playlists from youtube
+     * The playlists is loaded in the background when the program starts, until that is done the methods in this class
+     * works as if there was no playlists. Windows that shows playlists should update them when this returns true.
+     *
+     * @return true if the playlists has been loaded
+     */
+    public boolean isLoaded() {
+        return playlistCache != null;
+    }
+
+    /**
+     * The index is updated when the playlists is loaded, refreshed or a playlist is added. It contains all playlists,
+     * also the ones that is not visible.
+     *
+     * @return a search index with the names of all playlists, for SearchableComboBoxes showing playlists
      */
-    private void getUserPlaylists() {
-        loadCache();
-        /*if (playlistCache.isEmpty()) {
-            refreshPlaylist();
-        }*/
+    public NameSearchIndex getSearchIndex() {
+        return searchIndex;
     }
 
     /**
@@ -100,17 +115,19 @@ public enum PlaylistUtils {
 
     /**
      *
-     * @return a list with the names of all playlists
+     * @return a list with the names of all playlists, empty if the playlists has not been loaded yet
      */
     public ArrayList<String> getPlaylistNames() {
-        if(playlistCache == null) {
-            getUserPlaylists();
+        HashMap<String, LocalPlaylist> cache = playlistCache;
+        if(cache == null) {
+            return new ArrayList<>();
         }
-        return new ArrayList<>(playlistCache.keySet());
+        return new ArrayList<>(cache.keySet());
     }
 
     /**
-     * This method returns all playlists that is set to be visible plus a "No playlist selected" item at index 0
+     * This method returns all playlists that is set to be visible plus a "No playlist selected" item at index 0.
+     * Only the "No playlist selected" item is returned if the playlists has not been loaded yet.
      * @return a ArrayList with playlist names
      */
     public ArrayList<String> getVisiblePlaylistNames() {
@@ -119,7 +136,11 @@ public enum PlaylistUtils {
             noPlaylistName = TranslationsManager.getTranslation(TranslationBundles.BASE).getString("noSelected");
         }
         visiblePlaylists.add(noPlaylistName);
-        playlistCache.forEach((k, v) -> {
+        HashMap<String, LocalPlaylist> cache = playlistCache;
+        if (cache == null) {
+            return visiblePlaylists;
+        }
+        cache.forEach((k, v) -> {
             if (v.isVisible()) {
                 visiblePlaylists.add(k);
             }
@@ -133,13 +154,15 @@ public enum PlaylistUtils {
      * @return the id of the playlist playlistName or null if their is no playlist named playlistName
      */
     public String getPlaylistId(String playlistName) {
-        if (playlistName == null) {
+        HashMap<String, LocalPlaylist> cache = playlistCache;
+        if (playlistName == null || cache == null) {
             return null;
         }
-        if (playlistCache.get(playlistName) == null) {
+        LocalPlaylist playlist = cache.get(playlistName);
+        if (playlist == null) {
             return null;
         }
-        return playlistCache.get(playlistName).getId();
+        return playlist.getId();
     }
 
     /**
@@ -186,7 +209,11 @@ public enum PlaylistUtils {
 
             LocalPlaylist localPlaylist = new LocalPlaylist(
                     true, syncedPlaylist.getId(), syncedPlaylist.getSnippet().getTitle());
+            if (playlistCache == null) {
+                loadCache();
+            }
             playlistCache.put(syncedPlaylist.getSnippet().getTitle(), localPlaylist);
+            searchIndex.add(syncedPlaylist.getSnippet().getTitle());
             return localPlaylist;
         } catch (IOException e) {
             e.printStackTrace();
@@ -200,6 +227,9 @@ public enum PlaylistUtils {
      * @param visibleStatus the new value of the visible variable
      */
     public void setVisible(String playlistName, boolean visibleStatus) {
+        if (playlistCache == null) {
+            return;
+        }
         LocalPlaylist lp = playlistCache.get(playlistName);
         if (lp == null) {
             return;
@@ -209,9 +239,12 @@ public enum PlaylistUtils {
     }
 
     /**
-     * Saves the playlists to disc
+     * Saves the playlists to disc. Nothing is saved if the playlists has not been loaded yet.
      */
     public void saveCache() {
+        if (playlistCache == null) {
+            return;
+        }
         StringBuilder saveString = new StringBuilder();
         playlistCache.forEach((k, v) -> saveString.append(Boolean.toString(v.isVisible())).append(":")
                 .append(v.getId()).append(":").append(v.getName()).append("\n"));
@@ -220,14 +253,17 @@ public enum PlaylistUtils {
     }
 
     /**
-     * Loads playlists from disc
+     * Loads playlists from disc. Can be called on a background thread, the cache is replaced first when all playlists
+     * is loaded.
      */
     public void loadCache() {
-        playlistCache = new HashMap<>();
+        HashMap<String, LocalPlaylist> loaded = new HashMap<>();
         // Add default "no playlist" item
         ArrayList<String> loadedPlaylists = configManager.loadPlaylistCache();
         // If no playlists could be loaded
         if(loadedPlaylists == null || loadedPlaylists.size() == 0) {
+            searchIndex.setAll(loaded.keySet());
+            playlistCache = loaded;
             return;
         }
         // Check version of playlist file to determinate how to read it
@@ -246,16 +282,18 @@ public enum PlaylistUtils {
                 String id = loadedPlaylist.substring(0, colonIndex);
                 String name = loadedPlaylist.substring(colonIndex + 1);
                 // save
-                playlistCache.put(name, new LocalPlaylist(visible, id, name));
+                loaded.put(name, new LocalPlaylist(visible, id, name));
             }
         } else {
             // Older version, for release 1.0
             for (String loadedPlaylist : loadedPlaylists) {
                 String id = loadedPlaylist.substring(0, loadedPlaylist.indexOf(':'));
                 String name = loadedPlaylist.substring(loadedPlaylist.indexOf(':') + 1);
-                playlistCache.put(name, new LocalPlaylist(true, id, name));
+                loaded.put(name, new LocalPlaylist(true, id, name));
             }
         }
-
+        // Indexed before the playlists can be seen, so every playlist name given out is in the index
+        searchIndex.setAll(loaded.keySet());
+        playlistCache = loaded;
     }
 }